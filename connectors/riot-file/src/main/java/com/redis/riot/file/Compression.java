@@ -0,0 +1,216 @@
+package com.redis.riot.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Compression codecs for file import and export, detected from the file
+ * extension following the file type (e.g. {@code dump.jsonl.zst}).
+ */
+public enum Compression {
+
+	GZIP("gz") {
+
+		@Override
+		public InputStream inputStream(InputStream in, int threads) {
+			return new ParallelGzipInputStream(in, threads);
+		}
+
+		@Override
+		public OutputStream outputStream(OutputStream out, int level, int threads) {
+			return new ParallelGzipOutputStream(out, threads, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE,
+					level == DEFAULT_LEVEL ? Deflater.DEFAULT_COMPRESSION : level);
+		}
+
+		@Override
+		public OutputStream outputStream(OutputStream out, int level, ExecutorService executor) {
+			return new ParallelGzipOutputStream(out, executor, ParallelGzipOutputStream.DEFAULT_SHARED_MAX_PENDING,
+					ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE,
+					level == DEFAULT_LEVEL ? Deflater.DEFAULT_COMPRESSION : level);
+		}
+
+		@Override
+		public byte[] compress(byte[] data, int level) {
+			return ParallelGzipOutputStream.member(data, data.length,
+					level == DEFAULT_LEVEL ? Deflater.DEFAULT_COMPRESSION : level);
+		}
+
+		@Override
+		public byte[] decompress(byte[] data, int length) throws IOException {
+			try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+				return in.readNBytes(length);
+			}
+		}
+
+	},
+
+	ZSTD("zst") {
+
+		@Override
+		public InputStream inputStream(InputStream in, int threads) throws IOException {
+			return new ZstdInputStream(in);
+		}
+
+		@Override
+		public OutputStream outputStream(OutputStream out, int level, int threads) throws IOException {
+			ZstdOutputStream outputStream = new ZstdOutputStream(out, level == DEFAULT_LEVEL ? ZSTD_LEVEL : level);
+			if (threads > 1) {
+				outputStream.setWorkers(threads);
+			}
+			return outputStream;
+		}
+
+		@Override
+		public byte[] compress(byte[] data, int level) {
+			return Zstd.compress(data, level == DEFAULT_LEVEL ? ZSTD_LEVEL : level);
+		}
+
+		@Override
+		public byte[] decompress(byte[] data, int length) throws IOException {
+			try {
+				return Zstd.decompress(data, length);
+			} catch (ZstdException e) {
+				throw new ZipException(e.getMessage());
+			}
+		}
+
+	},
+
+	LZ4("lz4") {
+
+		@Override
+		public InputStream inputStream(InputStream in, int threads) throws IOException {
+			return new LZ4FrameInputStream(in);
+		}
+
+		@Override
+		public OutputStream outputStream(OutputStream out, int level, int threads) throws IOException {
+			LZ4Factory factory = LZ4Factory.fastestInstance();
+			LZ4Compressor compressor = level > 0 ? factory.highCompressor(level) : factory.fastCompressor();
+			return new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB, -1L, compressor,
+					XXHashFactory.fastestInstance().hash32(), LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE);
+		}
+
+		@Override
+		public byte[] compress(byte[] data, int level) {
+			LZ4Factory factory = LZ4Factory.fastestInstance();
+			LZ4Compressor compressor = level > 0 ? factory.highCompressor(level) : factory.fastCompressor();
+			return compressor.compress(data);
+		}
+
+		@Override
+		public byte[] decompress(byte[] data, int length) throws IOException {
+			try {
+				return LZ4Factory.fastestInstance().safeDecompressor().decompress(data, length);
+			} catch (LZ4Exception e) {
+				throw new ZipException(e.getMessage());
+			}
+		}
+
+	};
+
+	/**
+	 * Level meaning the codec's own default.
+	 */
+	public static final int DEFAULT_LEVEL = -1;
+
+	private static final int ZSTD_LEVEL = 3;
+
+	private final String extension;
+
+	Compression(String extension) {
+		this.extension = extension;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	/**
+	 *
+	 * @param in      compressed stream
+	 * @param threads max number of threads the codec may use
+	 * @return decompressed stream
+	 */
+	public abstract InputStream inputStream(InputStream in, int threads) throws IOException;
+
+	/**
+	 *
+	 * @param out     stream receiving compressed bytes
+	 * @param level   codec-specific compression level, or {@link #DEFAULT_LEVEL}.
+	 *                Gzip: 0-9, zstd: 1-22, LZ4: 0 for fast and 1-17 for high
+	 *                compression.
+	 * @param threads max number of threads the codec may use
+	 * @return compressing stream
+	 */
+	public abstract OutputStream outputStream(OutputStream out, int level, int threads) throws IOException;
+
+	/**
+	 * Compressing stream for one of many files written at the same time. Gzip
+	 * blocks are compressed on the given executor, created with
+	 * {@link ParallelGzipOutputStream#executor(int)} and shared by all streams,
+	 * other codecs compress in the writing thread.
+	 *
+	 * @param out      stream receiving compressed bytes
+	 * @param level    codec-specific compression level, or {@link #DEFAULT_LEVEL}
+	 * @param executor compression executor shared with other streams
+	 * @return compressing stream
+	 */
+	public OutputStream outputStream(OutputStream out, int level, ExecutorService executor) throws IOException {
+		return outputStream(out, level, 1);
+	}
+
+	/**
+	 * Compresses a single block in the calling thread.
+	 *
+	 * @param data  bytes to compress
+	 * @param level codec-specific compression level, or {@link #DEFAULT_LEVEL}
+	 * @return compressed bytes
+	 */
+	public abstract byte[] compress(byte[] data, int level);
+
+	/**
+	 *
+	 * @param data   bytes returned by {@link #compress(byte[], int)}
+	 * @param length length of the uncompressed block
+	 * @return uncompressed bytes
+	 */
+	public abstract byte[] decompress(byte[] data, int length) throws IOException;
+
+	/**
+	 *
+	 * @param file file name or location
+	 * @return compression matching the file extension, or null if none
+	 */
+	public static Compression of(String file) {
+		String extension = FileUtils.compressionExtension(file);
+		if (extension == null) {
+			return null;
+		}
+		for (Compression compression : values()) {
+			if (compression.extension.equalsIgnoreCase(extension)) {
+				return compression;
+			}
+		}
+		return null;
+	}
+
+}
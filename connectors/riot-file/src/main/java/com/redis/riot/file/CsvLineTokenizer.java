@@ -0,0 +1,168 @@
+package com.redis.riot.file;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.batch.item.file.transform.AbstractLineTokenizer;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.util.Assert;
+
+/**
+ * Drop-in replacement for {@link DelimitedLineTokenizer} that scans each line
+ * once and only creates strings for the included fields. Scanning stops after
+ * the last included field, so wide lines where only a few leading columns are
+ * imported are not tokenized past that point.
+ * <p>
+ * Quoting follows {@link DelimitedLineTokenizer}: quoted values are trimmed,
+ * their enclosing quotes removed and doubled quote characters unescaped, while
+ * unquoted values are returned as is.
+ */
+public class CsvLineTokenizer extends AbstractLineTokenizer {
+
+	private String delimiter = DelimitedLineTokenizer.DELIMITER_COMMA;
+	private char quoteCharacter = DelimitedLineTokenizer.DEFAULT_QUOTE_CHARACTER;
+	private boolean[] includedFields;
+	private int lastIncludedField = Integer.MAX_VALUE;
+	private int includedFieldCount = 16;
+
+	public CsvLineTokenizer() {
+	}
+
+	public CsvLineTokenizer(String delimiter) {
+		setDelimiter(delimiter);
+	}
+
+	public void setDelimiter(String delimiter) {
+		Assert.hasLength(delimiter, "Delimiter must not be empty");
+		this.delimiter = delimiter;
+	}
+
+	public void setQuoteCharacter(char quoteCharacter) {
+		this.quoteCharacter = quoteCharacter;
+	}
+
+	/**
+	 *
+	 * @param includedFields 0-based indices of the fields to keep, all fields are
+	 *                       kept if empty
+	 */
+	public void setIncludedFields(int... includedFields) {
+		if (includedFields == null || includedFields.length == 0) {
+			this.includedFields = null;
+			this.lastIncludedField = Integer.MAX_VALUE;
+			this.includedFieldCount = 16;
+			return;
+		}
+		int max = 0;
+		for (int index : includedFields) {
+			Assert.isTrue(index >= 0, "Included field indices must be positive");
+			max = Math.max(max, index);
+		}
+		this.includedFields = new boolean[max + 1];
+		for (int index : includedFields) {
+			this.includedFields[index] = true;
+		}
+		this.lastIncludedField = max;
+		this.includedFieldCount = includedFields.length;
+	}
+
+	/**
+	 * Interns the field names, which become the keys of every record read with
+	 * this tokenizer.
+	 */
+	@Override
+	public void setNames(String... names) {
+		if (names == null) {
+			super.setNames(names);
+			return;
+		}
+		String[] interned = new String[names.length];
+		for (int index = 0; index < names.length; index++) {
+			interned[index] = names[index] == null ? null : names[index].intern();
+		}
+		super.setNames(interned);
+	}
+
+	@Override
+	protected List<String> doTokenize(String line) {
+		List<String> tokens = new ArrayList<>(includedFieldCount);
+		int length = line.length();
+		if (length == 0) {
+			return tokens;
+		}
+		char delimiterStart = delimiter.charAt(0);
+		int delimiterLength = delimiter.length();
+		int field = 0;
+		int start = 0;
+		boolean inQuotes = false;
+		boolean quoted = false;
+		int index = 0;
+		while (index < length) {
+			char c = line.charAt(index);
+			if (c == quoteCharacter) {
+				inQuotes = !inQuotes;
+				quoted = true;
+			} else if (!inQuotes && c == delimiterStart
+					&& (delimiterLength == 1 || line.startsWith(delimiter, index))) {
+				if (isIncluded(field)) {
+					tokens.add(token(line, start, index, quoted));
+				}
+				if (field == lastIncludedField) {
+					return tokens;
+				}
+				field++;
+				index += delimiterLength;
+				start = index;
+				quoted = false;
+				continue;
+			}
+			index++;
+		}
+		if (isIncluded(field)) {
+			tokens.add(token(line, start, length, quoted));
+		}
+		return tokens;
+	}
+
+	private boolean isIncluded(int field) {
+		return includedFields == null || (field < includedFields.length && includedFields[field]);
+	}
+
+	private String token(String line, int start, int end, boolean quoted) {
+		if (!quoted) {
+			return line.substring(start, end);
+		}
+		int from = start;
+		int to = end;
+		while (from < to && line.charAt(from) <= ' ') {
+			from++;
+		}
+		while (to > from && line.charAt(to - 1) <= ' ') {
+			to--;
+		}
+		if (to - from < 2 || line.charAt(from) != quoteCharacter || line.charAt(to - 1) != quoteCharacter) {
+			return line.substring(start, end);
+		}
+		return unescape(line, from + 1, to - 1);
+	}
+
+	private String unescape(String line, int start, int end) {
+		StringBuilder value = null;
+		int from = start;
+		for (int index = start; index < end; index++) {
+			if (line.charAt(index) == quoteCharacter && index + 1 < end && line.charAt(index + 1) == quoteCharacter) {
+				if (value == null) {
+					value = new StringBuilder(end - start);
+				}
+				value.append(line, from, index + 1);
+				index++;
+				from = index + 1;
+			}
+		}
+		if (value == null) {
+			return line.substring(start, end);
+		}
+		return value.append(line, from, end).toString();
+	}
+
+}
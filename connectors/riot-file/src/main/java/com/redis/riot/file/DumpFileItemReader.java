@@ -0,0 +1,202 @@
+package com.redis.riot.file;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipException;
+
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reads {@link DumpRecord records} from a dump file written by
+ * {@link DumpFileItemWriter}. Blocks are read sequentially so the file can be
+ * streamed from any resource, e.g. standard input or object storage, and each
+ * block is checked against its CRC before its records are handed out. Once all
+ * blocks are read the index and trailer are checked against them, so that a
+ * truncated file fails instead of silently ending early.
+ */
+public class DumpFileItemReader extends AbstractItemCountingItemStreamItemReader<DumpRecord> {
+
+	private final Resource resource;
+	private DataInputStream in;
+	private Compression compression;
+	private ByteBuffer block;
+	private int blockRecords;
+	private final List<Integer> blockCounts = new ArrayList<>();
+	private long recordCount;
+	private boolean complete;
+
+	public DumpFileItemReader(Resource resource) {
+		Assert.notNull(resource, "Resource must not be null");
+		this.resource = resource;
+		setName(ClassUtils.getShortName(DumpFileItemReader.class));
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		in = new DataInputStream(new BufferedInputStream(resource.getInputStream()));
+		byte[] magic = new byte[DumpFileItemWriter.MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, DumpFileItemWriter.MAGIC)) {
+			throw new ItemStreamException(resource.getDescription() + " is not a dump file");
+		}
+		byte version = in.readByte();
+		if (version != DumpFileItemWriter.VERSION) {
+			throw new ItemStreamException("Unsupported dump file version: " + version);
+		}
+		byte[] codec = new byte[in.readUnsignedByte()];
+		in.readFully(codec);
+		compression = codec.length == 0 ? null
+				: Compression.valueOf(new String(codec, StandardCharsets.US_ASCII));
+	}
+
+	@Override
+	protected DumpRecord doRead() throws Exception {
+		while (blockRecords == 0) {
+			if (!readBlock()) {
+				return null;
+			}
+		}
+		try {
+			DumpRecord record = new DumpRecord();
+			record.setKey(bytes(block.getInt()));
+			record.setTtl(block.getLong());
+			int typeLength = Byte.toUnsignedInt(block.get());
+			record.setType(typeLength == 0 ? null : new String(bytes(typeLength), StandardCharsets.US_ASCII));
+			record.setDump(bytes(block.getInt()));
+			blockRecords--;
+			return record;
+		} catch (BufferUnderflowException | NegativeArraySizeException e) {
+			throw new ZipException("Corrupt dump block");
+		}
+	}
+
+	private byte[] bytes(int length) {
+		byte[] bytes = new byte[length];
+		block.get(bytes);
+		return bytes;
+	}
+
+	private boolean readBlock() throws IOException {
+		if (complete) {
+			return false;
+		}
+		int marker = in.read();
+		if (marker == -1) {
+			throw new EOFException("Truncated dump file " + resource.getDescription() + ": no index found");
+		}
+		if (marker == DumpFileItemWriter.INDEX) {
+			readIndex();
+			complete = true;
+			return false;
+		}
+		if (marker != DumpFileItemWriter.BLOCK) {
+			throw new ZipException("Corrupt dump file: unexpected marker " + marker);
+		}
+		int records = in.readInt();
+		int rawLength = in.readInt();
+		byte[] stored = new byte[in.readInt()];
+		int crc = in.readInt();
+		in.readFully(stored);
+		byte[] raw = compression == null ? stored : compression.decompress(stored, rawLength);
+		CRC32 checksum = new CRC32();
+		checksum.update(raw);
+		if (raw.length != rawLength || (int) checksum.getValue() != crc) {
+			throw new ZipException("Corrupt dump block (bad CRC)");
+		}
+		block = ByteBuffer.wrap(raw);
+		blockRecords = records;
+		blockCounts.add(records);
+		recordCount += records;
+		return true;
+	}
+
+	private void readIndex() throws IOException {
+		int blocks = in.readInt();
+		if (blocks != blockCounts.size()) {
+			throw new ZipException(
+					String.format("Corrupt dump file: index lists %d blocks, read %d", blocks, blockCounts.size()));
+		}
+		for (int index = 0; index < blocks; index++) {
+			in.readLong();
+			int records = in.readInt();
+			if (records != blockCounts.get(index)) {
+				throw new ZipException(String.format("Corrupt dump file: index lists %d records in block %d, read %d",
+						records, index, blockCounts.get(index)));
+			}
+		}
+		in.readLong();
+		long records = in.readLong();
+		byte[] magic = new byte[DumpFileItemWriter.MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, DumpFileItemWriter.MAGIC)) {
+			throw new ZipException("Corrupt dump file: bad trailer");
+		}
+		if (records != recordCount) {
+			throw new ZipException(
+					String.format("Corrupt dump file: trailer lists %d records, read %d", records, recordCount));
+		}
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		block = null;
+		blockRecords = 0;
+		blockCounts.clear();
+		recordCount = 0;
+		complete = false;
+		if (in != null) {
+			in.close();
+			in = null;
+		}
+	}
+
+	/**
+	 * Reads the record count from the trailer of a local dump file.
+	 *
+	 * @param file dump file
+	 * @return number of records in the file, or -1 if it has no valid trailer,
+	 *         e.g. because it is compressed or was not closed
+	 */
+	public static long count(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < DumpFileItemWriter.MAGIC.length + DumpFileItemWriter.TRAILER_SIZE) {
+				return -1;
+			}
+			ByteBuffer trailer = ByteBuffer.allocate(DumpFileItemWriter.TRAILER_SIZE);
+			while (trailer.hasRemaining()) {
+				if (channel.read(trailer, size - DumpFileItemWriter.TRAILER_SIZE + trailer.position()) == -1) {
+					throw new EOFException();
+				}
+			}
+			trailer.flip();
+			long indexOffset = trailer.getLong();
+			long records = trailer.getLong();
+			byte[] magic = new byte[DumpFileItemWriter.MAGIC.length];
+			trailer.get(magic);
+			if (!Arrays.equals(magic, DumpFileItemWriter.MAGIC) || indexOffset < 0 || indexOffset >= size) {
+				return -1;
+			}
+			return records;
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+}
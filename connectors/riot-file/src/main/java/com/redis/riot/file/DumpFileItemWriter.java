@@ -0,0 +1,198 @@
+package com.redis.riot.file;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemStreamItemWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Writes {@link DumpRecord records} to a binary dump file, restored with
+ * {@link DumpFileItemReader}. The file is laid out as follows, all integers
+ * big-endian:
+ *
+ * <pre>
+ * file    = magic(8) version(1) codec-length(1) codec block* index trailer
+ * block   = 'B' records(4) raw-length(4) stored-length(4) crc32(4) stored-bytes
+ * record  = key-length(4) key ttl(8) type-length(1) type dump-length(4) dump
+ * index   = 'I' blocks(4) (offset(8) records(4))*
+ * trailer = index-offset(8) records(8) magic(8)
+ * </pre>
+ *
+ * Records are buffered into blocks of roughly {@link #setBlockSize(int) block
+ * size} bytes, each compressed on its own with the optional
+ * {@link #setCompression(Compression) codec}, whose name is stored in the file
+ * header. The index lists the offset and record count of each block and the
+ * trailer lets readers find the index and the total record count from the end
+ * of the file.
+ */
+public class DumpFileItemWriter extends AbstractItemStreamItemWriter<DumpRecord> {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+	static final byte[] MAGIC = "RIOTDUMP".getBytes(StandardCharsets.US_ASCII);
+	static final byte VERSION = 1;
+	static final byte BLOCK = 'B';
+	static final byte INDEX = 'I';
+	static final int TRAILER_SIZE = 24;
+
+	private final WritableResource resource;
+	private Compression compression;
+	private int compressionLevel = Compression.DEFAULT_LEVEL;
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+	private final DataOutputStream blockOut = new DataOutputStream(block);
+	private final List<long[]> index = new ArrayList<>();
+	private CountingOutputStream counter;
+	private DataOutputStream out;
+	private int blockRecords;
+	private long recordCount;
+
+	public DumpFileItemWriter(WritableResource resource) {
+		Assert.notNull(resource, "Resource must not be null");
+		this.resource = resource;
+		setName(ClassUtils.getShortName(DumpFileItemWriter.class));
+	}
+
+	public void setCompression(Compression compression) {
+		this.compression = compression;
+	}
+
+	public void setCompressionLevel(int level) {
+		this.compressionLevel = level;
+	}
+
+	public void setBlockSize(int size) {
+		Assert.isTrue(size > 0, "Block size must be greater than 0");
+		this.blockSize = size;
+	}
+
+	@Override
+	public synchronized void open(ExecutionContext executionContext) {
+		super.open(executionContext);
+		if (out != null) {
+			return;
+		}
+		try {
+			counter = new CountingOutputStream(new BufferedOutputStream(resource.getOutputStream()));
+			out = new DataOutputStream(counter);
+			out.write(MAGIC);
+			out.writeByte(VERSION);
+			byte[] codec = compression == null ? new byte[0] : compression.name().getBytes(StandardCharsets.US_ASCII);
+			out.writeByte(codec.length);
+			out.write(codec);
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not open dump file " + resource.getDescription(), e);
+		}
+	}
+
+	@Override
+	public synchronized void write(Chunk<? extends DumpRecord> chunk) throws IOException {
+		Assert.state(out != null, "Writer must be open before it can be written to");
+		for (DumpRecord record : chunk) {
+			blockOut.writeInt(record.getKey().length);
+			blockOut.write(record.getKey());
+			blockOut.writeLong(record.getTtl());
+			byte[] type = record.getType() == null ? new byte[0] : record.getType().getBytes(StandardCharsets.US_ASCII);
+			blockOut.writeByte(type.length);
+			blockOut.write(type);
+			blockOut.writeInt(record.getDump().length);
+			blockOut.write(record.getDump());
+			blockRecords++;
+			if (block.size() >= blockSize) {
+				writeBlock();
+			}
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		if (blockRecords == 0) {
+			return;
+		}
+		byte[] raw = block.toByteArray();
+		byte[] stored = compression == null ? raw : compression.compress(raw, compressionLevel);
+		CRC32 crc = new CRC32();
+		crc.update(raw);
+		index.add(new long[] { counter.getCount(), blockRecords });
+		out.writeByte(BLOCK);
+		out.writeInt(blockRecords);
+		out.writeInt(raw.length);
+		out.writeInt(stored.length);
+		out.writeInt((int) crc.getValue());
+		out.write(stored);
+		recordCount += blockRecords;
+		blockRecords = 0;
+		block.reset();
+	}
+
+	@Override
+	public synchronized void close() {
+		super.close();
+		if (out == null) {
+			return;
+		}
+		try {
+			writeBlock();
+			long indexOffset = counter.getCount();
+			out.writeByte(INDEX);
+			out.writeInt(index.size());
+			for (long[] entry : index) {
+				out.writeLong(entry[0]);
+				out.writeInt((int) entry[1]);
+			}
+			out.writeLong(indexOffset);
+			out.writeLong(recordCount);
+			out.write(MAGIC);
+			out.close();
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not close dump file " + resource.getDescription(), e);
+		} finally {
+			out = null;
+			index.clear();
+			block.reset();
+			blockRecords = 0;
+			recordCount = 0;
+		}
+	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		private long count;
+
+		public CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+	}
+
+}
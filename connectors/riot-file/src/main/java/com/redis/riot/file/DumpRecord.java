@@ -0,0 +1,60 @@
+package com.redis.riot.file;
+
+/**
+ * Record of a {@link DumpFileItemWriter dump file}: a key with its type,
+ * expiration and the payload returned by the Redis DUMP command.
+ */
+public class DumpRecord {
+
+	private byte[] key;
+	private String type;
+	private long ttl;
+	private byte[] dump;
+
+	public DumpRecord() {
+	}
+
+	public DumpRecord(byte[] key, String type, long ttl, byte[] dump) {
+		this.key = key;
+		this.type = type;
+		this.ttl = ttl;
+		this.dump = dump;
+	}
+
+	public byte[] getKey() {
+		return key;
+	}
+
+	public void setKey(byte[] key) {
+		this.key = key;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	/**
+	 *
+	 * @return expiration as read from Redis, 0 if the key does not expire
+	 */
+	public long getTtl() {
+		return ttl;
+	}
+
+	public void setTtl(long ttl) {
+		this.ttl = ttl;
+	}
+
+	public byte[] getDump() {
+		return dump;
+	}
+
+	public void setDump(byte[] dump) {
+		this.dump = dump;
+	}
+
+}
@@ -0,0 +1,134 @@
+package com.redis.riot.file;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.util.Assert;
+
+/**
+ * Resource exposing the byte range [start, end) of a local file.
+ */
+public class FileRangeResource extends AbstractResource {
+
+	private final Path file;
+	private final long start;
+	private final long end;
+
+	public FileRangeResource(Path file, long start, long end) {
+		Assert.notNull(file, "File must not be null");
+		Assert.isTrue(start >= 0 && start <= end, "Invalid range");
+		this.file = file;
+		this.start = start;
+		this.end = end;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		channel.position(start);
+		return new RangeInputStream(Channels.newInputStream(channel), end - start);
+	}
+
+	@Override
+	public boolean exists() {
+		return Files.exists(file);
+	}
+
+	@Override
+	public boolean isFile() {
+		return true;
+	}
+
+	@Override
+	public File getFile() {
+		return file.toFile();
+	}
+
+	@Override
+	public long contentLength() {
+		return end - start;
+	}
+
+	@Override
+	public String getFilename() {
+		return file.getFileName().toString();
+	}
+
+	@Override
+	public String getDescription() {
+		return String.format("file [%s] range [%d-%d]", file.toAbsolutePath(), start, end);
+	}
+
+	public Path getPath() {
+		return file;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getEnd() {
+		return end;
+	}
+
+	private static class RangeInputStream extends FilterInputStream {
+
+		private long remaining;
+
+		public RangeInputStream(InputStream in, long length) {
+			super(in);
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = super.read();
+			if (b != -1) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int read = super.read(b, off, (int) Math.min(len, remaining));
+			if (read > 0) {
+				remaining -= read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, remaining));
+			remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), remaining);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+	}
+
+}
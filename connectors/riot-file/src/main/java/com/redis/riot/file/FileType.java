@@ -2,6 +2,6 @@ package com.redis.riot.file;
 
 public enum FileType {
 
-	CSV, FIXED, JSON, JSONL, XML
+	CSV, FIXED, JSON, JSONL, XML, DUMP
 
 }
\ No newline at end of file
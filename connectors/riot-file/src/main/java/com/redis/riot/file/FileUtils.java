@@ -1,10 +1,15 @@
 package com.redis.riot.file;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -12,6 +17,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import org.springframework.batch.item.file.LineCallbackHandler;
 import org.springframework.core.io.Resource;
 import org.springframework.util.ResourceUtils;
 import org.springframework.util.StringUtils;
@@ -21,7 +27,7 @@ import io.awspring.cloud.s3.Location;
 public abstract class FileUtils {
 
 	public static final String GOOGLE_STORAGE_PROTOCOL_PREFIX = "gs://";
-	public static final Pattern EXTENSION_PATTERN = Pattern.compile("(?i)\\.(?<extension>\\w+)(?:\\.(?<gz>gz))?$");
+	public static final Pattern EXTENSION_PATTERN = Pattern.compile("(?i)\\.(?<extension>\\w+)(?:\\.(?<compression>gz|zst|lz4))?$");
 
 	public static final String CSV = "csv";
 	public static final String TSV = "tsv";
@@ -30,6 +36,11 @@ public abstract class FileUtils {
 	public static final String JSON = "json";
 	public static final String JSONL = "jsonl";
 	public static final String XML = "xml";
+	public static final String DUMP = "rdump";
+
+	private static final byte LINE_FEED = '\n';
+	private static final byte CARRIAGE_RETURN = '\r';
+	private static final int SCAN_BUFFER_SIZE = 8192;
 
 	private FileUtils() {
 	}
@@ -43,7 +54,19 @@ public abstract class FileUtils {
 	}
 
 	public static FileType fileType(Resource resource) {
-		String extension = fileExtension(resource);
+		return fileType(resource.getFilename());
+	}
+
+	/**
+	 * 
+	 * @param file file name or location
+	 * @return file type matching the file extension, or null if not recognized
+	 */
+	public static FileType fileType(String file) {
+		if (file == null) {
+			return null;
+		}
+		String extension = extensionGroup(file, "extension");
 		if (extension == null) {
 			return null;
 		}
@@ -56,6 +79,8 @@ public abstract class FileUtils {
 			return FileType.JSONL;
 		case XML:
 			return FileType.XML;
+		case DUMP:
+			return FileType.DUMP;
 		case CSV:
 		case PSV:
 		case TSV:
@@ -101,7 +126,17 @@ public abstract class FileUtils {
 	}
 
 	public static boolean isGzip(String file) {
-		return extensionGroup(file, "gz") != null;
+		return Compression.of(file) == Compression.GZIP;
+	}
+
+	/**
+	 * 
+	 * @param file file name or location
+	 * @return compression extension following the file type extension, e.g.
+	 *         {@code gz} or {@code zst}, or null if none
+	 */
+	public static String compressionExtension(String file) {
+		return extensionGroup(file, "compression");
 	}
 
 	public static boolean isStdin(String file) {
@@ -116,4 +151,102 @@ public abstract class FileUtils {
 		return StringUtils.hasLength(location) && location.toLowerCase().startsWith(Location.S3_PROTOCOL_PREFIX);
 	}
 
+	/**
+	 * Reads the first lines of the given file, passing each one to the callback.
+	 * 
+	 * @param file     file to read from
+	 * @param count    number of lines to read
+	 * @param charset  charset used to decode lines
+	 * @param callback handler for each line read
+	 * @return byte offset of the first line that was not read
+	 * @throws IOException
+	 */
+	public static long skipLines(Path file, int count, Charset charset, LineCallbackHandler callback)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+			ByteArrayOutputStream line = new ByteArrayOutputStream();
+			long position = 0;
+			int lines = 0;
+			while (lines < count && channel.read(buffer) != -1) {
+				buffer.flip();
+				while (lines < count && buffer.hasRemaining()) {
+					byte b = buffer.get();
+					position++;
+					if (b == LINE_FEED) {
+						callback.handleLine(line(line, charset));
+						line.reset();
+						lines++;
+					} else {
+						line.write(b);
+					}
+				}
+				buffer.clear();
+			}
+			if (lines < count && line.size() > 0) {
+				callback.handleLine(line(line, charset));
+			}
+			return position;
+		}
+	}
+
+	private static String line(ByteArrayOutputStream bytes, Charset charset) {
+		String line = bytes.toString(charset);
+		if (line.endsWith(String.valueOf((char) CARRIAGE_RETURN))) {
+			return line.substring(0, line.length() - 1);
+		}
+		return line;
+	}
+
+	/**
+	 * Splits the given file into line-aligned byte ranges of roughly equal size.
+	 * Each boundary is moved forward to the start of the next line so that no
+	 * line is shared between two ranges.
+	 * 
+	 * @param file  file to split
+	 * @param start byte offset to start splitting from
+	 * @param count maximum number of ranges
+	 * @return ascending range boundaries, starting with {@code start} and ending
+	 *         with the file size. Range i spans [offsets[i], offsets[i+1]).
+	 * @throws IOException
+	 */
+	public static long[] splitLines(Path file, long start, int count) throws IOException {
+		long size = Files.size(file);
+		List<Long> offsets = new ArrayList<>();
+		offsets.add(start);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			for (int index = 1; index < count; index++) {
+				long target = start + (size - start) * index / count;
+				long offset = nextLine(channel, Math.max(target, offsets.get(offsets.size() - 1) + 1), size);
+				if (offset < size && offset > offsets.get(offsets.size() - 1)) {
+					offsets.add(offset);
+				}
+			}
+		}
+		if (size > start) {
+			offsets.add(size);
+		}
+		return offsets.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		long offset = position - 1;
+		while (offset < size) {
+			buffer.clear();
+			int read = channel.read(buffer, offset);
+			if (read == -1) {
+				break;
+			}
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				if (buffer.get() == LINE_FEED) {
+					return offset + buffer.position();
+				}
+			}
+			offset += read;
+		}
+		return size;
+	}
+
 }
@@ -0,0 +1,22 @@
+package com.redis.riot.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encodes single items to bytes. Implementations need not be thread-safe:
+ * {@link ResourceItemWriter} uses one encoder per serializing thread.
+ *
+ * @param <T> item type
+ */
+public interface ItemEncoder<T> {
+
+	/**
+	 *
+	 * @param item item to encode
+	 * @param out  stream that all bytes of the item must be written to before
+	 *             returning
+	 */
+	void encode(T item, OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,79 @@
+package com.redis.riot.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Encodes items as JSON with a single {@link JsonGenerator} that is reused for
+ * all items, whatever stream they are written to.
+ *
+ * @param <T> item type
+ */
+public class JsonItemEncoder<T> implements ItemEncoder<T> {
+
+	private final ObjectWriter writer;
+	private final Charset charset;
+	private final TargetOutputStream target = new TargetOutputStream();
+	private JsonGenerator generator;
+
+	public JsonItemEncoder(ObjectMapper mapper, Charset charset) {
+		this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.charset = charset;
+	}
+
+	@Override
+	public void encode(T item, OutputStream out) throws IOException {
+		if (generator == null) {
+			generator = generator();
+		}
+		target.out = out;
+		try {
+			writer.writeValue(generator, item);
+			generator.flush();
+		} catch (IOException | RuntimeException e) {
+			// Generator state is undefined after a failure
+			generator = null;
+			throw e;
+		} finally {
+			target.out = null;
+		}
+	}
+
+	private JsonGenerator generator() throws IOException {
+		JsonGenerator jsonGenerator;
+		if (StandardCharsets.UTF_8.equals(charset)) {
+			jsonGenerator = writer.createGenerator(target, JsonEncoding.UTF8);
+		} else {
+			jsonGenerator = writer.createGenerator(new OutputStreamWriter(target, charset));
+		}
+		// Items are separated by the writer
+		jsonGenerator.setRootValueSeparator(null);
+		return jsonGenerator;
+	}
+
+	private static class TargetOutputStream extends OutputStream {
+
+		private OutputStream out;
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.redis.riot.file;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+
+/**
+ * Maps raw {@link NumberedLine lines} handed out by a reader, so that
+ * tokenizing and deserialization run in the processing phase of multi-threaded
+ * steps rather than inside the synchronized reader. Parse errors report the
+ * line number recorded by the reader.
+ *
+ * @param <T> type of the mapped item
+ */
+public class LineMapperItemProcessor<T> implements ItemProcessor<NumberedLine, T> {
+
+	private final LineMapper<T> lineMapper;
+
+	public LineMapperItemProcessor(LineMapper<T> lineMapper) {
+		this.lineMapper = lineMapper;
+	}
+
+	@Override
+	public T process(NumberedLine item) throws Exception {
+		try {
+			return lineMapper.mapLine(item.getText(), item.getNumber());
+		} catch (Exception e) {
+			throw new FlatFileParseException("Parsing error at line: " + item.getNumber() + ", input=["
+					+ item.getText() + "]", e, item.getText(), item.getNumber());
+		}
+	}
+
+}
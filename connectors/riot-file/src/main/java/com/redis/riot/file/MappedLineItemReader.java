@@ -0,0 +1,356 @@
+package com.redis.riot.file;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineCallbackHandler;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Line-oriented reader for local files that memory-maps the file and finds
+ * record boundaries directly in the mapped bytes, instead of decoding the whole
+ * file through a {@link java.io.BufferedReader}. Each record is copied once
+ * and decoded into the string handed to the {@link LineMapper}.
+ * <p>
+ * Records follow the same rules as
+ * {@link org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy}:
+ * a record continues on the next line when it has an unterminated quote or
+ * ends with the continuation string. Like
+ * {@link org.springframework.batch.item.file.FlatFileItemReader}, comment lines
+ * are skipped but blank records are handed to the {@link LineMapper}. Only
+ * charsets that encode ASCII characters as single ASCII bytes (e.g. UTF-8,
+ * ISO-8859-1) are supported, see {@link #supports(Charset)}.
+ *
+ * @param <T> type of the mapped item
+ */
+public class MappedLineItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+	public static final int DEFAULT_WINDOW_SIZE = 1 << 27;
+	public static final char DEFAULT_QUOTE_CHARACTER = '"';
+	public static final String DEFAULT_CONTINUATION = "\\";
+
+	private static final byte LF = '\n';
+	private static final byte CR = '\r';
+	private static final String ASCII_PROBE = "\n\r\"'\\#,;|\t";
+
+	private final Path file;
+	private final long start;
+	private final long end;
+	private LineMapper<T> lineMapper;
+	private Charset charset = StandardCharsets.UTF_8;
+	private int linesToSkip;
+	private LineCallbackHandler skippedLinesCallback;
+	private String[] comments = new String[0];
+	private char quoteCharacter = DEFAULT_QUOTE_CHARACTER;
+	private String continuation = DEFAULT_CONTINUATION;
+	private int windowSize = DEFAULT_WINDOW_SIZE;
+
+	private byte quote;
+	private byte[] continuationBytes;
+	private byte[][] commentBytes;
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private long bufferOffset;
+	private long limit;
+	private long position;
+	private long lineStart;
+	private int lineLength;
+	private int lineCount;
+	private byte[] record = new byte[1024];
+	private int recordLength;
+
+	/**
+	 *
+	 * @param file  file to read
+	 * @param start offset of the first byte to read, at the start of a line
+	 * @param end   offset after the last byte to read, at the end of a line or
+	 *              past the end of the file
+	 */
+	public MappedLineItemReader(Path file, long start, long end) {
+		Assert.notNull(file, "File must not be null");
+		Assert.isTrue(start >= 0 && start <= end, "Invalid range");
+		this.file = file;
+		this.start = start;
+		this.end = end;
+		setName(ClassUtils.getShortName(MappedLineItemReader.class));
+	}
+
+	public MappedLineItemReader(Path file) {
+		this(file, 0, Long.MAX_VALUE);
+	}
+
+	/**
+	 *
+	 * @param charset file encoding
+	 * @return true if record boundaries can be found in the raw bytes of files
+	 *         encoded with the given charset
+	 */
+	public static boolean supports(Charset charset) {
+		return charset.canEncode()
+				&& Arrays.equals(ASCII_PROBE.getBytes(charset), ASCII_PROBE.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	@Override
+	protected void doOpen() throws Exception {
+		Assert.notNull(lineMapper, "LineMapper is required");
+		Assert.isTrue(supports(charset), "Unsupported charset: " + charset);
+		Assert.isTrue(quoteCharacter < 128, "Quote character must be ASCII");
+		quote = (byte) quoteCharacter;
+		continuationBytes = continuation == null ? new byte[0] : continuation.getBytes(charset);
+		commentBytes = new byte[comments.length][];
+		for (int index = 0; index < comments.length; index++) {
+			commentBytes[index] = comments[index].getBytes(charset);
+		}
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		limit = Math.min(end, channel.size());
+		position = start;
+		lineCount = 0;
+		if (position < limit) {
+			map(position, windowSize);
+		}
+		for (int index = 0; index < linesToSkip; index++) {
+			if (!nextLine()) {
+				break;
+			}
+			if (skippedLinesCallback != null) {
+				skippedLinesCallback.handleLine(new String(lineBytes(), charset));
+			}
+		}
+	}
+
+	@Override
+	protected T doRead() throws Exception {
+		if (!nextRecord()) {
+			return null;
+		}
+		String line = new String(record, 0, recordLength, charset);
+		try {
+			return lineMapper.mapLine(line, lineCount);
+		} catch (Exception e) {
+			throw new FlatFileParseException(String.format("Parsing error at line: %d in file=[%s], input=[%s]",
+					lineCount, file, line), e, line, lineCount);
+		}
+	}
+
+	@Override
+	protected void jumpToItem(int itemIndex) throws Exception {
+		for (int index = 0; index < itemIndex; index++) {
+			if (!nextRecord()) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	protected void doClose() throws Exception {
+		buffer = null;
+		if (channel != null) {
+			try {
+				channel.close();
+			} finally {
+				channel = null;
+			}
+		}
+	}
+
+	private void map(long offset, long size) throws IOException {
+		buffer = channel.map(MapMode.READ_ONLY, offset, Math.min(Math.min(size, limit - offset), Integer.MAX_VALUE));
+		bufferOffset = offset;
+	}
+
+	/**
+	 * Reads the next record into the record buffer.
+	 */
+	private boolean nextRecord() throws IOException {
+		if (!nextDataLine()) {
+			return false;
+		}
+		recordLength = 0;
+		append();
+		while (!isEndOfRecord()) {
+			if (!nextLine()) {
+				throw new FlatFileParseException("Unexpected end of file before record complete",
+						new String(record, 0, recordLength, charset), lineCount);
+			}
+			preProcess();
+			append();
+		}
+		return true;
+	}
+
+	private boolean nextDataLine() throws IOException {
+		while (nextLine()) {
+			if (!isComment()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Locates the next physical line in the mapped buffer, remapping the window
+	 * when a line crosses its end.
+	 */
+	private boolean nextLine() throws IOException {
+		if (position >= limit) {
+			return false;
+		}
+		while (true) {
+			int from = (int) (position - bufferOffset);
+			int to = buffer.limit();
+			for (int index = from; index < to; index++) {
+				if (buffer.get(index) == LF) {
+					line(from, index - from, bufferOffset + index + 1);
+					return true;
+				}
+			}
+			if (bufferOffset + to >= limit) {
+				line(from, to - from, limit);
+				return true;
+			}
+			map(position, Math.max(windowSize, 2L * (to - from)));
+		}
+	}
+
+	private void line(int from, int length, long next) {
+		lineStart = from;
+		lineLength = length;
+		if (length > 0 && buffer.get(from + length - 1) == CR) {
+			lineLength--;
+		}
+		position = next;
+		lineCount++;
+	}
+
+	private byte[] lineBytes() {
+		byte[] bytes = new byte[lineLength];
+		buffer.get((int) lineStart, bytes, 0, lineLength);
+		return bytes;
+	}
+
+	private boolean isComment() {
+		for (byte[] prefix : commentBytes) {
+			if (prefix.length > 0 && lineLength >= prefix.length && matches(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean matches(byte[] prefix) {
+		for (int index = 0; index < prefix.length; index++) {
+			if (buffer.get((int) lineStart + index) != prefix[index]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void append() {
+		ensureCapacity(recordLength + lineLength);
+		buffer.get((int) lineStart, record, recordLength, lineLength);
+		recordLength += lineLength;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > record.length) {
+			record = Arrays.copyOf(record, Math.max(capacity, record.length * 2));
+		}
+	}
+
+	private boolean isEndOfRecord() {
+		return !isQuoteUnterminated() && !isContinued();
+	}
+
+	private void preProcess() {
+		if (isQuoteUnterminated()) {
+			ensureCapacity(recordLength + 1);
+			record[recordLength++] = LF;
+		} else if (isContinued()) {
+			recordLength = lastIndexOfContinuation();
+		}
+	}
+
+	private boolean isQuoteUnterminated() {
+		int count = 0;
+		for (int index = 0; index < recordLength; index++) {
+			if (record[index] == quote) {
+				count++;
+			}
+		}
+		return count % 2 != 0;
+	}
+
+	private boolean isContinued() {
+		if (continuationBytes.length == 0) {
+			return false;
+		}
+		int trimmed = recordLength;
+		while (trimmed > 0 && (record[trimmed - 1] & 0xFF) <= ' ') {
+			trimmed--;
+		}
+		return trimmed >= continuationBytes.length && regionMatches(trimmed - continuationBytes.length);
+	}
+
+	private int lastIndexOfContinuation() {
+		for (int index = recordLength - continuationBytes.length; index >= 0; index--) {
+			if (regionMatches(index)) {
+				return index;
+			}
+		}
+		return recordLength;
+	}
+
+	private boolean regionMatches(int offset) {
+		for (int index = 0; index < continuationBytes.length; index++) {
+			if (record[offset + index] != continuationBytes[index]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void setLineMapper(LineMapper<T> lineMapper) {
+		this.lineMapper = lineMapper;
+	}
+
+	public void setCharset(Charset charset) {
+		this.charset = charset;
+	}
+
+	public void setLinesToSkip(int linesToSkip) {
+		this.linesToSkip = linesToSkip;
+	}
+
+	public void setSkippedLinesCallback(LineCallbackHandler skippedLinesCallback) {
+		this.skippedLinesCallback = skippedLinesCallback;
+	}
+
+	public void setComments(String... comments) {
+		this.comments = comments;
+	}
+
+	public void setQuoteCharacter(char quoteCharacter) {
+		this.quoteCharacter = quoteCharacter;
+	}
+
+	public void setContinuation(String continuation) {
+		this.continuation = continuation;
+	}
+
+	public void setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.redis.riot.file;
+
+import org.springframework.batch.item.file.LineMapper;
+
+/**
+ * Raw line handed out by a reader along with its line number in the file, so
+ * that it can be parsed later while parse errors still point to the line.
+ */
+public class NumberedLine {
+
+	private final int number;
+	private final String text;
+
+	public NumberedLine(int number, String text) {
+		this.number = number;
+		this.text = text;
+	}
+
+	public int getNumber() {
+		return number;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 *
+	 * @return line mapper that keeps lines unparsed along with their number
+	 */
+	public static LineMapper<NumberedLine> lineMapper() {
+		return (line, lineNumber) -> new NumberedLine(lineNumber, line);
+	}
+
+	@Override
+	public String toString() {
+		return number + ": " + text;
+	}
+
+}
@@ -0,0 +1,213 @@
+package com.redis.riot.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.springframework.util.Assert;
+
+/**
+ * Decompresses gzip streams written by {@link ParallelGzipOutputStream},
+ * inflating members on a pool of threads while keeping their order. Members
+ * are located with the size recorded in their header, so as soon as a member
+ * without it is found (e.g. a file written by another gzip tool) the rest of
+ * the stream is read sequentially with a {@link GZIPInputStream}.
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private final InputStream in;
+	private final ExecutorService executor;
+	private final int maxPending;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private InputStream sequential;
+	private boolean eof;
+	private byte[] buffer = new byte[0];
+	private int position;
+	private boolean closed;
+
+	public ParallelGzipInputStream(InputStream in, int threads) {
+		Assert.notNull(in, "Input stream must not be null");
+		Assert.isTrue(threads > 0, "Number of threads must be greater than 0");
+		this.in = in;
+		this.executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "riot-gzip-inflater-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.maxPending = threads * 2;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		int n = read(b, 0, 1);
+		return n == -1 ? -1 : b[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		while (position == buffer.length) {
+			if (!nextBuffer()) {
+				return sequential == null ? -1 : sequential.read(b, off, len);
+			}
+		}
+		int length = Math.min(len, buffer.length - position);
+		System.arraycopy(buffer, position, b, off, length);
+		position += length;
+		return length;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return buffer.length - position;
+	}
+
+	/**
+	 *
+	 * @return true if the buffer was replaced with the next inflated member,
+	 *         false if there are no more indexed members
+	 */
+	private boolean nextBuffer() throws IOException {
+		while (!eof && sequential == null && pending.size() < maxPending) {
+			readMember();
+		}
+		Future<byte[]> future = pending.poll();
+		if (future == null) {
+			return false;
+		}
+		try {
+			buffer = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while decompressing");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Could not decompress member", e.getCause());
+		}
+		position = 0;
+		return true;
+	}
+
+	private void readMember() throws IOException {
+		byte[] header = in.readNBytes(ParallelGzipOutputStream.HEADER_SIZE);
+		if (header.length == 0) {
+			eof = true;
+			return;
+		}
+		int size = memberSize(header);
+		if (size < 0) {
+			sequential = new GZIPInputStream(new SequenceInputStream(new ByteArrayInputStream(header), in));
+			return;
+		}
+		byte[] member = new byte[size];
+		System.arraycopy(header, 0, member, 0, header.length);
+		int length = in.readNBytes(member, header.length, size - header.length);
+		if (length < size - header.length) {
+			throw new EOFException("Unexpected end of gzip member");
+		}
+		pending.add(executor.submit(() -> inflate(member)));
+	}
+
+	/**
+	 *
+	 * @return size recorded in the member header, or -1 if not a member written
+	 *         by {@link ParallelGzipOutputStream}
+	 */
+	private static int memberSize(byte[] header) {
+		if (header.length < ParallelGzipOutputStream.HEADER_SIZE || (header[0] & 0xff) != 0x1f
+				|| (header[1] & 0xff) != 0x8b || header[3] != 4 || header[10] != 8 || header[11] != 0
+				|| header[12] != ParallelGzipOutputStream.SUBFIELD_ID1
+				|| header[13] != ParallelGzipOutputStream.SUBFIELD_ID2 || header[14] != 4 || header[15] != 0) {
+			return -1;
+		}
+		int size = readInt(header, 16);
+		if (size < ParallelGzipOutputStream.HEADER_SIZE + ParallelGzipOutputStream.TRAILER_SIZE) {
+			return -1;
+		}
+		return size;
+	}
+
+	private static byte[] inflate(byte[] member) throws IOException {
+		int trailer = member.length - ParallelGzipOutputStream.TRAILER_SIZE;
+		byte[] data = new byte[readInt(member, trailer + 4)];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(member, ParallelGzipOutputStream.HEADER_SIZE,
+					trailer - ParallelGzipOutputStream.HEADER_SIZE);
+			int length = 0;
+			while (!inflater.finished()) {
+				if (length == data.length) {
+					// Only the end of the deflate stream may be left
+					if (inflater.inflate(new byte[1]) > 0) {
+						throw new ZipException("Corrupt gzip member (bad length)");
+					}
+				} else {
+					length += inflater.inflate(data, length, data.length - length);
+				}
+				if (!inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new ZipException("Corrupt gzip member");
+				}
+			}
+			if (length != data.length) {
+				throw new ZipException("Corrupt gzip member (bad length)");
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		if ((int) crc.getValue() != readInt(member, trailer)) {
+			throw new ZipException("Corrupt gzip member (bad CRC)");
+		}
+		return data;
+	}
+
+	private static int readInt(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16
+				| (bytes[offset + 3] & 0xff) << 24;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		pending.forEach(f -> f.cancel(true));
+		pending.clear();
+		executor.shutdownNow();
+		if (sequential != null) {
+			sequential.close();
+		} else {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,263 @@
+package com.redis.riot.file;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.springframework.util.Assert;
+
+/**
+ * Compresses fixed-size blocks on a pool of threads and writes each block as
+ * its own gzip member, in order. The result is a standard multi-member gzip
+ * stream that any gzip reader decompresses as a whole. Each member header
+ * carries its compressed size in an extra field so that
+ * {@link ParallelGzipInputStream} can inflate members in parallel.
+ * <p>
+ * Streams written at the same time, e.g. shards of an export, can share an
+ * {@link #executor(int) executor} instead of starting their own threads. It
+ * compresses at most twice its number of threads blocks at a time and makes
+ * writers compress blocks themselves beyond that.
+ */
+public class ParallelGzipOutputStream extends FilterOutputStream {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+	public static final int DEFAULT_SHARED_MAX_PENDING = 2;
+
+	/**
+	 * Extra field subfield identifying the member size, see RFC 1952 section
+	 * 2.3.1.1.
+	 */
+	static final byte SUBFIELD_ID1 = 'R';
+	static final byte SUBFIELD_ID2 = 'T';
+	static final int HEADER_SIZE = 20;
+	static final int TRAILER_SIZE = 8;
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private final ExecutorService executor;
+	private final boolean sharedExecutor;
+	private final int maxPending;
+	private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+	private final int level;
+	private byte[] block;
+	private int count;
+	private boolean empty = true;
+	private boolean closed;
+
+	public ParallelGzipOutputStream(OutputStream out, int threads) {
+		this(out, threads, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	public ParallelGzipOutputStream(OutputStream out, int threads, int blockSize, int level) {
+		super(out);
+		Assert.isTrue(threads > 0, "Number of threads must be greater than 0");
+		Assert.isTrue(blockSize > 0, "Block size must be greater than 0");
+		this.executor = Executors.newFixedThreadPool(threads, ParallelGzipOutputStream::thread);
+		this.sharedExecutor = false;
+		this.maxPending = threads * 2;
+		this.level = level;
+		this.block = new byte[blockSize];
+	}
+
+	/**
+	 *
+	 * @param out        stream receiving gzip members
+	 * @param executor   executor shared with other streams, left running on
+	 *                   close
+	 * @param maxPending number of blocks of this stream that can be compressed
+	 *                   or waiting to be written at a time
+	 * @param blockSize  uncompressed size of each member
+	 * @param level      deflate compression level
+	 */
+	public ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int maxPending, int blockSize,
+			int level) {
+		super(out);
+		Assert.notNull(executor, "Executor must not be null");
+		Assert.isTrue(maxPending > 0, "Max pending blocks must be greater than 0");
+		Assert.isTrue(blockSize > 0, "Block size must be greater than 0");
+		this.executor = executor;
+		this.sharedExecutor = true;
+		this.maxPending = maxPending;
+		this.level = level;
+		this.block = new byte[blockSize];
+	}
+
+	/**
+	 *
+	 * @param threads number of compression threads
+	 * @return executor that streams can share, queuing up to {@code threads}
+	 *         blocks and compressing further blocks in the writing thread
+	 */
+	public static ExecutorService executor(int threads) {
+		Assert.isTrue(threads > 0, "Number of threads must be greater than 0");
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads),
+				ParallelGzipOutputStream::thread, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	private static Thread thread(Runnable runnable) {
+		Thread thread = new Thread(runnable, "riot-gzip-deflater-" + threadCount.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		if (count == block.length) {
+			submit();
+		}
+		block[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			if (count == block.length) {
+				submit();
+			}
+			int length = Math.min(len, block.length - count);
+			System.arraycopy(b, off, block, count, length);
+			count += length;
+			off += length;
+			len -= length;
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private void submit() throws IOException {
+		if (count == 0) {
+			return;
+		}
+		while (pending.size() >= maxPending) {
+			writeMember(pending.poll());
+		}
+		byte[] data = block;
+		int length = count;
+		pending.add(executor.submit(() -> member(data, length, level)));
+		empty = false;
+		block = new byte[data.length];
+		count = 0;
+	}
+
+	private void writeMember(Future<byte[]> future) throws IOException {
+		try {
+			out.write(future.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Could not compress block", e.getCause());
+		}
+	}
+
+	/**
+	 * Writes the current block, even if not full, and all blocks still being
+	 * compressed.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		submit();
+		while (!pending.isEmpty()) {
+			writeMember(pending.poll());
+		}
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+			if (empty) {
+				// An empty gzip file still needs one member
+				out.write(member(block, 0, level));
+			}
+			out.flush();
+		} finally {
+			closed = true;
+			pending.forEach(f -> f.cancel(true));
+			pending.clear();
+			if (!sharedExecutor) {
+				executor.shutdownNow();
+			}
+			out.close();
+		}
+	}
+
+	static byte[] member(byte[] data, int length, int level) {
+		Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			// Incompressible data grows by a few bytes per 16K stored block
+			byte[] member = new byte[HEADER_SIZE + length + length / 16000 + 64 + TRAILER_SIZE];
+			int size = HEADER_SIZE;
+			while (!deflater.finished()) {
+				if (size == member.length - TRAILER_SIZE) {
+					member = Arrays.copyOf(member, member.length * 2);
+				}
+				size += deflater.deflate(member, size, member.length - TRAILER_SIZE - size);
+			}
+			CRC32 crc = new CRC32();
+			crc.update(data, 0, length);
+			size += TRAILER_SIZE;
+			header(member, size);
+			writeInt(member, size - TRAILER_SIZE, (int) crc.getValue());
+			writeInt(member, size - 4, length);
+			return size == member.length ? member : Arrays.copyOf(member, size);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static void header(byte[] member, int size) {
+		member[0] = (byte) 0x1f;
+		member[1] = (byte) 0x8b;
+		member[2] = Deflater.DEFLATED;
+		member[3] = 4; // FEXTRA
+		// MTIME(4) left at 0
+		member[8] = 0; // XFL
+		member[9] = (byte) 255; // OS unknown
+		member[10] = 8; // XLEN
+		member[11] = 0;
+		member[12] = SUBFIELD_ID1;
+		member[13] = SUBFIELD_ID2;
+		member[14] = 4; // LEN
+		member[15] = 0;
+		writeInt(member, 16, size);
+	}
+
+	private static void writeInt(byte[] bytes, int offset, int value) {
+		bytes[offset] = (byte) value;
+		bytes[offset + 1] = (byte) (value >> 8);
+		bytes[offset + 2] = (byte) (value >> 16);
+		bytes[offset + 3] = (byte) (value >> 24);
+	}
+
+}
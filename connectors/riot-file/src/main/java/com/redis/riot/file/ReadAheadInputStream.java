@@ -0,0 +1,146 @@
+package com.redis.riot.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.Assert;
+
+/**
+ * Reads a stream ahead of its consumer on a separate thread, e.g. so that
+ * decompression overlaps with parsing. Up to {@code capacity} buffers are read
+ * ahead.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+	public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+	public static final int DEFAULT_CAPACITY = 4;
+
+	private static final byte[] EOF = new byte[0];
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private final InputStream in;
+	private final int bufferSize;
+	private final BlockingQueue<byte[]> queue;
+	private final Thread thread;
+	private volatile IOException error;
+	private volatile boolean closed;
+	private byte[] buffer = new byte[0];
+	private int position;
+	private boolean eof;
+
+	public ReadAheadInputStream(InputStream in) {
+		this(in, DEFAULT_BUFFER_SIZE, DEFAULT_CAPACITY);
+	}
+
+	public ReadAheadInputStream(InputStream in, int bufferSize, int capacity) {
+		Assert.notNull(in, "Input stream must not be null");
+		Assert.isTrue(bufferSize > 0, "Buffer size must be greater than 0");
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.in = in;
+		this.bufferSize = bufferSize;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.thread = new Thread(this::readAhead, "riot-read-ahead-" + threadCount.incrementAndGet());
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	private void readAhead() {
+		try {
+			while (!closed) {
+				byte[] bytes = in.readNBytes(bufferSize);
+				if (bytes.length == 0) {
+					break;
+				}
+				queue.put(bytes);
+			}
+		} catch (IOException e) {
+			error = e;
+		} catch (InterruptedException e) {
+			// Closed by the consumer
+			return;
+		}
+		try {
+			queue.put(EOF);
+		} catch (InterruptedException e) {
+			// Closed by the consumer
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		return buffer[position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int length = Math.min(len, buffer.length - position);
+		System.arraycopy(buffer, position, b, off, length);
+		position += length;
+		return length;
+	}
+
+	private boolean fill() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (position < buffer.length) {
+			return true;
+		}
+		if (eof) {
+			return false;
+		}
+		try {
+			buffer = queue.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading ahead");
+		}
+		position = 0;
+		if (buffer == EOF) {
+			eof = true;
+			if (error != null) {
+				throw error;
+			}
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int available() {
+		return buffer.length - position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		thread.interrupt();
+		queue.clear();
+		buffer = EOF;
+		position = 0;
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			in.close();
+		}
+	}
+
+}
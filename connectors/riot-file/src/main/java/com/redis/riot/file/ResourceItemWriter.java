@@ -0,0 +1,508 @@
+package com.redis.riot.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemStreamItemWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Writes items to a resource as a header, records and a footer, e.g. a JSON
+ * array, JSON lines, CSV lines or an XML document. Each chunk is serialized
+ * into a byte buffer with an {@link ItemEncoder} owned by the serializing
+ * thread, and buffers are appended to the resource's channel one at a time,
+ * so a chunk that fails to serialize leaves nothing behind in the output.
+ * <p>
+ * By default chunks are serialized by the threads calling
+ * {@link #write(Chunk)}. With {@link #setThreads(int) threads} set, chunks are
+ * handed to a pool of serializer threads instead and a single appender thread
+ * writes the resulting buffers, in the order the chunks were written if
+ * {@link #setOrdered(boolean) ordered}, or as soon as they are serialized
+ * otherwise. Serialization errors then surface on a later write, on update or
+ * on close. Writers of files written at the same time can share an
+ * {@link #setExecutor(ExecutorService) executor} for both serializing and
+ * appending, in which case the writer starts no thread of its own and appends
+ * its buffers one at a time on the shared threads.
+ *
+ * @param <T> item type
+ */
+public class ResourceItemWriter<T> extends AbstractItemStreamItemWriter<T> {
+
+	public static final String DEFAULT_LINE_SEPARATOR = System.lineSeparator();
+
+	private final WritableResource resource;
+	private final ThreadLocal<ItemEncoder<T>> encoders;
+	private Charset encoding = StandardCharsets.UTF_8;
+	private String header;
+	private String footer;
+	private String separator;
+	private String terminator;
+	private boolean append;
+	private boolean forceSync;
+	private boolean shouldDeleteIfExists = true;
+	private boolean shouldDeleteIfEmpty;
+	private int threads;
+	private boolean ordered = true;
+	private ExecutorService executor;
+
+	private final Queue<ChunkBuffer> buffers = new ConcurrentLinkedQueue<>();
+	private final AtomicReference<Throwable> error = new AtomicReference<>();
+	private WritableByteChannel channel;
+	private byte[] separatorBytes;
+	private byte[] terminatorBytes;
+	private long itemCount;
+	private volatile long byteCount;
+	private ExecutorService serializerPool;
+	private ExecutorService appenderPool;
+	private Executor serializers;
+	private Executor appender;
+	private Semaphore permits;
+	private long sequence;
+	private long nextSequence;
+	private Map<Long, Buffered> pending;
+
+	public ResourceItemWriter(WritableResource resource, Supplier<ItemEncoder<T>> encoderSupplier) {
+		Assert.notNull(resource, "Resource must not be null");
+		Assert.notNull(encoderSupplier, "Encoder supplier must not be null");
+		this.resource = resource;
+		this.encoders = ThreadLocal.withInitial(encoderSupplier);
+		setName(ClassUtils.getShortName(ResourceItemWriter.class));
+	}
+
+	@Override
+	public synchronized void open(ExecutionContext executionContext) {
+		super.open(executionContext);
+		if (channel != null) {
+			return;
+		}
+		separatorBytes = bytes(separator);
+		terminatorBytes = bytes(terminator);
+		itemCount = 0;
+		byteCount = 0;
+		error.set(null);
+		try {
+			boolean empty = true;
+			if (resource.isFile()) {
+				Path file = resource.getFile().toPath();
+				empty = !append || !Files.exists(file) || Files.size(file) == 0;
+			}
+			channel = channel();
+			if (empty && header != null) {
+				writeFully(bytes(header));
+			}
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not open " + resource.getDescription(), e);
+		}
+		if (threads > 0) {
+			if (executor == null) {
+				serializerPool = Executors.newFixedThreadPool(threads, threadFactory("serializer"));
+				appenderPool = Executors.newSingleThreadExecutor(threadFactory("appender"));
+				serializers = serializerPool;
+				appender = appenderPool;
+			} else {
+				serializers = executor;
+				appender = new SerialExecutor(executor);
+			}
+			permits = new Semaphore(threads * 2);
+			sequence = 0;
+			nextSequence = 0;
+			pending = new TreeMap<>();
+		}
+	}
+
+	private ThreadFactory threadFactory(String role) {
+		AtomicInteger count = new AtomicInteger();
+		return r -> {
+			Thread thread = new Thread(r, "riot-writer-" + role + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	private byte[] bytes(String string) {
+		return string == null ? new byte[0] : string.getBytes(encoding);
+	}
+
+	private WritableByteChannel channel() throws IOException {
+		if (!resource.isFile()) {
+			return Channels.newChannel(resource.getOutputStream());
+		}
+		Path file = resource.getFile().toPath();
+		if (!append && !shouldDeleteIfExists && Files.exists(file)) {
+			throw new ItemStreamException("File already exists: " + file);
+		}
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		if (append) {
+			return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		}
+		return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	@Override
+	public void write(Chunk<? extends T> chunk) throws Exception {
+		checkError();
+		if (chunk.isEmpty()) {
+			return;
+		}
+		if (serializers == null) {
+			ChunkBuffer buffer = serialize(chunk.getItems());
+			synchronized (this) {
+				append(buffer, chunk.size());
+			}
+			return;
+		}
+		List<T> items = new ArrayList<>(chunk.getItems());
+		permits.acquire();
+		if (error.get() != null) {
+			permits.release();
+			checkError();
+		}
+		long chunkSequence;
+		synchronized (this) {
+			chunkSequence = sequence++;
+		}
+		serializers.execute(() -> {
+			try {
+				ChunkBuffer buffer = serialize(items);
+				appender.execute(() -> appendInOrder(chunkSequence, new Buffered(buffer, items.size())));
+			} catch (Throwable e) {
+				error.compareAndSet(null, e);
+				permits.release();
+				appender.execute(this::discardPending);
+			}
+		});
+	}
+
+	private ChunkBuffer serialize(List<? extends T> items) throws IOException {
+		ChunkBuffer buffer = buffers.poll();
+		if (buffer == null) {
+			buffer = new ChunkBuffer();
+		}
+		ItemEncoder<T> encoder = encoders.get();
+		try {
+			boolean first = true;
+			for (T item : items) {
+				if (!first) {
+					buffer.write(separatorBytes);
+				}
+				encoder.encode(item, buffer);
+				buffer.write(terminatorBytes);
+				first = false;
+			}
+		} catch (IOException | RuntimeException e) {
+			encoders.remove();
+			buffer.reset();
+			buffers.offer(buffer);
+			throw e;
+		}
+		return buffer;
+	}
+
+	/**
+	 * Runs on the appender thread.
+	 */
+	private void appendInOrder(long chunkSequence, Buffered buffered) {
+		if (!ordered || error.get() != null) {
+			append(buffered);
+			return;
+		}
+		pending.put(chunkSequence, buffered);
+		Buffered next;
+		while ((next = pending.remove(nextSequence)) != null) {
+			append(next);
+			nextSequence++;
+		}
+	}
+
+	/**
+	 * Runs on the appender thread once a chunk failed: chunks waiting for it
+	 * will never be appended.
+	 */
+	private void discardPending() {
+		if (pending != null) {
+			pending.values().forEach(b -> permits.release());
+			pending.clear();
+		}
+	}
+
+	private void append(Buffered buffered) {
+		try {
+			if (error.get() == null) {
+				append(buffered.buffer, buffered.count);
+			}
+		} catch (Throwable e) {
+			error.compareAndSet(null, e);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void append(ChunkBuffer buffer, int count) throws IOException {
+		if (itemCount > 0) {
+			writeFully(separatorBytes);
+		}
+		byteCount += buffer.size();
+		buffer.writeTo(channel);
+		buffers.offer(buffer);
+		itemCount += count;
+		if (forceSync && channel instanceof FileChannel) {
+			((FileChannel) channel).force(false);
+		}
+	}
+
+	private void writeFully(byte[] bytes) throws IOException {
+		byteCount += bytes.length;
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private void checkError() {
+		Throwable throwable = error.get();
+		if (throwable != null) {
+			throw new ItemStreamException("Could not write to " + resource.getDescription(), throwable);
+		}
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) {
+		super.update(executionContext);
+		checkError();
+	}
+
+	@Override
+	public synchronized void close() {
+		super.close();
+		if (channel == null) {
+			return;
+		}
+		try {
+			if (serializerPool != null) {
+				serializerPool.shutdown();
+				serializerPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+				appenderPool.shutdown();
+				appenderPool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} else if (serializers != null) {
+				// Every chunk in flight holds a permit until it is appended or discarded
+				permits.acquire(threads * 2);
+			}
+			if (error.get() == null && footer != null) {
+				writeFully(bytes(footer));
+			}
+			channel.close();
+			if (shouldDeleteIfEmpty && itemCount == 0 && resource.isFile()) {
+				Files.deleteIfExists(resource.getFile().toPath());
+			}
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not close " + resource.getDescription(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ItemStreamException("Interrupted while closing " + resource.getDescription(), e);
+		} finally {
+			channel = null;
+			serializerPool = null;
+			appenderPool = null;
+			serializers = null;
+			appender = null;
+			pending = null;
+			buffers.clear();
+		}
+		checkError();
+	}
+
+	public long getItemCount() {
+		return itemCount;
+	}
+
+	/**
+	 * 
+	 * @return number of bytes appended so far, including header and
+	 *         separators. With {@link #setThreads(int) threads} set this lags
+	 *         behind chunks that are still being serialized.
+	 */
+	public long getByteCount() {
+		return byteCount;
+	}
+
+	public void setEncoding(Charset encoding) {
+		this.encoding = encoding;
+	}
+
+	/**
+	 *
+	 * @param header written once at the beginning of the resource, unless
+	 *               appending to a non-empty file
+	 */
+	public void setHeader(String header) {
+		this.header = header;
+	}
+
+	/**
+	 *
+	 * @param footer written once at the end of the resource
+	 */
+	public void setFooter(String footer) {
+		this.footer = footer;
+	}
+
+	/**
+	 *
+	 * @param separator written between consecutive records, e.g. a comma and
+	 *                  line separator in a JSON array
+	 */
+	public void setSeparator(String separator) {
+		this.separator = separator;
+	}
+
+	/**
+	 *
+	 * @param terminator written after each record, e.g. the line separator of
+	 *                   line-based formats
+	 */
+	public void setTerminator(String terminator) {
+		this.terminator = terminator;
+	}
+
+	public void setAppend(boolean append) {
+		this.append = append;
+	}
+
+	public void setForceSync(boolean forceSync) {
+		this.forceSync = forceSync;
+	}
+
+	public void setShouldDeleteIfExists(boolean shouldDeleteIfExists) {
+		this.shouldDeleteIfExists = shouldDeleteIfExists;
+	}
+
+	public void setShouldDeleteIfEmpty(boolean shouldDeleteIfEmpty) {
+		this.shouldDeleteIfEmpty = shouldDeleteIfEmpty;
+	}
+
+	/**
+	 *
+	 * @param threads number of serializer threads, 0 to serialize chunks in the
+	 *                threads that write them
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	/**
+	 *
+	 * @param executor executor shared with other writers to serialize and append
+	 *                 chunks when {@link #setThreads(int) threads} is set, left
+	 *                 running on close. Null to use threads of this writer.
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Runs tasks one at a time, in order, on a shared executor.
+	 */
+	private static class SerialExecutor implements Executor {
+
+		private final Queue<Runnable> tasks = new ArrayDeque<>();
+		private final Executor executor;
+		private Runnable active;
+
+		public SerialExecutor(Executor executor) {
+			this.executor = executor;
+		}
+
+		@Override
+		public synchronized void execute(Runnable task) {
+			tasks.add(() -> {
+				try {
+					task.run();
+				} finally {
+					next();
+				}
+			});
+			if (active == null) {
+				next();
+			}
+		}
+
+		private synchronized void next() {
+			active = tasks.poll();
+			if (active != null) {
+				executor.execute(active);
+			}
+		}
+
+	}
+
+	private static class Buffered {
+
+		private final ChunkBuffer buffer;
+		private final int count;
+
+		public Buffered(ChunkBuffer buffer, int count) {
+			this.buffer = buffer;
+			this.count = count;
+		}
+
+	}
+
+	/**
+	 * Byte buffer reused across chunks, drained straight into a channel.
+	 */
+	private static class ChunkBuffer extends ByteArrayOutputStream {
+
+		public ChunkBuffer() {
+			super(1 << 16);
+		}
+
+		public void writeTo(WritableByteChannel channel) throws IOException {
+			ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			reset();
+		}
+
+	}
+
+}
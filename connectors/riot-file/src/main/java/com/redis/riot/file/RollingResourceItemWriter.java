@@ -0,0 +1,384 @@
+package com.redis.riot.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemStreamItemWriter;
+import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Splits items across files named after a location template, e.g.
+ * {@code dump-{shard}-{seq}.jsonl.gz}. Items are routed to a shard by an
+ * optional shard function, and each shard rolls over to a new file once it
+ * reaches a max number of records or bytes. Shards have their own
+ * {@link ResourceItemWriter} and lock, so chunks going to different shards are
+ * written concurrently. At most {@code maxOpenShards} shards have a file open
+ * at a time: the least recently written shard is closed to make room for
+ * another one, and continues in its next file when written to again.
+ * <p>
+ * Shard writers share one pool of {@code threads} serializer threads, and
+ * gzip-compressed files share one pool of {@code compressionThreads} threads,
+ * so the number of threads does not grow with the number of open shards.
+ * Each open shard still buffers up to twice {@code threads} chunks and one
+ * compression block.
+ * <p>
+ * On close, a JSON manifest listing each file with its shard and record count
+ * can be written to a separate location.
+ *
+ * @param <T> item type
+ */
+public class RollingResourceItemWriter<T> extends AbstractItemStreamItemWriter<T> {
+
+	public static final String SHARD = "{shard}";
+	public static final String SEQUENCE = "{seq}";
+	public static final String DEFAULT_SHARD = "0";
+	public static final int DEFAULT_MAX_OPEN_SHARDS = 128;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final String template;
+	private final ResourceFunction resourceFunction;
+	private final Function<WritableResource, ResourceItemWriter<T>> writerFunction;
+	private Function<? super T, String> shardFunction;
+	private long maxRecords;
+	private long maxBytes;
+	private String manifest;
+	private int maxOpenShards = DEFAULT_MAX_OPEN_SHARDS;
+	private int threads;
+	private int compressionThreads;
+
+	private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+	private final AtomicInteger openShards = new AtomicInteger();
+	private final AtomicLong clock = new AtomicLong();
+	private final List<Map<String, Object>> files = new ArrayList<>();
+	private ExecutorService serializers;
+	private ExecutorService compressors;
+
+	public RollingResourceItemWriter(String template, ResourceFunction resourceFunction,
+			Function<WritableResource, ResourceItemWriter<T>> writerFunction) {
+		Assert.hasLength(template, "Location template must not be empty");
+		Assert.notNull(resourceFunction, "Resource function must not be null");
+		Assert.notNull(writerFunction, "Writer function must not be null");
+		this.template = template;
+		this.resourceFunction = resourceFunction;
+		this.writerFunction = writerFunction;
+		setName(ClassUtils.getShortName(RollingResourceItemWriter.class));
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		super.open(executionContext);
+		if (shardFunction != null) {
+			Assert.isTrue(template.contains(SHARD), "Location template must contain " + SHARD);
+		}
+		if (maxRecords > 0 || maxBytes > 0) {
+			Assert.isTrue(template.contains(SEQUENCE), "Location template must contain " + SEQUENCE);
+		}
+		shards.clear();
+		openShards.set(0);
+		synchronized (files) {
+			files.clear();
+		}
+		if (threads > 0) {
+			AtomicInteger count = new AtomicInteger();
+			serializers = Executors.newFixedThreadPool(threads, r -> {
+				Thread thread = new Thread(r, "riot-shard-writer-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		if (compressionThreads > 0) {
+			compressors = ParallelGzipOutputStream.executor(compressionThreads);
+		}
+	}
+
+	@Override
+	public void write(Chunk<? extends T> chunk) throws Exception {
+		if (shardFunction == null) {
+			write(DEFAULT_SHARD, chunk.getItems());
+			return;
+		}
+		Map<String, List<T>> groups = new LinkedHashMap<>();
+		for (T item : chunk) {
+			groups.computeIfAbsent(shardFunction.apply(item), k -> new ArrayList<>()).add(item);
+		}
+		for (Map.Entry<String, List<T>> group : groups.entrySet()) {
+			write(group.getKey(), group.getValue());
+		}
+	}
+
+	private void write(String shardName, List<? extends T> items) throws Exception {
+		Shard shard = shards.computeIfAbsent(shardName, Shard::new);
+		shard.lastWrite = clock.incrementAndGet();
+		if (!shard.open) {
+			makeRoom();
+		}
+		synchronized (shard) {
+			shard.write(items);
+		}
+	}
+
+	/**
+	 * Closes least recently written shards until another one can be opened. Runs
+	 * without holding any shard lock so that shards closing each other cannot
+	 * deadlock.
+	 */
+	private synchronized void makeRoom() {
+		while (openShards.get() >= maxOpenShards) {
+			Shard eldest = null;
+			for (Shard shard : shards.values()) {
+				if (shard.open && (eldest == null || shard.lastWrite < eldest.lastWrite)) {
+					eldest = shard;
+				}
+			}
+			if (eldest == null) {
+				return;
+			}
+			if (!template.contains(SEQUENCE)) {
+				throw new ItemStreamException(String.format(
+						"More than %d shards open: location template must contain %s to close idle shards",
+						maxOpenShards, SEQUENCE));
+			}
+			synchronized (eldest) {
+				log.debug("Closing idle shard {}", eldest.name);
+				eldest.close();
+			}
+		}
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) {
+		super.update(executionContext);
+		for (Shard shard : shards.values()) {
+			synchronized (shard) {
+				if (shard.writer != null) {
+					shard.writer.update(new ExecutionContext());
+				}
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		ItemStreamException exception = null;
+		for (Shard shard : shards.values()) {
+			synchronized (shard) {
+				try {
+					shard.close();
+				} catch (ItemStreamException e) {
+					if (exception == null) {
+						exception = e;
+					}
+				}
+			}
+		}
+		shards.clear();
+		shutdown();
+		if (exception != null) {
+			throw exception;
+		}
+		if (manifest != null) {
+			writeManifest();
+		}
+	}
+
+	private void shutdown() {
+		if (serializers != null) {
+			serializers.shutdown();
+			serializers = null;
+		}
+		if (compressors != null) {
+			compressors.shutdown();
+			compressors = null;
+		}
+	}
+
+	private void writeManifest() {
+		List<Map<String, Object>> entries;
+		synchronized (files) {
+			entries = new ArrayList<>(files);
+		}
+		entries.sort(Comparator.comparing((Map<String, Object> e) -> (String) e.get("shard"))
+				.thenComparing(e -> (Long) e.get("sequence")));
+		Map<String, Object> content = new LinkedHashMap<>();
+		content.put("files", entries);
+		content.put("records", entries.stream().mapToLong(e -> (Long) e.get("records")).sum());
+		ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+		try (OutputStream outputStream = resourceFunction.resource(manifest, null).getOutputStream()) {
+			mapper.writeValue(outputStream, content);
+		} catch (IOException e) {
+			throw new ItemStreamException("Could not write manifest " + manifest, e);
+		}
+		log.info("Wrote manifest {} listing {} files", manifest, entries.size());
+	}
+
+	/**
+	 *
+	 * @param shardFunction returns the shard name of an item, used in place of
+	 *                      {@value #SHARD} in the location template. Names
+	 *                      should be safe to use in file names.
+	 */
+	public void setShardFunction(Function<? super T, String> shardFunction) {
+		this.shardFunction = shardFunction;
+	}
+
+	/**
+	 *
+	 * @param maxRecords number of records after which a shard rolls over to its
+	 *                   next file, 0 for no limit
+	 */
+	public void setMaxRecords(long maxRecords) {
+		this.maxRecords = maxRecords;
+	}
+
+	/**
+	 *
+	 * @param maxBytes number of uncompressed bytes after which a shard rolls over
+	 *                 to its next file, 0 for no limit. Files can exceed it by up
+	 *                 to a chunk.
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 *
+	 * @param manifest location of the manifest written on close, null for none
+	 */
+	public void setManifest(String manifest) {
+		this.manifest = manifest;
+	}
+
+	/**
+	 *
+	 * @param maxOpenShards number of shards that can have a file open at the
+	 *                      same time. Closing a shard requires {@value #SEQUENCE}
+	 *                      in the location template.
+	 */
+	public void setMaxOpenShards(int maxOpenShards) {
+		this.maxOpenShards = maxOpenShards;
+	}
+
+	/**
+	 *
+	 * @param threads number of threads serializing chunks for all shards, 0 to
+	 *                use the threads of each shard writer
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	/**
+	 *
+	 * @param threads number of threads compressing gzip files for all shards, 0
+	 *                to let each file use its own threads
+	 */
+	public void setCompressionThreads(int threads) {
+		this.compressionThreads = threads;
+	}
+
+	public interface ResourceFunction {
+
+		/**
+		 *
+		 * @param location            file location
+		 * @param compressionExecutor executor compressing gzip files of all
+		 *                            shards, or null
+		 * @return resource to write the file to
+		 */
+		WritableResource resource(String location, ExecutorService compressionExecutor) throws IOException;
+
+	}
+
+	private class Shard {
+
+		private final String name;
+		private long sequence;
+		private String location;
+		private ResourceItemWriter<T> writer;
+		private long records;
+		private volatile boolean open;
+		private volatile long lastWrite;
+
+		public Shard(String name) {
+			this.name = name;
+		}
+
+		public void write(List<? extends T> items) throws Exception {
+			int offset = 0;
+			while (offset < items.size()) {
+				if (writer == null) {
+					open();
+				}
+				int count = items.size() - offset;
+				if (maxRecords > 0) {
+					count = (int) Math.min(count, maxRecords - records);
+				}
+				writer.write(new Chunk<>(items.subList(offset, offset + count)));
+				records += count;
+				offset += count;
+				if ((maxRecords > 0 && records >= maxRecords) || (maxBytes > 0 && writer.getByteCount() >= maxBytes)) {
+					close();
+				}
+			}
+		}
+
+		private void open() throws IOException {
+			location = template.replace(SHARD, name).replace(SEQUENCE, String.valueOf(sequence++));
+			writer = writerFunction.apply(resourceFunction.resource(location, compressors));
+			if (serializers != null) {
+				writer.setExecutor(serializers);
+			}
+			writer.open(new ExecutionContext());
+			open = true;
+			openShards.incrementAndGet();
+			records = 0;
+			log.info("Opened {}", location);
+		}
+
+		public void close() {
+			if (writer == null) {
+				return;
+			}
+			try {
+				writer.close();
+			} finally {
+				writer = null;
+				open = false;
+				openShards.decrementAndGet();
+			}
+			Map<String, Object> file = new LinkedHashMap<>();
+			file.put("file", location);
+			file.put("shard", name);
+			file.put("sequence", sequence - 1);
+			file.put("records", records);
+			synchronized (files) {
+				files.add(file);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,29 @@
+package com.redis.riot.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.function.Function;
+
+/**
+ * Encodes items through a string representation, e.g. from a line aggregator
+ * or an XML marshaller.
+ *
+ * @param <T> item type
+ */
+public class StringItemEncoder<T> implements ItemEncoder<T> {
+
+	private final Function<? super T, String> function;
+	private final Charset charset;
+
+	public StringItemEncoder(Function<? super T, String> function, Charset charset) {
+		this.function = function;
+		this.charset = charset;
+	}
+
+	@Override
+	public void encode(T item, OutputStream out) throws IOException {
+		out.write(function.apply(item).getBytes(charset));
+	}
+
+}
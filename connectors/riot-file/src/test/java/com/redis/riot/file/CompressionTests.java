@@ -0,0 +1,44 @@
+package com.redis.riot.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CompressionTests {
+
+	@Test
+	void extension() {
+		Assertions.assertEquals(Compression.GZIP, Compression.of("/data/file.json.gz"));
+		Assertions.assertEquals(Compression.ZSTD, Compression.of("s3://bucket/dump-0-1.jsonl.zst"));
+		Assertions.assertEquals(Compression.LZ4, Compression.of("file.csv.LZ4"));
+		Assertions.assertNull(Compression.of("file.csv"));
+		Assertions.assertEquals(FileType.JSONL, FileUtils.fileType("dump.jsonl.zst"));
+	}
+
+	@Test
+	void roundTrip() throws IOException {
+		StringBuilder builder = new StringBuilder();
+		for (int index = 0; index < 100000; index++) {
+			builder.append("{\"key\":\"gen:").append(index).append("\",\"type\":\"string\"}\n");
+		}
+		byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
+		for (Compression compression : Compression.values()) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (OutputStream out = compression.outputStream(bytes, Compression.DEFAULT_LEVEL, 2)) {
+				out.write(data);
+			}
+			Assertions.assertTrue(bytes.size() < data.length, compression.name());
+			try (InputStream in = new ReadAheadInputStream(
+					compression.inputStream(new ByteArrayInputStream(bytes.toByteArray()), 2), 1000, 2)) {
+				Assertions.assertArrayEquals(data, in.readAllBytes(), compression.name());
+			}
+		}
+	}
+
+}
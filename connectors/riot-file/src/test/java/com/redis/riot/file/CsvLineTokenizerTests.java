@@ -0,0 +1,54 @@
+package com.redis.riot.file;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+
+class CsvLineTokenizerTests {
+
+	private static final String[] LINES = { "a,b,c", "1,\"two, three\",4", " x , \"y\" ,z", "\"say \"\"hi\"\"\",,",
+			"\"\",b,", "a,\"multi\nline\",c" };
+
+	@Test
+	void sameAsDelimitedLineTokenizer() {
+		for (String line : LINES) {
+			DelimitedLineTokenizer expected = new DelimitedLineTokenizer();
+			CsvLineTokenizer actual = new CsvLineTokenizer();
+			Assertions.assertArrayEquals(expected.tokenize(line).getValues(), actual.tokenize(line).getValues(), line);
+		}
+	}
+
+	@Test
+	void includedFields() {
+		DelimitedLineTokenizer expected = new DelimitedLineTokenizer("|");
+		expected.setIncludedFields(0, 2);
+		CsvLineTokenizer actual = new CsvLineTokenizer("|");
+		actual.setIncludedFields(0, 2);
+		String line = "a|\"b|c\"|d|e|f";
+		Assertions.assertArrayEquals(expected.tokenize(line).getValues(), actual.tokenize(line).getValues());
+	}
+
+	@Test
+	void wideLine() {
+		String[] values = new String[200];
+		for (int index = 0; index < values.length; index++) {
+			values[index] = "value" + index;
+		}
+		CsvLineTokenizer tokenizer = new CsvLineTokenizer();
+		tokenizer.setIncludedFields(3, 1, 5);
+		tokenizer.setNames("b", "d", "f");
+		FieldSet fieldSet = tokenizer.tokenize(String.join(",", values));
+		Assertions.assertEquals(Arrays.asList("value1", "value3", "value5"), Arrays.asList(fieldSet.getValues()));
+		Assertions.assertEquals("value3", fieldSet.readString("d"));
+	}
+
+	@Test
+	void multiCharacterDelimiter() {
+		CsvLineTokenizer tokenizer = new CsvLineTokenizer("::");
+		Assertions.assertArrayEquals(new String[] { "a", "b:c", "" }, tokenizer.tokenize("a::b:c::").getValues());
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.redis.riot.file;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.core.io.FileSystemResource;
+
+class DumpFileTests {
+
+	private List<DumpRecord> records(int count) {
+		List<DumpRecord> records = new ArrayList<>();
+		for (int index = 0; index < count; index++) {
+			byte[] dump = ("dump:" + index).repeat(index % 10 + 1).getBytes(StandardCharsets.UTF_8);
+			String type = index % 2 == 0 ? "string" : null;
+			records.add(new DumpRecord(("key:" + index).getBytes(StandardCharsets.UTF_8), type, index, dump));
+		}
+		return records;
+	}
+
+	private Path write(List<DumpRecord> records, Compression compression) throws Exception {
+		Path file = Files.createTempFile(getClass().getSimpleName(), ".rdump");
+		DumpFileItemWriter writer = new DumpFileItemWriter(new FileSystemResource(file));
+		writer.setCompression(compression);
+		writer.setBlockSize(1000);
+		writer.open(new ExecutionContext());
+		for (int index = 0; index < records.size(); index += 50) {
+			writer.write(new Chunk<>(records.subList(index, Math.min(index + 50, records.size()))));
+		}
+		writer.close();
+		return file;
+	}
+
+	private List<DumpRecord> read(Path file) throws Exception {
+		DumpFileItemReader reader = new DumpFileItemReader(new FileSystemResource(file));
+		reader.open(new ExecutionContext());
+		try {
+			List<DumpRecord> records = new ArrayList<>();
+			DumpRecord record;
+			while ((record = reader.read()) != null) {
+				records.add(record);
+			}
+			return records;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void assertRecords(List<DumpRecord> expected, List<DumpRecord> actual) {
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int index = 0; index < expected.size(); index++) {
+			Assertions.assertArrayEquals(expected.get(index).getKey(), actual.get(index).getKey());
+			Assertions.assertEquals(expected.get(index).getType(), actual.get(index).getType());
+			Assertions.assertEquals(expected.get(index).getTtl(), actual.get(index).getTtl());
+			Assertions.assertArrayEquals(expected.get(index).getDump(), actual.get(index).getDump());
+		}
+	}
+
+	@Test
+	void roundTrip() throws Exception {
+		List<DumpRecord> records = records(345);
+		Path file = write(records, null);
+		assertRecords(records, read(file));
+		Assertions.assertEquals(records.size(), DumpFileItemReader.count(file));
+	}
+
+	@Test
+	void compressedBlocks() throws Exception {
+		List<DumpRecord> records = records(345);
+		for (Compression compression : Compression.values()) {
+			assertRecords(records, read(write(records, compression)));
+		}
+	}
+
+	@Test
+	void empty() throws Exception {
+		Path file = write(new ArrayList<>(), Compression.ZSTD);
+		Assertions.assertTrue(read(file).isEmpty());
+		Assertions.assertEquals(0, DumpFileItemReader.count(file));
+	}
+
+	@Test
+	void corrupt() throws Exception {
+		Path file = write(records(10), null);
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+			randomAccessFile.seek(40);
+			int b = randomAccessFile.read();
+			randomAccessFile.seek(40);
+			randomAccessFile.write(b + 1);
+		}
+		Assertions.assertThrows(IOException.class, () -> read(file));
+	}
+
+	private long indexOffset(Path file) throws IOException {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "r")) {
+			randomAccessFile.seek(randomAccessFile.length() - DumpFileItemWriter.TRAILER_SIZE);
+			return randomAccessFile.readLong();
+		}
+	}
+
+	private void truncate(Path file, long size) throws IOException {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+			randomAccessFile.setLength(size);
+		}
+	}
+
+	@Test
+	void truncated() throws Exception {
+		Path file = write(records(345), null);
+		long size = Files.size(file);
+		// Cut at the end of the last block, so that only the index is missing
+		truncate(file, indexOffset(file));
+		Assertions.assertThrows(EOFException.class, () -> read(file));
+		Path midBlock = write(records(345), null);
+		truncate(midBlock, size / 2);
+		Assertions.assertThrows(EOFException.class, () -> read(midBlock));
+	}
+
+	@Test
+	void trailerCount() throws Exception {
+		Path file = write(records(345), null);
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+			randomAccessFile.seek(randomAccessFile.length() - DumpFileItemWriter.TRAILER_SIZE + Long.BYTES);
+			randomAccessFile.writeLong(344);
+		}
+		Assertions.assertThrows(ZipException.class, () -> read(file));
+	}
+
+}
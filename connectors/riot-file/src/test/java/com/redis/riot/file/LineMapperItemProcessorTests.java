@@ -0,0 +1,44 @@
+package com.redis.riot.file;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+class LineMapperItemProcessorTests {
+
+	private LineMapperItemProcessor<Map<String, Object>> processor() {
+		DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+		tokenizer.setNames("id", "name");
+		DefaultLineMapper<Map<String, Object>> lineMapper = new DefaultLineMapper<>();
+		lineMapper.setLineTokenizer(tokenizer);
+		lineMapper.setFieldSetMapper(new MapFieldSetMapper());
+		return new LineMapperItemProcessor<>(lineMapper);
+	}
+
+	@Test
+	void mapLine() throws Exception {
+		Map<String, Object> item = processor().process(new NumberedLine(3, "1,foo"));
+		Assertions.assertEquals("1", item.get("id"));
+		Assertions.assertEquals("foo", item.get("name"));
+	}
+
+	@Test
+	void parseErrorLineNumber() {
+		FlatFileParseException exception = Assertions.assertThrows(FlatFileParseException.class,
+				() -> processor().process(new NumberedLine(42, "1,foo,bar")));
+		Assertions.assertEquals(42, exception.getLineNumber());
+		Assertions.assertEquals("1,foo,bar", exception.getInput());
+	}
+
+	@Test
+	void lineMapper() throws Exception {
+		NumberedLine line = NumberedLine.lineMapper().mapLine("a,b", 7);
+		Assertions.assertEquals(7, line.getNumber());
+		Assertions.assertEquals("a,b", line.getText());
+	}
+
+}
@@ -0,0 +1,154 @@
+package com.redis.riot.file;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
+import org.springframework.core.io.FileSystemResource;
+
+class MappedLineItemReaderTests {
+
+	private Path file(String content) throws Exception {
+		Path file = Files.createTempFile(getClass().getSimpleName(), ".txt");
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private MappedLineItemReader<String> reader(Path file) {
+		return reader(new MappedLineItemReader<>(file));
+	}
+
+	private MappedLineItemReader<String> reader(MappedLineItemReader<String> reader) {
+		reader.setLineMapper((line, lineNumber) -> lineNumber + ":" + line);
+		reader.setComments(FlatFileItemReader.DEFAULT_COMMENT_PREFIXES);
+		return reader;
+	}
+
+	private List<String> readAll(ItemStreamReader<String> reader) throws Exception {
+		return readAll(reader, new ExecutionContext());
+	}
+
+	private List<String> readAll(ItemStreamReader<String> reader, ExecutionContext executionContext)
+			throws Exception {
+		List<String> lines = new ArrayList<>();
+		reader.open(executionContext);
+		try {
+			String line;
+			while ((line = reader.read()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+
+	@Test
+	void quotedNewline() throws Exception {
+		Path file = file("a,\"b\nc\",d\ne\n");
+		Assertions.assertEquals(Arrays.asList("2:a,\"b\nc\",d", "3:e"), readAll(reader(file)));
+	}
+
+	@Test
+	void unterminatedQuote() throws Exception {
+		MappedLineItemReader<String> reader = reader(file("a\n\"b\nc\n"));
+		reader.open(new ExecutionContext());
+		try {
+			Assertions.assertEquals("1:a", reader.read());
+			Assertions.assertThrows(FlatFileParseException.class, reader::read);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	void continuation() throws Exception {
+		Path file = file("a,\\\nb\\  \nc\nd\n");
+		Assertions.assertEquals(Arrays.asList("3:a,bc", "4:d"), readAll(reader(file)));
+	}
+
+	@Test
+	void crlf() throws Exception {
+		Path file = file("a\r\n\"b\r\nc\"\r\nd");
+		Assertions.assertEquals(Arrays.asList("1:a", "3:\"b\nc\"", "4:d"), readAll(reader(file)));
+	}
+
+	@Test
+	void comments() throws Exception {
+		Path file = file("# header\na\n#b\nc\n");
+		Assertions.assertEquals(Arrays.asList("2:a", "4:c"), readAll(reader(file)));
+	}
+
+	@Test
+	void linesToSkip() throws Exception {
+		MappedLineItemReader<String> reader = reader(file("id,name\na\nb\n"));
+		List<String> skipped = new ArrayList<>();
+		reader.setLinesToSkip(1);
+		reader.setSkippedLinesCallback(skipped::add);
+		Assertions.assertEquals(Arrays.asList("2:a", "3:b"), readAll(reader));
+		Assertions.assertEquals(Arrays.asList("id,name"), skipped);
+	}
+
+	@Test
+	void sameAsFlatFileReader() throws Exception {
+		Path file = file("# comment\na,1\n\n  \nb,\"2\r\n3\"\r\nc,\\\n4\n\nd,5");
+		FlatFileItemReader<String> flatFileReader = new FlatFileItemReaderBuilder<String>().name("flat-file")
+				.resource(new FileSystemResource(file)).lineMapper((line, lineNumber) -> lineNumber + ":" + line)
+				.recordSeparatorPolicy(new DefaultRecordSeparatorPolicy()).build();
+		List<String> expected = readAll(flatFileReader);
+		Assertions.assertEquals(Arrays.asList("2:a,1", "3:", "4:  ", "6:b,\"2\n3\"", "8:c,4", "9:", "10:d,5"),
+				expected);
+		Assertions.assertEquals(expected, readAll(reader(file)));
+	}
+
+	@Test
+	void smallWindow() throws Exception {
+		StringBuilder content = new StringBuilder();
+		List<String> expected = new ArrayList<>();
+		for (int index = 1; index <= 100; index++) {
+			String line = "line" + "x".repeat(index % 23);
+			content.append(line).append(index % 2 == 0 ? "\r\n" : "\n");
+			expected.add(index + ":" + line);
+		}
+		MappedLineItemReader<String> reader = reader(file(content.toString()));
+		reader.setWindowSize(8);
+		Assertions.assertEquals(expected, readAll(reader));
+	}
+
+	@Test
+	void range() throws Exception {
+		Path file = file("aa\nbb\ncc\ndd");
+		Assertions.assertEquals(Arrays.asList("1:aa"), readAll(reader(new MappedLineItemReader<>(file, 0, 3))));
+		Assertions.assertEquals(Arrays.asList("1:bb", "2:cc"),
+				readAll(reader(new MappedLineItemReader<>(file, 3, 9))));
+		Assertions.assertEquals(Arrays.asList("1:dd"), readAll(reader(new MappedLineItemReader<>(file, 9, 11))));
+		Assertions.assertEquals(Arrays.asList("1:dd"),
+				readAll(reader(new MappedLineItemReader<>(file, 9, Long.MAX_VALUE))));
+		Assertions.assertEquals(Arrays.asList(), readAll(reader(new MappedLineItemReader<>(file, 11, 11))));
+	}
+
+	@Test
+	void restart() throws Exception {
+		Path file = file("a\n#b\nc\"\nd\"\ne\nf\n");
+		ExecutionContext executionContext = new ExecutionContext();
+		MappedLineItemReader<String> reader = reader(file);
+		reader.open(executionContext);
+		Assertions.assertEquals("1:a", reader.read());
+		Assertions.assertEquals("4:c\"\nd\"", reader.read());
+		reader.update(executionContext);
+		reader.close();
+		Assertions.assertEquals(Arrays.asList("5:e", "6:f"), readAll(reader(file), executionContext));
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.redis.riot.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ParallelGzipTests {
+
+	private byte[] data(int size) {
+		byte[] data = new byte[size];
+		Random random = new Random(123);
+		for (int index = 0; index < size; index++) {
+			// Mix of compressible and random bytes
+			data[index] = (byte) (index % 3 == 0 ? random.nextInt() : 'a' + index % 7);
+		}
+		return data;
+	}
+
+	private byte[] compress(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new ParallelGzipOutputStream(bytes, 4, 1000, Deflater.DEFAULT_COMPRESSION)) {
+			out.write(data, 0, data.length / 2);
+			for (int index = data.length / 2; index < data.length; index++) {
+				out.write(data[index]);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	@Test
+	void standardReader() throws IOException {
+		byte[] data = data(12345);
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compress(data)))) {
+			Assertions.assertArrayEquals(data, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void parallelReader() throws IOException {
+		byte[] data = data(12345);
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compress(data)), 3)) {
+			Assertions.assertArrayEquals(data, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void empty() throws IOException {
+		byte[] compressed = compress(new byte[0]);
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+			Assertions.assertEquals(0, in.readAllBytes().length);
+		}
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 2)) {
+			Assertions.assertEquals(0, in.readAllBytes().length);
+		}
+	}
+
+	@Test
+	void standardMembers() throws IOException {
+		byte[] data = data(5000);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write(compress(data));
+		try (OutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(data);
+		}
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		expected.write(data);
+		expected.write(data);
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(bytes.toByteArray()), 2)) {
+			Assertions.assertArrayEquals(expected.toByteArray(), in.readAllBytes());
+		}
+	}
+
+	@Test
+	void corrupt() throws IOException {
+		byte[] compressed = compress(data(5000));
+		compressed[compressed.length - 6]++;
+		try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compressed), 2)) {
+			Assertions.assertThrows(IOException.class, in::readAllBytes);
+		}
+	}
+
+}
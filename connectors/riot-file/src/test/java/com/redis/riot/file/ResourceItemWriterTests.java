@@ -0,0 +1,126 @@
+package com.redis.riot.file;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.FileSystemResource;
+
+class ResourceItemWriterTests {
+
+	private static final String FAIL = "fail";
+
+	private static final int CHUNKS = 100;
+	private static final int CHUNK_SIZE = 10;
+
+	private ResourceItemWriter<String> writer(Path file, int threads) {
+		ResourceItemWriter<String> writer = new ResourceItemWriter<>(new FileSystemResource(file),
+				() -> new StringItemEncoder<>(this::encode, StandardCharsets.UTF_8));
+		writer.setTerminator("\n");
+		writer.setThreads(threads);
+		return writer;
+	}
+
+	private String encode(String item) {
+		if (FAIL.equals(item)) {
+			throw new IllegalStateException("Could not encode item");
+		}
+		return item;
+	}
+
+	private List<String> chunk(int index) {
+		List<String> items = new ArrayList<>();
+		for (int item = 0; item < CHUNK_SIZE; item++) {
+			items.add(index + ":" + item);
+		}
+		return items;
+	}
+
+	private void writeChunks(ResourceItemWriter<String> writer) throws Exception {
+		writer.open(new ExecutionContext());
+		for (int index = 0; index < CHUNKS; index++) {
+			writer.write(new Chunk<>(chunk(index)));
+		}
+		writer.close();
+	}
+
+	@Test
+	void ordered() throws Exception {
+		Path file = Files.createTempFile(getClass().getSimpleName(), ".txt");
+		writeChunks(writer(file, 4));
+		List<String> expected = new ArrayList<>();
+		for (int index = 0; index < CHUNKS; index++) {
+			expected.addAll(chunk(index));
+		}
+		Assertions.assertEquals(expected, Files.readAllLines(file));
+	}
+
+	@Test
+	void unordered() throws Exception {
+		Path file = Files.createTempFile(getClass().getSimpleName(), ".txt");
+		ResourceItemWriter<String> writer = writer(file, 4);
+		writer.setOrdered(false);
+		writeChunks(writer);
+		Assertions.assertEquals(CHUNKS * CHUNK_SIZE, writer.getItemCount());
+		List<String> lines = Files.readAllLines(file);
+		Assertions.assertEquals(CHUNKS * CHUNK_SIZE, lines.size());
+		// Chunks can be appended in any order but each one is appended whole
+		Map<String, List<String>> chunks = new HashMap<>();
+		for (int index = 0; index < lines.size(); index += CHUNK_SIZE) {
+			List<String> chunk = lines.subList(index, index + CHUNK_SIZE);
+			String chunkIndex = chunk.get(0).substring(0, chunk.get(0).indexOf(':'));
+			Assertions.assertEquals(chunk(Integer.parseInt(chunkIndex)), chunk);
+			Assertions.assertNull(chunks.put(chunkIndex, chunk));
+		}
+		Assertions.assertEquals(CHUNKS, chunks.size());
+	}
+
+	@Test
+	void serializationError() throws Exception {
+		Path file = Files.createTempFile(getClass().getSimpleName(), ".txt");
+		ResourceItemWriter<String> writer = writer(file, 2);
+		writer.open(new ExecutionContext());
+		List<String> failed = chunk(1);
+		failed.set(5, FAIL);
+		try {
+			writer.write(new Chunk<>(chunk(0)));
+			writer.write(new Chunk<>(failed));
+			for (int index = 2; index < CHUNKS; index++) {
+				writer.write(new Chunk<>(chunk(index)));
+			}
+		} catch (ItemStreamException e) {
+			// Error of an earlier chunk surfaced on a later write
+		}
+		ItemStreamException exception = Assertions.assertThrows(ItemStreamException.class, writer::close);
+		Assertions.assertInstanceOf(IllegalStateException.class, exception.getCause());
+		// Only chunks preceding the failed one can have been appended
+		List<String> lines = Files.readAllLines(file);
+		Assertions.assertTrue(lines.isEmpty() || lines.equals(chunk(0)), lines::toString);
+	}
+
+	@Test
+	void serializationErrorUnthreaded() throws Exception {
+		Path file = Files.createTempFile(getClass().getSimpleName(), ".txt");
+		ResourceItemWriter<String> writer = writer(file, 0);
+		writer.open(new ExecutionContext());
+		writer.write(new Chunk<>(chunk(0)));
+		List<String> failed = chunk(1);
+		failed.set(5, FAIL);
+		Assertions.assertThrows(IllegalStateException.class, () -> writer.write(new Chunk<>(failed)));
+		writer.write(new Chunk<>(chunk(2)));
+		writer.close();
+		List<String> expected = new ArrayList<>(chunk(0));
+		expected.addAll(chunk(2));
+		Assertions.assertEquals(expected, Files.readAllLines(file));
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.redis.riot.file;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.FileSystemResource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RollingResourceItemWriterTests {
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void rollAndShard() throws Exception {
+		Path directory = Files.createTempDirectory(getClass().getName());
+		String template = directory.resolve("dump-{shard}-{seq}.txt").toString();
+		String manifest = directory.resolve("manifest.json").toString();
+		RollingResourceItemWriter<String> writer = new RollingResourceItemWriter<>(template,
+				(location, executor) -> new FileSystemResource(location), r -> {
+					ResourceItemWriter<String> resourceWriter = new ResourceItemWriter<>(r,
+							() -> new StringItemEncoder<>(s -> s, StandardCharsets.UTF_8));
+					resourceWriter.setTerminator("\n");
+					return resourceWriter;
+				});
+		writer.setShardFunction(s -> s.substring(0, 1));
+		writer.setMaxRecords(3);
+		writer.setManifest(manifest);
+		writer.open(new ExecutionContext());
+		writer.write(new Chunk<>(Arrays.asList("a1", "b1", "a2", "a3", "a4")));
+		writer.write(new Chunk<>(Arrays.asList("b2", "a5")));
+		writer.close();
+		Assertions.assertEquals(Arrays.asList("a1", "a2", "a3"), Files.readAllLines(directory.resolve("dump-a-0.txt")));
+		Assertions.assertEquals(Arrays.asList("a4", "a5"), Files.readAllLines(directory.resolve("dump-a-1.txt")));
+		Assertions.assertEquals(Arrays.asList("b1", "b2"), Files.readAllLines(directory.resolve("dump-b-0.txt")));
+		Map<String, Object> content = new ObjectMapper().readValue(directory.resolve("manifest.json").toFile(),
+				Map.class);
+		Assertions.assertEquals(7, ((Number) content.get("records")).intValue());
+		List<Map<String, Object>> files = (List<Map<String, Object>>) content.get("files");
+		Assertions.assertEquals(3, files.size());
+		Assertions.assertEquals(template.replace("{shard}-{seq}", "a-1"), files.get(1).get("file"));
+		Assertions.assertEquals(2, ((Number) files.get(1).get("records")).intValue());
+	}
+
+	private RollingResourceItemWriter<String> writer(String template) {
+		RollingResourceItemWriter<String> writer = new RollingResourceItemWriter<>(template,
+				(location, executor) -> new FileSystemResource(location), r -> {
+					ResourceItemWriter<String> resourceWriter = new ResourceItemWriter<>(r,
+							() -> new StringItemEncoder<>(s -> s, StandardCharsets.UTF_8));
+					resourceWriter.setTerminator("\n");
+					return resourceWriter;
+				});
+		writer.setShardFunction(s -> s.substring(0, 1));
+		return writer;
+	}
+
+	@Test
+	void closeIdleShards() throws Exception {
+		Path directory = Files.createTempDirectory(getClass().getName());
+		RollingResourceItemWriter<String> writer = writer(directory.resolve("dump-{shard}-{seq}.txt").toString());
+		writer.setMaxOpenShards(2);
+		writer.open(new ExecutionContext());
+		writer.write(new Chunk<>(Arrays.asList("a1", "b1")));
+		// Closes shard a, written before shard b
+		writer.write(new Chunk<>(Arrays.asList("c1")));
+		// Closes shard b and continues shard a in its next file
+		writer.write(new Chunk<>(Arrays.asList("a2", "c2")));
+		writer.close();
+		Assertions.assertEquals(Arrays.asList("a1"), Files.readAllLines(directory.resolve("dump-a-0.txt")));
+		Assertions.assertEquals(Arrays.asList("a2"), Files.readAllLines(directory.resolve("dump-a-1.txt")));
+		Assertions.assertEquals(Arrays.asList("b1"), Files.readAllLines(directory.resolve("dump-b-0.txt")));
+		Assertions.assertEquals(Arrays.asList("c1", "c2"), Files.readAllLines(directory.resolve("dump-c-0.txt")));
+	}
+
+	@Test
+	void tooManyShardsWithoutSequence() throws Exception {
+		Path directory = Files.createTempDirectory(getClass().getName());
+		RollingResourceItemWriter<String> writer = writer(directory.resolve("dump-{shard}.txt").toString());
+		writer.setMaxOpenShards(1);
+		writer.open(new ExecutionContext());
+		Assertions.assertThrows(ItemStreamException.class,
+				() -> writer.write(new Chunk<>(Arrays.asList("a1", "b1"))));
+		writer.close();
+		Assertions.assertEquals(Arrays.asList("a1"), Files.readAllLines(directory.resolve("dump-a.txt")));
+	}
+
+	@Test
+	void sharedThreads() throws Exception {
+		Path directory = Files.createTempDirectory(getClass().getName());
+		String template = directory.resolve("dump-{shard}-{seq}.txt.gz").toString();
+		RollingResourceItemWriter<String> writer = new RollingResourceItemWriter<>(template, (location, executor) -> {
+			OutputStream fileStream = new FileSystemResource(location).getOutputStream();
+			OutputStream outputStream = Compression.GZIP.outputStream(fileStream, Compression.DEFAULT_LEVEL, executor);
+			return new OutputStreamResource(outputStream, location, location);
+		}, r -> {
+			ResourceItemWriter<String> resourceWriter = new ResourceItemWriter<>(r,
+					() -> new StringItemEncoder<>(s -> s, StandardCharsets.UTF_8));
+			resourceWriter.setTerminator("\n");
+			resourceWriter.setThreads(2);
+			return resourceWriter;
+		});
+		writer.setShardFunction(s -> s.substring(0, s.indexOf(':')));
+		writer.setThreads(2);
+		writer.setCompressionThreads(2);
+		long threads = writerThreads();
+		writer.open(new ExecutionContext());
+		Map<String, List<String>> expected = new TreeMap<>();
+		for (int chunk = 0; chunk < 20; chunk++) {
+			List<String> items = new ArrayList<>();
+			for (int shard = 0; shard < 30; shard++) {
+				String item = shard + ":" + chunk;
+				items.add(item);
+				expected.computeIfAbsent(String.valueOf(shard), k -> new ArrayList<>()).add(item);
+			}
+			writer.write(new Chunk<>(items));
+		}
+		// Shards share the 2 writer and 2 compression threads
+		Assertions.assertTrue(writerThreads() <= threads + 2);
+		writer.close();
+		for (Map.Entry<String, List<String>> shard : expected.entrySet()) {
+			Path file = directory.resolve("dump-" + shard.getKey() + "-0.txt.gz");
+			try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+				String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+				Assertions.assertEquals(shard.getValue(), Arrays.asList(content.split("\n")));
+			}
+		}
+	}
+
+	private long writerThreads() {
+		return Thread.getAllStackTraces().keySet().stream().map(Thread::getName)
+				.filter(n -> n.startsWith("riot-writer-") || n.startsWith("riot-gzip-deflater-")).count();
+	}
+
+}
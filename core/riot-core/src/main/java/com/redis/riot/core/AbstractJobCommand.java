@@ -1,24 +1,40 @@
 package com.redis.riot.core;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionException;
 import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.SkipListener;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
 import org.springframework.batch.core.job.builder.SimpleJobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.PartitionStepBuilder;
 import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.step.skip.AlwaysSkipItemSkipPolicy;
@@ -28,10 +44,13 @@ import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemStreamSupport;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
 import org.springframework.batch.item.support.SynchronizedItemReader;
 import org.springframework.batch.item.support.SynchronizedItemStreamReader;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.retry.RetryListener;
 import org.springframework.retry.policy.AlwaysRetryPolicy;
 import org.springframework.retry.policy.NeverRetryPolicy;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -46,12 +65,20 @@ import com.redis.spring.batch.step.FlushingStepBuilder;
 
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.OptionSpec;
+import picocli.CommandLine.Model.PositionalParamSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParseResult;
 
 @Command
 public abstract class AbstractJobCommand extends AbstractCallableCommand {
 
 	public static final String DEFAULT_JOB_REPOSITORY_NAME = "riot";
+	public static final String RUN_ID_PARAMETER = "run.id";
+	public static final String JOB_IDENTITY_PARAMETER = "job.identity";
+
+	private static final Set<String> RUN_OPTIONS = new HashSet<>(Arrays.asList("--job-repo", "--resume",
+			"--progress", "--progress-interval", "--metrics-jmx", "--metrics-file", "--metrics-interval"));
 
 	@Option(names = "--job-name", description = "Job name.", paramLabel = "<string>", hidden = true)
 	private String jobName;
@@ -63,6 +90,11 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 	private JobRepository jobRepository;
 	private PlatformTransactionManager transactionManager;
 	private JobLauncher jobLauncher;
+	private JobRepository readerJobRepository;
+	private JobRepositoryContext jobRepositoryContext;
+	private MetricsReporter metricsReporter;
+	private TokenBucket itemBucket;
+	private TokenBucket byteBucket;
 
 	private TaskExecutorJobLauncher taskExecutorJobLauncher() throws Exception {
 		TaskExecutorJobLauncher launcher = new TaskExecutorJobLauncher();
@@ -73,7 +105,16 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 	}
 
 	protected void configureAsyncReader(AbstractAsyncItemReader<?, ?> reader) {
-		reader.setJobRepository(jobRepository);
+		reader.setJobRepository(readerJobRepository == null ? jobRepository : readerJobRepository);
+	}
+
+	/**
+	 *
+	 * @return true if reader state should be saved in step execution contexts so
+	 *         that the job can be resumed
+	 */
+	protected boolean isSaveState() {
+		return jobRepositoryContext != null;
 	}
 
 	private JobBuilder jobBuilder() {
@@ -86,6 +127,15 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 			Assert.notNull(commandSpec, "Command spec not set");
 			jobName = commandSpec.name();
 		}
+		JobRepositoryArgs jobRepositoryArgs = stepArgs.getJobRepositoryArgs();
+		if (jobRepository == null && jobRepositoryArgs.isPersistent()) {
+			log.info("Creating persistent job repository in {}", jobRepositoryArgs.directory());
+			jobRepositoryContext = JobRepositoryContext.create(jobRepositoryArgs.directory(), jobRepositoryName);
+			jobRepository = jobRepositoryContext.getJobRepository();
+			transactionManager = jobRepositoryContext.getTransactionManager();
+			// Internal jobs of async Redis readers are not restartable
+			readerJobRepository = JobUtils.jobRepositoryFactoryBean(jobRepositoryName).getObject();
+		}
 		if (jobRepository == null) {
 			jobRepository = JobUtils.jobRepositoryFactoryBean(jobRepositoryName).getObject();
 		}
@@ -95,7 +145,33 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 		if (jobLauncher == null) {
 			jobLauncher = taskExecutorJobLauncher();
 		}
-		JobExecution jobExecution = jobLauncher.run(job(), new JobParameters());
+		if (stepArgs.getMetricsArgs().isEnabled()) {
+			metricsReporter = new MetricsReporter(stepArgs.getMetricsArgs());
+		}
+		JobExecution jobExecution;
+		itemBucket = null;
+		byteBucket = null;
+		try {
+			Job job = job();
+			JobParameters jobParameters = jobParameters();
+			if (metricsReporter != null) {
+				metricsReporter.start();
+			}
+			jobExecution = jobLauncher.run(job, jobParameters);
+		} finally {
+			if (metricsReporter != null) {
+				metricsReporter.close();
+				metricsReporter = null;
+			}
+			if (jobRepositoryContext != null) {
+				jobRepositoryContext.close();
+				jobRepositoryContext = null;
+				jobRepository = null;
+				transactionManager = null;
+				jobLauncher = null;
+				readerJobRepository = null;
+			}
+		}
 		if (JobUtils.isFailed(jobExecution.getExitStatus())) {
 			for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
 				ExitStatus stepExitStatus = stepExecution.getExitStatus();
@@ -110,6 +186,63 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 		}
 	}
 
+	private JobParameters jobParameters() {
+		if (jobRepositoryContext == null) {
+			return new JobParameters();
+		}
+		String identity = identityHash(jobIdentity());
+		if (stepArgs.getJobRepositoryArgs().isResume()) {
+			JobExecution execution = jobRepositoryContext.restartableExecution(jobName, JOB_IDENTITY_PARAMETER,
+					identity);
+			if (execution != null) {
+				log.info("Resuming job {} from execution {}", jobName, execution.getId());
+				return execution.getJobParameters();
+			}
+			log.warn("No failed or interrupted execution of job {} with the same arguments to resume, starting a new one",
+					jobName);
+		}
+		return new JobParametersBuilder().addLong(RUN_ID_PARAMETER, System.currentTimeMillis())
+				.addString(JOB_IDENTITY_PARAMETER, identity).toJobParameters();
+	}
+
+	/**
+	 * Identifies the inputs and options of the job, so that only executions of the
+	 * same job are resumed. Defaults to the command-line arguments of this command
+	 * and its subcommands, except options that do not change what the job reads and
+	 * writes like {@code --resume} or {@code --progress}.
+	 * 
+	 * @return identity of the job
+	 */
+	protected String jobIdentity() {
+		StringBuilder identity = new StringBuilder();
+		if (commandSpec != null && commandSpec.commandLine().getParseResult() != null) {
+			appendIdentity(identity, commandSpec.commandLine().getParseResult());
+		}
+		return identity.toString();
+	}
+
+	private void appendIdentity(StringBuilder identity, ParseResult parseResult) {
+		identity.append(parseResult.commandSpec().name()).append('\n');
+		for (OptionSpec option : parseResult.matchedOptions()) {
+			if (!RUN_OPTIONS.contains(option.longestName())) {
+				identity.append(option.longestName()).append('=').append(option.originalStringValues()).append('\n');
+			}
+		}
+		for (PositionalParamSpec positional : parseResult.matchedPositionals()) {
+			identity.append(positional.originalStringValues()).append('\n');
+		}
+		parseResult.subcommands().forEach(s -> appendIdentity(identity, s));
+	}
+
+	private static String identityHash(String identity) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(identity.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+
 	private JobExecutionException wrapException(List<Throwable> throwables) {
 		if (throwables.isEmpty()) {
 			return new JobExecutionException("Job failed");
@@ -131,15 +264,99 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 		return job.build();
 	}
 
+	/**
+	 * Runs steps concurrently, at most {@code concurrency} at a time, each with
+	 * its own reader and writer. Progress of all steps is reported on a single
+	 * progress bar.
+	 * 
+	 * @param steps       steps to run
+	 * @param concurrency max number of steps running at the same time
+	 * @param taskName    name of the overall progress bar
+	 * @return job running the steps in a split flow
+	 */
+	protected Job job(Collection<Step<?, ?>> steps, int concurrency, String taskName) {
+		Assert.notEmpty(steps, "At least one step must be specified");
+		if (concurrency < 2 || steps.size() < 2) {
+			return job(steps);
+		}
+		ProgressStepExecutionListener<?, ?> progressListener = null;
+		if (shouldShowProgress()) {
+			progressListener = new ProgressStepExecutionListener<>(taskName, () -> maxItemCount(steps), () -> "",
+					steps.size());
+		}
+		List<Flow> flows = new ArrayList<>();
+		for (Step<?, ?> step : steps) {
+			flows.add(new FlowBuilder<SimpleFlow>(jobName + "-" + step.getName() + "-flow")
+					.start(step(step, progressListener)).build());
+		}
+		int threads = Math.min(concurrency, steps.size());
+		log.info("Running {} steps with concurrency {}", steps.size(), threads);
+		Flow split = new FlowBuilder<SimpleFlow>(jobName + "-split").split(taskExecutor(threads))
+				.add(flows.toArray(new Flow[0])).build();
+		return jobBuilder().start(split).end().build();
+	}
+
+	private long maxItemCount(Collection<Step<?, ?>> steps) {
+		long total = 0;
+		for (Step<?, ?> step : steps) {
+			long count = step.maxItemCount();
+			if (count < 0) {
+				return -1;
+			}
+			total += count;
+		}
+		return total;
+	}
+
 	protected boolean shouldShowProgress() {
 		return stepArgs.getProgressArgs().getStyle() != ProgressStyle.NONE;
 	}
 
 	protected abstract Job job() throws Exception;
 
-	private <I, O> TaskletStep step(Step<I, O> step) {
+	private <I, O> org.springframework.batch.core.Step step(Step<I, O> step) {
+		ProgressStepExecutionListener<?, ?> progressListener = null;
+		if (shouldShowProgress()) {
+			progressListener = new ProgressStepExecutionListener<>(step);
+		}
+		return step(step, progressListener);
+	}
+
+	private <I, O> org.springframework.batch.core.Step step(Step<I, O> step,
+			ProgressStepExecutionListener<?, ?> progressListener) {
 		log.info("Creating {}", step);
-		SimpleStepBuilder<I, O> builder = simpleStep(step);
+		String name = jobName + "-" + step.getName();
+		StepMetrics metrics = null;
+		if (metricsReporter != null) {
+			metrics = new StepMetrics(name);
+			step.getGauges().forEach(metrics::gauge);
+			metricsReporter.add(metrics);
+		}
+		if (step.getPartitioner() == null) {
+			return taskletStep(step, name, stepArgs.getThreads(), progressListener, metrics);
+		}
+		return partitionStep(step, name, progressListener, metrics);
+	}
+
+	private <I, O> org.springframework.batch.core.Step partitionStep(Step<I, O> step, String name,
+			ProgressStepExecutionListener<?, ?> progressListener, StepMetrics metrics) {
+		int gridSize = stepArgs.getThreads();
+		log.info("Creating partitioned step {} with grid size {}", name, gridSize);
+		TaskletStep worker = taskletStep(step, name + "-partition", 1, progressListener, metrics);
+		PartitionStepBuilder builder = new StepBuilder(name, jobRepository).partitioner(worker.getName(),
+				step.getPartitioner());
+		builder.step(worker);
+		builder.gridSize(gridSize);
+		builder.taskExecutor(taskExecutor(gridSize));
+		if (progressListener != null) {
+			builder.listener((StepExecutionListener) progressListener);
+		}
+		return builder.build();
+	}
+
+	private <I, O> TaskletStep taskletStep(Step<I, O> step, String name, int threads,
+			ProgressStepExecutionListener<?, ?> progressListener, StepMetrics metrics) {
+		SimpleStepBuilder<I, O> builder = simpleStep(step, name, threads, progressListener, metrics);
 		if (stepArgs.getRetryPolicy() == RetryPolicy.NEVER && stepArgs.getSkipPolicy() == SkipPolicy.NEVER) {
 			log.info("");
 			return builder.build();
@@ -153,6 +370,10 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 		ftStep.retryPolicy(retryPolicy());
 		ftStep.skipLimit(stepArgs.getSkipLimit());
 		ftStep.skipPolicy(skipPolicy());
+		if (metrics != null) {
+			ftStep.listener((SkipListener<Object, Object>) metrics);
+			ftStep.listener((RetryListener) metrics);
+		}
 		return ftStep.build();
 	}
 
@@ -179,27 +400,53 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 	}
 
 	@SuppressWarnings("removal")
-	private <I, O> SimpleStepBuilder<I, O> simpleStep(Step<I, O> step) {
-		String name = jobName + "-" + step.getName();
+	private <I, O> SimpleStepBuilder<I, O> simpleStep(Step<I, O> step, String name, int threads,
+			ProgressStepExecutionListener<?, ?> progressListener, StepMetrics metrics) {
 		if (step.getReader() instanceof ItemStreamSupport) {
 			ItemStreamSupport support = (ItemStreamSupport) step.getReader();
 			Assert.notNull(support.getName(), "No name specified for reader in step " + name);
 			support.setName(name + "-" + support.getName());
 		}
-		log.info("Creating step {} with chunk size {}", name, stepArgs.getChunkSize());
-		SimpleStepBuilder<I, O> builder = new StepBuilder(name, jobRepository).<I, O>chunk(stepArgs.getChunkSize(),
-				transactionManager);
-		builder.reader(reader(step));
+		if (isSaveState() && step.getReader() instanceof AbstractItemCountingItemStreamItemReader) {
+			// Reader state of a multi-threaded step can include items of uncommitted
+			// chunks, which would be skipped on restart
+			boolean saveState = threads <= 1;
+			((AbstractItemCountingItemStreamItemReader<?>) step.getReader()).setSaveState(saveState);
+			if (!saveState) {
+				log.warn("Not saving reader state of multi-threaded step {}, it will start over if resumed", name);
+			}
+		}
+		SimpleStepBuilder<I, O> builder;
+		if (stepArgs.isAutoChunkSize() && !step.isLive()) {
+			AdaptiveCompletionPolicy completionPolicy = new AdaptiveCompletionPolicy(StepArgs.DEFAULT_CHUNK_SIZE,
+					stepArgs.getMinChunkSize(), stepArgs.getMaxChunkSize());
+			log.info("Creating step {} with adaptive chunk size between {} and {}", name,
+					completionPolicy.getMinChunkSize(), completionPolicy.getMaxChunkSize());
+			builder = new StepBuilder(name, jobRepository).<I, O>chunk(completionPolicy, transactionManager);
+			builder.listener(completionPolicy);
+		} else {
+			int chunkSize = chunkSize();
+			log.info("Creating step {} with chunk size {}", name, chunkSize);
+			builder = new StepBuilder(name, jobRepository).<I, O>chunk(chunkSize, transactionManager);
+		}
+		builder.reader(reader(step, threads));
 		builder.writer(writer(step));
 		builder.processor(step.getProcessor());
-		builder.taskExecutor(taskExecutor());
-		builder.throttleLimit(stepArgs.getThreads());
+		builder.taskExecutor(taskExecutor(threads));
+		builder.throttleLimit(threads);
 		step.getExecutionListeners().forEach(builder::listener);
 		step.getWriteListeners().forEach(builder::listener);
-		if (shouldShowProgress()) {
-			ProgressStepExecutionListener<I, O> listener = new ProgressStepExecutionListener<>(step);
-			builder.listener((StepExecutionListener) listener);
-			builder.listener((ItemWriteListener<?>) listener);
+		if (progressListener != null) {
+			if (step.getPartitioner() == null) {
+				builder.listener((StepExecutionListener) progressListener);
+			}
+			builder.listener((ItemWriteListener<?>) progressListener);
+		}
+		if (metrics != null) {
+			builder.listener((ChunkListener) metrics);
+			builder.listener((ItemReadListener<Object>) metrics);
+			builder.listener((ItemProcessListener<Object, Object>) metrics);
+			builder.listener((ItemWriteListener<Object>) metrics);
 		}
 		if (step.isLive()) {
 			log.info("Creating flushing step with flush interval {} and idle timeout {}", step.getFlushInterval(),
@@ -212,20 +459,39 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 		return builder;
 	}
 
-	private TaskExecutor taskExecutor() {
-		if (stepArgs.getThreads() == 1) {
+	private int chunkSize() {
+		if (stepArgs.isAutoChunkSize()) {
+			log.info("Adaptive chunk size not supported in live mode, using default chunk size");
+			return StepArgs.DEFAULT_CHUNK_SIZE;
+		}
+		return stepArgs.getChunkSize();
+	}
+
+	private TaskExecutor taskExecutor(int threads) {
+		if (threads == 1) {
 			return new SyncTaskExecutor();
 		}
-		log.info("Creating thread-pool task executor of size {}", stepArgs.getThreads());
+		if (stepArgs.isVirtualThreads()) {
+			try {
+				SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor(jobName + "-");
+				taskExecutor.setVirtualThreads(true);
+				taskExecutor.setConcurrencyLimit(threads);
+				log.info("Creating virtual-thread task executor with concurrency limit {}", threads);
+				return taskExecutor;
+			} catch (UnsupportedOperationException e) {
+				log.warn("Virtual threads not supported by this JVM, falling back to thread pool");
+			}
+		}
+		log.info("Creating thread-pool task executor of size {}", threads);
 		ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
-		taskExecutor.setMaxPoolSize(stepArgs.getThreads());
-		taskExecutor.setCorePoolSize(stepArgs.getThreads());
+		taskExecutor.setMaxPoolSize(threads);
+		taskExecutor.setCorePoolSize(threads);
 		taskExecutor.initialize();
 		return taskExecutor;
 	}
 
-	private <I, O> ItemReader<? extends I> reader(Step<I, O> step) {
-		if (stepArgs.getThreads() == 1 || step.getReader() instanceof AbstractPollableItemReader) {
+	private <I, O> ItemReader<? extends I> reader(Step<I, O> step, int threads) {
+		if (threads == 1 || step.getReader() instanceof AbstractPollableItemReader) {
 			return step.getReader();
 		}
 		log.info("Synchronizing reader in step {}", step.getName());
@@ -242,11 +508,46 @@ public abstract class AbstractJobCommand extends AbstractCallableCommand {
 			log.info("Using no-op writer");
 			return new NoopItemWriter<>();
 		}
+		ItemWriter<O> writer = step.getWriter();
 		if (stepArgs.getSleep() > 0) {
 			log.info("Throttling writer with sleep {}", stepArgs.getSleep());
-			return new ThrottledItemWriter<>(step.getWriter(), stepArgs.getSleep());
+			writer = new ThrottledItemWriter<>(writer, stepArgs.getSleep());
 		}
-		return step.getWriter();
+		if (stepArgs.getRate() > 0 || stepArgs.getByteRate() != null) {
+			writer = rateLimitedWriter(step, writer);
+		}
+		return writer;
+	}
+
+	/**
+	 * Rate-limits the writer of the given step. Buckets are shared by all steps of
+	 * the job so that the rate holds across concurrent steps.
+	 */
+	private <O> RateLimitedItemWriter<O> rateLimitedWriter(Step<?, O> step, ItemWriter<O> writer) {
+		RateLimitedItemWriter<O> rateLimitedWriter = new RateLimitedItemWriter<>(writer);
+		if (stepArgs.getRate() > 0) {
+			if (itemBucket == null) {
+				log.info("Limiting write rate to {} items/s", stepArgs.getRate());
+				itemBucket = tokenBucket(stepArgs.getRate());
+			}
+			rateLimitedWriter.setItemBucket(itemBucket);
+		}
+		if (stepArgs.getByteRate() != null) {
+			if (byteBucket == null) {
+				log.info("Limiting write rate to {}/s", stepArgs.getByteRate());
+				byteBucket = tokenBucket(stepArgs.getByteRate().toBytes());
+			}
+			rateLimitedWriter.setByteBucket(byteBucket);
+			if (step.getByteSizeFunction() != null) {
+				rateLimitedWriter.setByteSizeFunction(step.getByteSizeFunction());
+			}
+		}
+		return rateLimitedWriter;
+	}
+
+	private TokenBucket tokenBucket(long rate) {
+		double capacity = Math.max(1, rate * stepArgs.getBurst() / 1000d);
+		return new TokenBucket(rate, capacity);
 	}
 
 	public String getJobName() {
@@ -0,0 +1,163 @@
+package com.redis.riot.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+import org.springframework.util.Assert;
+
+/**
+ * Completion policy that adjusts the chunk size from observed throughput.
+ * Every {@code window} chunks the end-to-end throughput (items written per
+ * second of wall-clock time since the previous window, including reads and
+ * processing) is compared with the previous window: the chunk size keeps
+ * moving in the same direction while throughput does not degrade, and reverses
+ * direction otherwise.
+ * <p>
+ * The chunk size is changed by writer threads and read by the threads
+ * completing chunks, so it is kept in a volatile field rather than in the
+ * superclass.
+ */
+public class AdaptiveCompletionPolicy extends SimpleCompletionPolicy implements ItemWriteListener<Object> {
+
+	public static final int DEFAULT_WINDOW = 5;
+	public static final double DEFAULT_TOLERANCE = .05;
+	public static final double DEFAULT_FACTOR = 1.5;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final int minChunkSize;
+	private final int maxChunkSize;
+	private int window = DEFAULT_WINDOW;
+	private double tolerance = DEFAULT_TOLERANCE;
+	private double factor = DEFAULT_FACTOR;
+
+	private volatile int chunkSize;
+	private boolean started;
+	private long windowStart;
+	private int chunks;
+	private long items;
+	private double lastThroughput;
+	private boolean growing = true;
+
+	public AdaptiveCompletionPolicy(int initialChunkSize, int minChunkSize, int maxChunkSize) {
+		Assert.isTrue(minChunkSize > 0, "Min chunk size must be greater than 0");
+		Assert.isTrue(maxChunkSize >= minChunkSize, "Max chunk size must be greater than or equal to min chunk size");
+		this.minChunkSize = minChunkSize;
+		this.maxChunkSize = maxChunkSize;
+		setChunkSize(clamp(initialChunkSize));
+	}
+
+	private int clamp(int chunkSize) {
+		return Math.max(minChunkSize, Math.min(maxChunkSize, chunkSize));
+	}
+
+	@Override
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	@Override
+	public RepeatContext start(RepeatContext context) {
+		start(System.nanoTime());
+		return super.start(context);
+	}
+
+	@Override
+	public boolean isComplete(RepeatContext context) {
+		return context.getStartedCount() >= chunkSize;
+	}
+
+	@Override
+	public boolean isComplete(RepeatContext context, RepeatStatus result) {
+		return result == null || !result.isContinuable() || isComplete(context);
+	}
+
+	@Override
+	public void afterWrite(Chunk<? extends Object> items) {
+		update(items.size(), System.nanoTime());
+	}
+
+	/**
+	 *
+	 * @param time start time in nanoseconds of a chunk, the first one starts the
+	 *             first window
+	 */
+	synchronized void start(long time) {
+		if (!started) {
+			started = true;
+			windowStart = time;
+		}
+	}
+
+	/**
+	 *
+	 * @param count number of items written
+	 * @param time  time in nanoseconds at which the items were written
+	 */
+	public synchronized void update(int count, long time) {
+		start(time);
+		chunks++;
+		items += count;
+		if (chunks < window) {
+			return;
+		}
+		long nanos = Math.max(time - windowStart, 1);
+		double throughput = items * 1e9 / nanos;
+		double latency = nanos / 1e6 / chunks;
+		windowStart = time;
+		chunks = 0;
+		items = 0;
+		if (lastThroughput > 0 && throughput < lastThroughput * (1 - tolerance)) {
+			growing = !growing;
+		}
+		lastThroughput = throughput;
+		int newChunkSize = clamp(growing ? (int) Math.ceil(chunkSize * factor) : (int) (chunkSize / factor));
+		if (newChunkSize != chunkSize) {
+			log.info("Changing chunk size from {} to {} (throughput: {} items/s, {} ms per chunk)", chunkSize,
+					newChunkSize, String.format("%,.0f", throughput), String.format("%.1f", latency));
+			setChunkSize(newChunkSize);
+		}
+	}
+
+	public int getMinChunkSize() {
+		return minChunkSize;
+	}
+
+	public int getMaxChunkSize() {
+		return maxChunkSize;
+	}
+
+	public int getWindow() {
+		return window;
+	}
+
+	public void setWindow(int window) {
+		this.window = window;
+	}
+
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	public double getFactor() {
+		return factor;
+	}
+
+	public void setFactor(double factor) {
+		this.factor = factor;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.redis.riot.core;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cheap estimate of the number of bytes an item represents on the wire.
+ */
+public class ByteSizeEstimator implements ToLongFunction<Object> {
+
+	private static final int NUMBER_SIZE = 8;
+
+	@Override
+	public long applyAsLong(Object value) {
+		if (value == null) {
+			return 0;
+		}
+		if (value instanceof byte[]) {
+			return ((byte[]) value).length;
+		}
+		if (value instanceof CharSequence) {
+			return ((CharSequence) value).length();
+		}
+		if (value instanceof Number) {
+			return NUMBER_SIZE;
+		}
+		if (value instanceof Map) {
+			long size = 0;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				size += applyAsLong(entry.getKey()) + applyAsLong(entry.getValue());
+			}
+			return size;
+		}
+		if (value instanceof Collection) {
+			long size = 0;
+			for (Object element : (Collection<?>) value) {
+				size += applyAsLong(element);
+			}
+			return size;
+		}
+		if (value instanceof Object[]) {
+			long size = 0;
+			for (Object element : (Object[]) value) {
+				size += applyAsLong(element);
+			}
+			return size;
+		}
+		return String.valueOf(value).length();
+	}
+
+}
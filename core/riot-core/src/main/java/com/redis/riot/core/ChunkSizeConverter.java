@@ -0,0 +1,17 @@
+package com.redis.riot.core;
+
+import picocli.CommandLine.ITypeConverter;
+
+public class ChunkSizeConverter implements ITypeConverter<Integer> {
+
+	public static final String AUTO = "auto";
+
+	@Override
+	public Integer convert(String value) {
+		if (AUTO.equalsIgnoreCase(value.trim())) {
+			return StepArgs.AUTO_CHUNK_SIZE;
+		}
+		return Integer.parseInt(value.trim());
+	}
+
+}
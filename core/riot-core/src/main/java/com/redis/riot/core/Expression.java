@@ -1,14 +1,25 @@
 package com.redis.riot.core;
 
+import java.util.Locale;
 import java.util.function.Predicate;
 
+import org.springframework.core.SpringProperties;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 
 public class Expression {
 
-	protected static final SpelExpressionParser PARSER = new SpelExpressionParser();
+	/**
+	 * Expressions are compiled to bytecode once they have been evaluated a few
+	 * times, and fall back to interpretation if compiled evaluation fails. Can be
+	 * overridden with the {@code spring.expression.compiler.mode} system property.
+	 */
+	public static final SpelCompilerMode DEFAULT_COMPILER_MODE = SpelCompilerMode.MIXED;
+
+	protected static final SpelExpressionParser PARSER = parser(compilerMode());
 
 	protected final org.springframework.expression.Expression spelExpression;
 
@@ -41,6 +52,19 @@ public class Expression {
 		return spelExpression.getValue(context, rootObject, String.class);
 	}
 
+	public static SpelCompilerMode compilerMode() {
+		String mode = SpringProperties
+				.getProperty(SpelParserConfiguration.SPRING_EXPRESSION_COMPILER_MODE_PROPERTY_NAME);
+		if (mode == null) {
+			return DEFAULT_COMPILER_MODE;
+		}
+		return SpelCompilerMode.valueOf(mode.toUpperCase(Locale.ROOT));
+	}
+
+	public static SpelExpressionParser parser(SpelCompilerMode compilerMode) {
+		return new SpelExpressionParser(new SpelParserConfiguration(compilerMode, Expression.class.getClassLoader()));
+	}
+
 	public static Expression parse(String expression) {
 		return new Expression(PARSER.parseExpression(expression));
 	}
@@ -0,0 +1,47 @@
+package com.redis.riot.core;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import picocli.CommandLine.Option;
+
+public class JobRepositoryArgs {
+
+	public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("user.home"), ".riot");
+
+	@Option(names = "--job-repo", description = "Directory where job and reader state is persisted so that jobs can be resumed (default: ~/.riot when --resume is set).", paramLabel = "<dir>")
+	private Path directory;
+
+	@Option(names = "--resume", description = "Resume the last failed or interrupted execution of this job from its last committed chunk.")
+	private boolean resume;
+
+	public boolean isPersistent() {
+		return directory != null || resume;
+	}
+
+	public Path directory() {
+		return directory == null ? DEFAULT_DIRECTORY : directory;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(Path directory) {
+		this.directory = directory;
+	}
+
+	public boolean isResume() {
+		return resume;
+	}
+
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	@Override
+	public String toString() {
+		return "JobRepositoryArgs [directory=" + directory + ", resume=" + resume + "]";
+	}
+
+}
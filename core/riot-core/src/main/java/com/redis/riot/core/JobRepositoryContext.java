@@ -0,0 +1,159 @@
+package com.redis.riot.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hsqldb.jdbc.JDBCPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Job repository backed by an HSQLDB database stored in a local directory, so
+ * that job and step execution contexts (including reader state) survive the
+ * process and failed or interrupted jobs can be restarted.
+ */
+public class JobRepositoryContext implements AutoCloseable {
+
+	private static final String SCHEMA = "org/springframework/batch/core/schema-hsqldb.sql";
+	private static final int INSTANCE_PAGE_SIZE = 100;
+	private static final String TABLE_QUERY = "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'BATCH_JOB_INSTANCE'";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final JDBCPool dataSource;
+	private final PlatformTransactionManager transactionManager;
+	private final JobRepository jobRepository;
+	private final JobExplorer jobExplorer;
+
+	private JobRepositoryContext(JDBCPool dataSource) throws Exception {
+		this.dataSource = dataSource;
+		this.transactionManager = new JdbcTransactionManager(dataSource);
+		initializeSchema(dataSource);
+		JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+		repositoryFactory.setDataSource(dataSource);
+		repositoryFactory.setTransactionManager(transactionManager);
+		repositoryFactory.setDatabaseType("HSQL");
+		repositoryFactory.afterPropertiesSet();
+		this.jobRepository = repositoryFactory.getObject();
+		JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+		explorerFactory.setDataSource(dataSource);
+		explorerFactory.setTransactionManager(transactionManager);
+		explorerFactory.afterPropertiesSet();
+		this.jobExplorer = explorerFactory.getObject();
+	}
+
+	public static JobRepositoryContext create(Path directory, String name) throws Exception {
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Could not create job repository directory " + directory, e);
+		}
+		JDBCPool dataSource = new JDBCPool();
+		dataSource.setUrl("jdbc:hsqldb:file:" + directory.resolve(name).toAbsolutePath() + ";hsqldb.tx=mvcc");
+		dataSource.setUser("SA");
+		dataSource.setPassword("");
+		return new JobRepositoryContext(dataSource);
+	}
+
+	private void initializeSchema(DataSource dataSource) {
+		Integer count = new JdbcTemplate(dataSource).queryForObject(TABLE_QUERY, Integer.class);
+		if (count == null || count == 0) {
+			log.info("Creating job repository schema");
+			DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(new ClassPathResource(SCHEMA)), dataSource);
+		}
+	}
+
+	/**
+	 *
+	 * @param jobName           name of the job to resume
+	 * @param identityParameter name of the job parameter identifying the inputs
+	 *                          and options of the job
+	 * @param identity          value of that parameter for the job to resume
+	 * @return last execution of the most recent instance of the given job with
+	 *         the same identity if it did not complete, null otherwise.
+	 *         Executions left running by a process that died are marked as
+	 *         failed so that they can be restarted.
+	 */
+	public JobExecution restartableExecution(String jobName, String identityParameter, String identity) {
+		JobExecution execution = lastExecution(jobName, identityParameter, identity);
+		if (execution == null || execution.getStatus() == BatchStatus.COMPLETED
+				|| execution.getStatus() == BatchStatus.ABANDONED) {
+			return null;
+		}
+		if (execution.isRunning()) {
+			log.info("Marking interrupted job execution {} as failed", execution.getId());
+			LocalDateTime now = LocalDateTime.now();
+			for (StepExecution stepExecution : execution.getStepExecutions()) {
+				if (stepExecution.getStatus().isRunning()) {
+					stepExecution.setStatus(BatchStatus.FAILED);
+					stepExecution.setExitStatus(ExitStatus.FAILED);
+					stepExecution.setEndTime(now);
+					jobRepository.update(stepExecution);
+				}
+			}
+			execution.setStatus(BatchStatus.FAILED);
+			execution.setExitStatus(ExitStatus.FAILED);
+			execution.setEndTime(now);
+			jobRepository.update(execution);
+		}
+		return execution;
+	}
+
+	private JobExecution lastExecution(String jobName, String identityParameter, String identity) {
+		for (int start = 0;; start += INSTANCE_PAGE_SIZE) {
+			List<JobInstance> instances = jobExplorer.getJobInstances(jobName, start, INSTANCE_PAGE_SIZE);
+			for (JobInstance instance : instances) {
+				JobExecution execution = jobExplorer.getLastJobExecution(instance);
+				if (execution != null
+						&& identity.equals(execution.getJobParameters().getString(identityParameter))) {
+					return execution;
+				}
+			}
+			if (instances.size() < INSTANCE_PAGE_SIZE) {
+				return null;
+			}
+		}
+	}
+
+	public JobRepository getJobRepository() {
+		return jobRepository;
+	}
+
+	public JobExplorer getJobExplorer() {
+		return jobExplorer;
+	}
+
+	public PlatformTransactionManager getTransactionManager() {
+		return transactionManager;
+	}
+
+	@Override
+	public void close() throws Exception {
+		try {
+			new JdbcTemplate(dataSource).execute("SHUTDOWN");
+		} finally {
+			dataSource.close(0);
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.redis.riot.core;
+
+import java.nio.file.Path;
+
+import picocli.CommandLine.Option;
+
+public class MetricsArgs {
+
+	public static final long DEFAULT_INTERVAL = 10000;
+
+	@Option(names = "--metrics-jmx", description = "Expose step metrics as JMX MBeans.")
+	private boolean jmx;
+
+	@Option(names = "--metrics-file", description = "File to periodically write step metrics to in Prometheus text format.", paramLabel = "<file>")
+	private Path file;
+
+	@Option(names = "--metrics-interval", description = "Metrics file update interval in millis (default: ${DEFAULT-VALUE}).", paramLabel = "<ms>")
+	private long interval = DEFAULT_INTERVAL;
+
+	public boolean isEnabled() {
+		return jmx || file != null;
+	}
+
+	public boolean isJmx() {
+		return jmx;
+	}
+
+	public void setJmx(boolean jmx) {
+		this.jmx = jmx;
+	}
+
+	public Path getFile() {
+		return file;
+	}
+
+	public void setFile(Path file) {
+		this.file = file;
+	}
+
+	public long getInterval() {
+		return interval;
+	}
+
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+	@Override
+	public String toString() {
+		return "MetricsArgs [jmx=" + jmx + ", file=" + file + ", interval=" + interval + "]";
+	}
+
+}
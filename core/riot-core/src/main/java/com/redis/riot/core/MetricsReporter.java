@@ -0,0 +1,174 @@
+package com.redis.riot.core;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.redis.riot.core.StepMetrics.Stage;
+
+/**
+ * Publishes {@link StepMetrics} as JMX MBeans and/or periodically writes them to
+ * a file in Prometheus text exposition format, e.g. for the node_exporter
+ * textfile collector.
+ */
+public class MetricsReporter implements AutoCloseable {
+
+	public static final String JMX_DOMAIN = "com.redis.riot";
+
+	private static final double[] QUANTILES = { .5, .99, .999 };
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final MetricsArgs args;
+	private final List<StepMetrics> metrics = new ArrayList<>();
+	private final List<ObjectName> objectNames = new ArrayList<>();
+	private ScheduledExecutorService executor;
+
+	public MetricsReporter(MetricsArgs args) {
+		this.args = args;
+	}
+
+	public synchronized void add(StepMetrics stepMetrics) {
+		metrics.add(stepMetrics);
+		if (args.isJmx()) {
+			try {
+				ObjectName objectName = new ObjectName(JMX_DOMAIN, "step", ObjectName.quote(stepMetrics.getName()));
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				server.registerMBean(stepMetrics, objectName);
+				objectNames.add(objectName);
+			} catch (JMException e) {
+				log.warn("Could not register MBean for step {}", stepMetrics.getName(), e);
+			}
+		}
+	}
+
+	public void start() {
+		if (args.getFile() == null) {
+			return;
+		}
+		log.info("Writing metrics to {} every {} ms", args.getFile(), args.getInterval());
+		executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "riot-metrics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleAtFixedRate(this::write, args.getInterval(), args.getInterval(), TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+			write();
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName objectName : objectNames) {
+			try {
+				server.unregisterMBean(objectName);
+			} catch (JMException e) {
+				log.debug("Could not unregister MBean {}", objectName, e);
+			}
+		}
+		objectNames.clear();
+		metrics.forEach(StepMetrics::stop);
+	}
+
+	private synchronized void write() {
+		Path file = args.getFile();
+		Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			Files.write(tempFile, format().getBytes(StandardCharsets.UTF_8));
+			try {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			log.warn("Could not write metrics file {}", file, e);
+		}
+	}
+
+	public synchronized String format() {
+		StringBuilder out = new StringBuilder();
+		out.append("# HELP riot_items_total Number of items handled by each step stage.\n");
+		out.append("# TYPE riot_items_total counter\n");
+		for (StepMetrics step : metrics) {
+			sample(out, "riot_items_total", step, "stage=\"read\"", step.getReadCount());
+			sample(out, "riot_items_total", step, "stage=\"process\"", step.getProcessCount());
+			sample(out, "riot_items_total", step, "stage=\"filter\"", step.getFilterCount());
+			sample(out, "riot_items_total", step, "stage=\"write\"", step.getWriteCount());
+		}
+		out.append("# HELP riot_skips_total Number of items skipped by each step stage.\n");
+		out.append("# TYPE riot_skips_total counter\n");
+		for (StepMetrics step : metrics) {
+			sample(out, "riot_skips_total", step, "stage=\"read\"", step.getReadSkipCount());
+			sample(out, "riot_skips_total", step, "stage=\"process\"", step.getProcessSkipCount());
+			sample(out, "riot_skips_total", step, "stage=\"write\"", step.getWriteSkipCount());
+		}
+		out.append("# HELP riot_retries_total Number of failed attempts that were retried or exhausted retries.\n");
+		out.append("# TYPE riot_retries_total counter\n");
+		for (StepMetrics step : metrics) {
+			sample(out, "riot_retries_total", step, null, step.getRetryCount());
+		}
+		out.append("# HELP riot_latency_seconds Latency of item reads/processing, chunk writes, and whole chunks.\n");
+		out.append("# TYPE riot_latency_seconds summary\n");
+		for (StepMetrics step : metrics) {
+			for (Stage stage : Stage.values()) {
+				Histogram histogram = step.histogram(stage);
+				String stageLabel = "stage=\"" + stage.name().toLowerCase(Locale.ROOT) + "\"";
+				for (double quantile : QUANTILES) {
+					double seconds = histogram.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND;
+					String labels = stageLabel + ",quantile=\"" + quantile + "\"";
+					sample(out, "riot_latency_seconds", step, labels, seconds);
+				}
+				sample(out, "riot_latency_seconds_count", step, stageLabel, histogram.getTotalCount());
+			}
+		}
+		out.append("# HELP riot_gauge Point-in-time step values, e.g. reader queue sizes.\n");
+		out.append("# TYPE riot_gauge gauge\n");
+		for (StepMetrics step : metrics) {
+			step.getGauges().forEach(
+					(name, value) -> sample(out, "riot_gauge", step, "name=\"" + escape(name) + "\"", value));
+		}
+		return out.toString();
+	}
+
+	private void sample(StringBuilder out, String metric, StepMetrics step, String labels, Object value) {
+		out.append(metric);
+		out.append("{step=\"");
+		out.append(escape(step.getName()));
+		out.append("\"");
+		if (labels != null) {
+			out.append(",");
+			out.append(labels);
+		}
+		out.append("} ");
+		out.append(value);
+		out.append('\n');
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.redis.riot.core;
+
+import java.util.function.Function;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.util.Assert;
+
+/**
+ * Reader shared by all partitions of a partitioned step. Each partition opens
+ * its own delegate from the partition execution context, confined to the thread
+ * executing that partition.
+ */
+public class PartitionItemReader<T> implements ItemStreamReader<T> {
+
+	private final Function<ExecutionContext, ItemStreamReader<T>> factory;
+	private final ThreadLocal<ItemStreamReader<T>> delegate = new ThreadLocal<>();
+
+	public PartitionItemReader(Function<ExecutionContext, ItemStreamReader<T>> factory) {
+		Assert.notNull(factory, "Reader factory must not be null");
+		this.factory = factory;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		ItemStreamReader<T> reader = factory.apply(executionContext);
+		reader.open(executionContext);
+		delegate.set(reader);
+	}
+
+	@Override
+	public T read() throws Exception {
+		ItemStreamReader<T> reader = delegate.get();
+		Assert.state(reader != null, "Partition reader not opened");
+		return reader.read();
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		ItemStreamReader<T> reader = delegate.get();
+		if (reader != null) {
+			reader.update(executionContext);
+		}
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		ItemStreamReader<T> reader = delegate.get();
+		if (reader != null) {
+			try {
+				reader.close();
+			} finally {
+				delegate.remove();
+			}
+		}
+	}
+
+}
@@ -1,5 +1,8 @@
 package com.redis.riot.core;
 
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.ExitStatus;
@@ -14,7 +17,10 @@ import me.tongfei.progressbar.ProgressBarBuilder;
 import me.tongfei.progressbar.ProgressBarStyle;
 
 /**
- * Listener tracking writer or step progress with by a progress bar.
+ * Listener tracking writer or step progress with by a progress bar. A single
+ * listener can be shared by several steps running concurrently, in which case
+ * the bar is created by the first step to start and closed once all steps have
+ * completed.
  * 
  * @author Julien Ruaux
  * @since 3.1.2
@@ -22,20 +28,41 @@ import me.tongfei.progressbar.ProgressBarStyle;
 @SuppressWarnings("rawtypes")
 public class ProgressStepExecutionListener<I, O> implements StepExecutionListener, ItemWriteListener {
 
-	private final Step<I, O> step;
+	private final String taskName;
+	private final LongSupplier maxItemCountSupplier;
+	private final Supplier<String> statusMessageSupplier;
+	private int remainingSteps;
 
 	private ProgressArgs progressArgs = new ProgressArgs();
 
-	private ProgressBar progressBar;
+	private volatile ProgressBar progressBar;
 
 	public ProgressStepExecutionListener(Step<I, O> step) {
-		this.step = step;
+		this(step.getTaskName(), step::maxItemCount, step::statusMessage, 1);
+	}
+
+	/**
+	 * 
+	 * @param taskName              name displayed with the progress bar
+	 * @param maxItemCountSupplier  total number of items, or -1 if unknown
+	 * @param statusMessageSupplier extra message displayed after each write
+	 * @param steps                 number of steps sharing this listener
+	 */
+	public ProgressStepExecutionListener(String taskName, LongSupplier maxItemCountSupplier,
+			Supplier<String> statusMessageSupplier, int steps) {
+		this.taskName = taskName;
+		this.maxItemCountSupplier = maxItemCountSupplier;
+		this.statusMessageSupplier = statusMessageSupplier;
+		this.remainingSteps = steps;
 	}
 
 	@Override
-	public void beforeStep(StepExecution stepExecution) {
+	public synchronized void beforeStep(StepExecution stepExecution) {
+		if (progressBar != null) {
+			return;
+		}
 		ProgressBarBuilder progressBarBuilder = new ProgressBarBuilder();
-		progressBarBuilder.setTaskName(step.getTaskName());
+		progressBarBuilder.setTaskName(taskName);
 		progressBarBuilder.setStyle(progressBarStyle());
 		progressBarBuilder.setUpdateIntervalMillis(Math.toIntExact(progressArgs.getUpdateInterval()));
 		progressBarBuilder.showSpeed();
@@ -43,7 +70,7 @@ public class ProgressStepExecutionListener<I, O> implements StepExecutionListene
 			Logger logger = LoggerFactory.getLogger(getClass());
 			progressBarBuilder.setConsumer(new DelegatingProgressBarConsumer(logger::info));
 		}
-		progressBarBuilder.setInitialMax(step.maxItemCount());
+		progressBarBuilder.setInitialMax(maxItemCountSupplier.getAsLong());
 		this.progressBar = progressBarBuilder.build();
 	}
 
@@ -60,14 +87,18 @@ public class ProgressStepExecutionListener<I, O> implements StepExecutionListene
 
 	@Override
 	public void afterWrite(Chunk items) {
-		if (progressBar != null) {
-			progressBar.stepBy(items.size());
-			progressBar.setExtraMessage(step.statusMessage());
+		ProgressBar bar = progressBar;
+		if (bar != null) {
+			bar.stepBy(items.size());
+			bar.setExtraMessage(statusMessageSupplier.get());
 		}
 	}
 
 	@Override
-	public ExitStatus afterStep(StepExecution stepExecution) {
+	public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+		if (--remainingSteps > 0) {
+			return stepExecution.getExitStatus();
+		}
 		if (progressBar != null) {
 			if (!stepExecution.getStatus().isUnsuccessful()) {
 				progressBar.stepTo(progressBar.getMax());
@@ -1,14 +1,17 @@
 package com.redis.riot.core;
 
+import java.util.Map;
+
 import org.springframework.context.expression.MapAccessor;
-import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.TypedValue;
 import org.springframework.lang.Nullable;
 
 /**
  * {@link org.springframework.context.expression.MapAccessor} that always
- * returns true for canRead and does not throw AccessExceptions
+ * returns true for canRead and returns null for missing keys instead of
+ * throwing AccessExceptions. This matches the bytecode generated by
+ * {@link MapAccessor#generateCode}, so map property reads stay compilable.
  */
 public class QuietMapAccessor extends MapAccessor {
 
@@ -19,11 +22,10 @@ public class QuietMapAccessor extends MapAccessor {
 
 	@Override
 	public TypedValue read(EvaluationContext context, @Nullable Object target, String name) {
-		try {
-			return super.read(context, target, name);
-		} catch (AccessException e) {
-			return new TypedValue(null);
+		if (target instanceof Map) {
+			return new TypedValue(((Map<?, ?>) target).get(name));
 		}
+		return TypedValue.NULL;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.redis.riot.core;
+
+import java.util.function.ToLongFunction;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+
+/**
+ * Writer that waits for permits from token buckets before delegating each
+ * chunk. Buckets can be shared by all threads of a step to enforce a global
+ * rate.
+ */
+public class RateLimitedItemWriter<T> implements ItemStreamWriter<T> {
+
+	private final ItemWriter<T> delegate;
+	private TokenBucket itemBucket;
+	private TokenBucket byteBucket;
+	private ToLongFunction<? super T> byteSizeFunction = new ByteSizeEstimator();
+
+	public RateLimitedItemWriter(ItemWriter<T> delegate) {
+		Assert.notNull(delegate, "Delegate must not be null");
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).open(executionContext);
+		}
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).update(executionContext);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (delegate instanceof ItemStream) {
+			((ItemStream) delegate).close();
+		}
+	}
+
+	@Override
+	public void write(Chunk<? extends T> items) throws Exception {
+		if (itemBucket != null) {
+			itemBucket.acquire(items.size());
+		}
+		if (byteBucket != null) {
+			long bytes = 0;
+			for (T item : items) {
+				bytes += byteSizeFunction.applyAsLong(item);
+			}
+			byteBucket.acquire(bytes);
+		}
+		delegate.write(items);
+	}
+
+	public TokenBucket getItemBucket() {
+		return itemBucket;
+	}
+
+	public void setItemBucket(TokenBucket bucket) {
+		this.itemBucket = bucket;
+	}
+
+	public TokenBucket getByteBucket() {
+		return byteBucket;
+	}
+
+	public void setByteBucket(TokenBucket bucket) {
+		this.byteBucket = bucket;
+	}
+
+	public void setByteSizeFunction(ToLongFunction<? super T> function) {
+		this.byteSizeFunction = function;
+	}
+
+}
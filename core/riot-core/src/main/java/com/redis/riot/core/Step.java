@@ -3,14 +3,18 @@ package com.redis.riot.core;
 import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 import org.springframework.batch.core.ItemReadListener;
 import org.springframework.batch.core.ItemWriteListener;
 import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
@@ -39,6 +43,9 @@ public class Step<I, O> {
 	private Collection<Class<? extends Throwable>> noSkip = new HashSet<>();
 	private Collection<Class<? extends Throwable>> retry = new HashSet<>();
 	private Collection<Class<? extends Throwable>> noRetry = new HashSet<>();
+	private Partitioner partitioner;
+	private ToLongFunction<? super O> byteSizeFunction;
+	private Map<String, LongSupplier> gauges = new LinkedHashMap<>();
 
 	public Step(String name, ItemReader<I> reader, ItemWriter<O> writer) {
 		this.name = name;
@@ -180,6 +187,52 @@ public class Step<I, O> {
 		return this;
 	}
 
+	public Partitioner getPartitioner() {
+		return partitioner;
+	}
+
+	/**
+	 * 
+	 * @param partitioner splits the input into partitions, each read by its own
+	 *                    worker. The step reader is then opened once per
+	 *                    partition with the partition execution context.
+	 * @return this step
+	 */
+	public Step<I, O> partitioner(Partitioner partitioner) {
+		this.partitioner = partitioner;
+		return this;
+	}
+
+	public ToLongFunction<? super O> getByteSizeFunction() {
+		return byteSizeFunction;
+	}
+
+	/**
+	 * 
+	 * @param function estimates the number of bytes written for an item. Used
+	 *                 for byte rate limiting.
+	 * @return this step
+	 */
+	public Step<I, O> byteSizeFunction(ToLongFunction<? super O> function) {
+		this.byteSizeFunction = function;
+		return this;
+	}
+
+	public Map<String, LongSupplier> getGauges() {
+		return gauges;
+	}
+
+	/**
+	 * 
+	 * @param name     gauge name, e.g. a queue size
+	 * @param supplier current value of the gauge
+	 * @return this step
+	 */
+	public Step<I, O> gauge(String name, LongSupplier supplier) {
+		gauges.put(name, supplier);
+		return this;
+	}
+
 	public Collection<Class<? extends Throwable>> getNoRetry() {
 		return noRetry;
 	}
@@ -203,7 +256,7 @@ public class Step<I, O> {
 				+ ", processor=" + processor + ", executionListeners=" + executionListeners + ", readListeners="
 				+ readListeners + ", writeListeners=" + writeListeners + ", live=" + live + ", flushInterval="
 				+ flushInterval + ", idleTimeout=" + idleTimeout + ", skip=" + skip + ", noSkip=" + noSkip + ", retry="
-				+ retry + ", noRetry=" + noRetry + "]";
+				+ retry + ", noRetry=" + noRetry + ", partitioner=" + partitioner + "]";
 	}
 	
 	
@@ -1,6 +1,7 @@
 package com.redis.riot.core;
 
 import org.springframework.retry.policy.MaxAttemptsRetryPolicy;
+import org.springframework.util.unit.DataSize;
 
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Option;
@@ -8,20 +9,42 @@ import picocli.CommandLine.Option;
 public class StepArgs {
 
 	public static final int DEFAULT_CHUNK_SIZE = 50;
+	public static final int AUTO_CHUNK_SIZE = 0;
+	public static final int DEFAULT_MIN_CHUNK_SIZE = 10;
+	public static final int DEFAULT_MAX_CHUNK_SIZE = 5000;
 	public static final int DEFAULT_THREADS = 1;
 	public static final RetryPolicy DEFAULT_RETRY_POLICY = RetryPolicy.NEVER;
 	public static final SkipPolicy DEFAULT_SKIP_POLICY = SkipPolicy.NEVER;
 	public static final int DEFAULT_RETRY_LIMIT = MaxAttemptsRetryPolicy.DEFAULT_MAX_ATTEMPTS;
+	public static final long DEFAULT_BURST = 1000;
 
 	@Option(names = "--sleep", description = "Duration in millis to wait after each batch write (default: no sleep).", paramLabel = "<ms>")
 	private long sleep;
 
+	@Option(names = "--rate", description = "Max number of items written per second across all threads (default: no limit).", paramLabel = "<ops/s>")
+	private long rate;
+
+	@Option(names = "--byte-rate", description = "Max number of bytes written per second across all threads, e.g. 10MB (default: no limit).", paramLabel = "<size>")
+	private DataSize byteRate;
+
+	@Option(names = "--burst", description = "Burst allowance for rate limits, as a duration in millis of unused rate (default: ${DEFAULT-VALUE}).", paramLabel = "<ms>")
+	private long burst = DEFAULT_BURST;
+
 	@Option(names = "--threads", description = "Number of concurrent threads to use for batch processing (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
 	private int threads = DEFAULT_THREADS;
 
-	@Option(names = "--batch", description = "Number of items in each batch (default: ${DEFAULT-VALUE}).", paramLabel = "<size>")
+	@Option(names = "--virtual-threads", description = "Run concurrent batches on virtual threads instead of a thread pool. Falls back to a thread pool if not supported by the JVM.")
+	private boolean virtualThreads;
+
+	@Option(names = "--batch", description = "Number of items in each batch, or 'auto' to adjust it from write latency (default: ${DEFAULT-VALUE}).", paramLabel = "<size>", converter = ChunkSizeConverter.class)
 	private int chunkSize = DEFAULT_CHUNK_SIZE;
 
+	@Option(names = "--batch-min", description = "Min number of items in each batch with '--batch auto' (default: ${DEFAULT-VALUE}).", paramLabel = "<size>")
+	private int minChunkSize = DEFAULT_MIN_CHUNK_SIZE;
+
+	@Option(names = "--batch-max", description = "Max number of items in each batch with '--batch auto' (default: ${DEFAULT-VALUE}).", paramLabel = "<size>")
+	private int maxChunkSize = DEFAULT_MAX_CHUNK_SIZE;
+
 	@Option(names = "--dry-run", description = "Enable dummy writes.")
 	private boolean dryRun;
 
@@ -40,6 +63,12 @@ public class StepArgs {
 	@ArgGroup(exclusive = false)
 	private ProgressArgs progressArgs = new ProgressArgs();
 
+	@ArgGroup(exclusive = false)
+	private MetricsArgs metricsArgs = new MetricsArgs();
+
+	@ArgGroup(exclusive = false)
+	private JobRepositoryArgs jobRepositoryArgs = new JobRepositoryArgs();
+
 	public long getSleep() {
 		return sleep;
 	}
@@ -48,6 +77,30 @@ public class StepArgs {
 		this.sleep = sleep;
 	}
 
+	public long getRate() {
+		return rate;
+	}
+
+	public void setRate(long rate) {
+		this.rate = rate;
+	}
+
+	public DataSize getByteRate() {
+		return byteRate;
+	}
+
+	public void setByteRate(DataSize byteRate) {
+		this.byteRate = byteRate;
+	}
+
+	public long getBurst() {
+		return burst;
+	}
+
+	public void setBurst(long burst) {
+		this.burst = burst;
+	}
+
 	public int getThreads() {
 		return threads;
 	}
@@ -56,6 +109,14 @@ public class StepArgs {
 		this.threads = threads;
 	}
 
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
 	public int getChunkSize() {
 		return chunkSize;
 	}
@@ -64,6 +125,26 @@ public class StepArgs {
 		this.chunkSize = chunkSize;
 	}
 
+	public boolean isAutoChunkSize() {
+		return chunkSize == AUTO_CHUNK_SIZE;
+	}
+
+	public int getMinChunkSize() {
+		return minChunkSize;
+	}
+
+	public void setMinChunkSize(int minChunkSize) {
+		this.minChunkSize = minChunkSize;
+	}
+
+	public int getMaxChunkSize() {
+		return maxChunkSize;
+	}
+
+	public void setMaxChunkSize(int maxChunkSize) {
+		this.maxChunkSize = maxChunkSize;
+	}
+
 	public boolean isDryRun() {
 		return dryRun;
 	}
@@ -80,6 +161,22 @@ public class StepArgs {
 		this.progressArgs = args;
 	}
 
+	public MetricsArgs getMetricsArgs() {
+		return metricsArgs;
+	}
+
+	public void setMetricsArgs(MetricsArgs args) {
+		this.metricsArgs = args;
+	}
+
+	public JobRepositoryArgs getJobRepositoryArgs() {
+		return jobRepositoryArgs;
+	}
+
+	public void setJobRepositoryArgs(JobRepositoryArgs args) {
+		this.jobRepositoryArgs = args;
+	}
+
 	public int getSkipLimit() {
 		return skipLimit;
 	}
@@ -114,9 +211,12 @@ public class StepArgs {
 
 	@Override
 	public String toString() {
-		return "StepArgs [sleep=" + sleep + ", threads=" + threads + ", chunkSize=" + chunkSize + ", dryRun=" + dryRun
+		return "StepArgs [sleep=" + sleep + ", rate=" + rate + ", byteRate=" + byteRate + ", burst=" + burst
+				+ ", threads=" + threads + ", virtualThreads=" + virtualThreads + ", chunkSize=" + chunkSize
+				+ ", minChunkSize=" + minChunkSize + ", maxChunkSize=" + maxChunkSize + ", dryRun=" + dryRun
 				+ ", skipPolicy=" + skipPolicy + ", skipLimit=" + skipLimit + ", retryPolicy=" + retryPolicy
-				+ ", retryLimit=" + retryLimit + ", progressArgs=" + progressArgs + "]";
+				+ ", retryLimit=" + retryLimit + ", progressArgs=" + progressArgs + ", metricsArgs=" + metricsArgs
+				+ ", jobRepositoryArgs=" + jobRepositoryArgs + "]";
 	}
 
 }
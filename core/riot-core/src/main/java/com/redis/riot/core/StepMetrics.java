@@ -0,0 +1,310 @@
+package com.redis.riot.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.HdrHistogram.Histogram;
+import org.LatencyUtils.LatencyStats;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+
+/**
+ * Collects item counts, skips, retries and latencies of the read, process and
+ * write stages of a step. Registered as a listener on the step, and shared by
+ * all its threads and partitions.
+ */
+public class StepMetrics implements StepMetricsMXBean, ChunkListener, ItemReadListener<Object>,
+		ItemProcessListener<Object, Object>, ItemWriteListener<Object>, SkipListener<Object, Object>, RetryListener {
+
+	public enum Stage {
+		READ, PROCESS, WRITE, CHUNK
+	}
+
+	private static final double P50 = 50;
+	private static final double P99 = 99;
+	private static final double P999 = 99.9;
+
+	private final String name;
+	private final Map<Stage, Timer> timers = new LinkedHashMap<>();
+	private final Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+	private final LongAdder readCount = new LongAdder();
+	private final LongAdder processCount = new LongAdder();
+	private final LongAdder filterCount = new LongAdder();
+	private final LongAdder writeCount = new LongAdder();
+	private final LongAdder readSkipCount = new LongAdder();
+	private final LongAdder processSkipCount = new LongAdder();
+	private final LongAdder writeSkipCount = new LongAdder();
+	private final LongAdder retryCount = new LongAdder();
+
+	public StepMetrics(String name) {
+		this.name = name;
+		for (Stage stage : Stage.values()) {
+			timers.put(stage, new Timer());
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void gauge(String name, LongSupplier supplier) {
+		gauges.put(name, supplier);
+	}
+
+	@Override
+	public void beforeChunk(ChunkContext context) {
+		timers.get(Stage.CHUNK).start();
+	}
+
+	@Override
+	public void afterChunk(ChunkContext context) {
+		timers.get(Stage.CHUNK).stop();
+	}
+
+	@Override
+	public void afterChunkError(ChunkContext context) {
+		timers.get(Stage.CHUNK).cancel();
+	}
+
+	@Override
+	public void beforeRead() {
+		timers.get(Stage.READ).start();
+	}
+
+	@Override
+	public void afterRead(Object item) {
+		timers.get(Stage.READ).stop();
+		readCount.increment();
+	}
+
+	@Override
+	public void onReadError(Exception ex) {
+		timers.get(Stage.READ).cancel();
+	}
+
+	@Override
+	public void beforeProcess(Object item) {
+		timers.get(Stage.PROCESS).start();
+	}
+
+	@Override
+	public void afterProcess(Object item, Object result) {
+		timers.get(Stage.PROCESS).stop();
+		processCount.increment();
+		if (result == null) {
+			filterCount.increment();
+		}
+	}
+
+	@Override
+	public void onProcessError(Object item, Exception e) {
+		timers.get(Stage.PROCESS).cancel();
+	}
+
+	@Override
+	public void beforeWrite(Chunk<? extends Object> items) {
+		timers.get(Stage.WRITE).start();
+	}
+
+	@Override
+	public void afterWrite(Chunk<? extends Object> items) {
+		timers.get(Stage.WRITE).stop();
+		writeCount.add(items.size());
+	}
+
+	@Override
+	public void onWriteError(Exception exception, Chunk<? extends Object> items) {
+		timers.get(Stage.WRITE).cancel();
+	}
+
+	@Override
+	public void onSkipInRead(Throwable t) {
+		readSkipCount.increment();
+	}
+
+	@Override
+	public void onSkipInProcess(Object item, Throwable t) {
+		processSkipCount.increment();
+	}
+
+	@Override
+	public void onSkipInWrite(Object item, Throwable t) {
+		writeSkipCount.increment();
+	}
+
+	@Override
+	public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+			Throwable throwable) {
+		retryCount.increment();
+	}
+
+	/**
+	 *
+	 * @param stage step stage
+	 * @return latencies recorded so far for the given stage, in nanoseconds
+	 */
+	public Histogram histogram(Stage stage) {
+		return timers.get(stage).histogram();
+	}
+
+	public void stop() {
+		timers.values().forEach(Timer::close);
+	}
+
+	@Override
+	public long getReadCount() {
+		return readCount.sum();
+	}
+
+	@Override
+	public long getProcessCount() {
+		return processCount.sum();
+	}
+
+	@Override
+	public long getFilterCount() {
+		return filterCount.sum();
+	}
+
+	@Override
+	public long getWriteCount() {
+		return writeCount.sum();
+	}
+
+	@Override
+	public long getReadSkipCount() {
+		return readSkipCount.sum();
+	}
+
+	@Override
+	public long getProcessSkipCount() {
+		return processSkipCount.sum();
+	}
+
+	@Override
+	public long getWriteSkipCount() {
+		return writeSkipCount.sum();
+	}
+
+	@Override
+	public long getRetryCount() {
+		return retryCount.sum();
+	}
+
+	private double latency(Stage stage, double percentile) {
+		long nanos = histogram(stage).getValueAtPercentile(percentile);
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	@Override
+	public double getReadLatencyP50() {
+		return latency(Stage.READ, P50);
+	}
+
+	@Override
+	public double getReadLatencyP99() {
+		return latency(Stage.READ, P99);
+	}
+
+	@Override
+	public double getReadLatencyP999() {
+		return latency(Stage.READ, P999);
+	}
+
+	@Override
+	public double getProcessLatencyP50() {
+		return latency(Stage.PROCESS, P50);
+	}
+
+	@Override
+	public double getProcessLatencyP99() {
+		return latency(Stage.PROCESS, P99);
+	}
+
+	@Override
+	public double getProcessLatencyP999() {
+		return latency(Stage.PROCESS, P999);
+	}
+
+	@Override
+	public double getWriteLatencyP50() {
+		return latency(Stage.WRITE, P50);
+	}
+
+	@Override
+	public double getWriteLatencyP99() {
+		return latency(Stage.WRITE, P99);
+	}
+
+	@Override
+	public double getWriteLatencyP999() {
+		return latency(Stage.WRITE, P999);
+	}
+
+	@Override
+	public double getChunkLatencyP50() {
+		return latency(Stage.CHUNK, P50);
+	}
+
+	@Override
+	public double getChunkLatencyP99() {
+		return latency(Stage.CHUNK, P99);
+	}
+
+	@Override
+	public double getChunkLatencyP999() {
+		return latency(Stage.CHUNK, P999);
+	}
+
+	@Override
+	public Map<String, Long> getGauges() {
+		Map<String, Long> values = new LinkedHashMap<>();
+		gauges.forEach((k, v) -> values.put(k, v.getAsLong()));
+		return values;
+	}
+
+	private static class Timer {
+
+		private final LatencyStats stats = new LatencyStats();
+		private final Histogram histogram = new Histogram(3);
+		private final ThreadLocal<Long> startTime = new ThreadLocal<>();
+
+		public void start() {
+			startTime.set(System.nanoTime());
+		}
+
+		public void stop() {
+			Long start = startTime.get();
+			if (start != null) {
+				startTime.remove();
+				stats.recordLatency(System.nanoTime() - start);
+			}
+		}
+
+		public void cancel() {
+			startTime.remove();
+		}
+
+		public synchronized Histogram histogram() {
+			stats.addIntervalHistogramTo(histogram);
+			return histogram.copy();
+		}
+
+		public void close() {
+			stats.stop();
+		}
+
+	}
+
+}
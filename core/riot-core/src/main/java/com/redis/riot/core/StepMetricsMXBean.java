@@ -0,0 +1,52 @@
+package com.redis.riot.core;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link StepMetrics}. Latencies are in milliseconds.
+ */
+public interface StepMetricsMXBean {
+
+	long getReadCount();
+
+	long getProcessCount();
+
+	long getFilterCount();
+
+	long getWriteCount();
+
+	long getReadSkipCount();
+
+	long getProcessSkipCount();
+
+	long getWriteSkipCount();
+
+	long getRetryCount();
+
+	double getReadLatencyP50();
+
+	double getReadLatencyP99();
+
+	double getReadLatencyP999();
+
+	double getProcessLatencyP50();
+
+	double getProcessLatencyP99();
+
+	double getProcessLatencyP999();
+
+	double getWriteLatencyP50();
+
+	double getWriteLatencyP99();
+
+	double getWriteLatencyP999();
+
+	double getChunkLatencyP50();
+
+	double getChunkLatencyP99();
+
+	double getChunkLatencyP999();
+
+	Map<String, Long> getGauges();
+
+}
@@ -0,0 +1,93 @@
+package com.redis.riot.core;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@link EvaluationContext} that delegates to a context confined to the
+ * calling thread, created on first use with the given supplier. Allows
+ * expressions using non thread-safe variables (e.g. date formats or Faker) to
+ * be evaluated from multiple step threads.
+ */
+public class ThreadLocalEvaluationContext implements EvaluationContext {
+
+	private final ThreadLocal<EvaluationContext> context;
+
+	public ThreadLocalEvaluationContext(Supplier<? extends EvaluationContext> supplier) {
+		this.context = ThreadLocal.withInitial(supplier);
+	}
+
+	private EvaluationContext context() {
+		return context.get();
+	}
+
+	@Override
+	public TypedValue getRootObject() {
+		return context().getRootObject();
+	}
+
+	@Override
+	public List<PropertyAccessor> getPropertyAccessors() {
+		return context().getPropertyAccessors();
+	}
+
+	@Override
+	public List<ConstructorResolver> getConstructorResolvers() {
+		return context().getConstructorResolvers();
+	}
+
+	@Override
+	public List<MethodResolver> getMethodResolvers() {
+		return context().getMethodResolvers();
+	}
+
+	@Override
+	@Nullable
+	public BeanResolver getBeanResolver() {
+		return context().getBeanResolver();
+	}
+
+	@Override
+	public TypeLocator getTypeLocator() {
+		return context().getTypeLocator();
+	}
+
+	@Override
+	public TypeConverter getTypeConverter() {
+		return context().getTypeConverter();
+	}
+
+	@Override
+	public TypeComparator getTypeComparator() {
+		return context().getTypeComparator();
+	}
+
+	@Override
+	public OperatorOverloader getOperatorOverloader() {
+		return context().getOperatorOverloader();
+	}
+
+	@Override
+	public void setVariable(String name, @Nullable Object value) {
+		context().setVariable(name, value);
+	}
+
+	@Override
+	@Nullable
+	public Object lookupVariable(String name) {
+		return context().lookupVariable(name);
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.redis.riot.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * Thread-safe token bucket. Callers acquiring more permits than available
+ * reserve them ahead of time and wait until the bucket has refilled, so that
+ * concurrent callers are spread out evenly at the configured rate.
+ */
+public class TokenBucket {
+
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final double rate;
+	private final double capacity;
+	private final LongSupplier ticker;
+
+	private double permits;
+	private long lastRefill;
+
+	/**
+	 * 
+	 * @param permitsPerSecond refill rate
+	 * @param capacity         max number of permits that can accumulate while
+	 *                         idle, i.e. the burst size
+	 */
+	public TokenBucket(double permitsPerSecond, double capacity) {
+		this(permitsPerSecond, capacity, System::nanoTime);
+	}
+
+	TokenBucket(double permitsPerSecond, double capacity, LongSupplier ticker) {
+		Assert.isTrue(permitsPerSecond > 0, "Rate must be strictly positive");
+		Assert.isTrue(capacity > 0, "Capacity must be strictly positive");
+		this.rate = permitsPerSecond;
+		this.capacity = capacity;
+		this.ticker = ticker;
+		this.permits = capacity;
+		this.lastRefill = ticker.getAsLong();
+	}
+
+	/**
+	 * Blocks until the given number of permits can be granted.
+	 * 
+	 * @param count number of permits to acquire
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void acquire(long count) throws InterruptedException {
+		long wait = reserve(count);
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	/**
+	 * 
+	 * @param count number of permits to reserve
+	 * @return duration in nanoseconds to wait before the permits are available
+	 */
+	synchronized long reserve(long count) {
+		long now = ticker.getAsLong();
+		permits = Math.min(capacity, permits + (now - lastRefill) * rate / NANOS_PER_SECOND);
+		lastRefill = now;
+		permits -= count;
+		if (permits >= 0) {
+			return 0;
+		}
+		return (long) Math.ceil(-permits * NANOS_PER_SECOND / rate);
+	}
+
+	public double getCapacity() {
+		return capacity;
+	}
+
+	public double getRate() {
+		return rate;
+	}
+
+}
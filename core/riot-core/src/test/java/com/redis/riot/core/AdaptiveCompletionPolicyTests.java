@@ -0,0 +1,75 @@
+package com.redis.riot.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+
+class AdaptiveCompletionPolicyTests {
+
+	private static final long MILLI = 1000000;
+
+	@Test
+	void growsWhileThroughputImproves() {
+		AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(50, 10, 100);
+		policy.setWindow(1);
+		policy.start(0L);
+		policy.update(50, 10 * MILLI);
+		Assertions.assertEquals(75, policy.getChunkSize());
+		policy.update(75, 20 * MILLI);
+		Assertions.assertEquals(100, policy.getChunkSize());
+		policy.update(100, 30 * MILLI);
+		Assertions.assertEquals(100, policy.getChunkSize());
+	}
+
+	@Test
+	void shrinksWhenThroughputDegrades() {
+		AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(100, 10, 1000);
+		policy.setWindow(1);
+		policy.start(0L);
+		policy.update(100, 10 * MILLI);
+		Assertions.assertEquals(150, policy.getChunkSize());
+		policy.update(150, 40 * MILLI);
+		Assertions.assertEquals(100, policy.getChunkSize());
+	}
+
+	@Test
+	void wallClockThroughput() {
+		AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(100, 10, 1000);
+		policy.setWindow(2);
+		policy.start(0L);
+		policy.update(100, 10 * MILLI);
+		policy.update(100, 20 * MILLI);
+		Assertions.assertEquals(150, policy.getChunkSize());
+		// Writes are as fast but reads now take most of the time between writes
+		policy.update(150, 60 * MILLI);
+		policy.update(150, 100 * MILLI);
+		Assertions.assertEquals(100, policy.getChunkSize());
+	}
+
+	@Test
+	void completesAtCurrentChunkSize() {
+		AdaptiveCompletionPolicy policy = new AdaptiveCompletionPolicy(2, 1, 10);
+		RepeatContextSupport context = (RepeatContextSupport) policy.start(new RepeatContextSupport(null));
+		context.increment();
+		Assertions.assertFalse(policy.isComplete(context));
+		Assertions.assertFalse(policy.isComplete(context, RepeatStatus.CONTINUABLE));
+		Assertions.assertTrue(policy.isComplete(context, RepeatStatus.FINISHED));
+		policy.setChunkSize(1);
+		Assertions.assertTrue(policy.isComplete(context));
+	}
+
+	@Test
+	void clampsInitialChunkSize() {
+		Assertions.assertEquals(10, new AdaptiveCompletionPolicy(1, 10, 100).getChunkSize());
+		Assertions.assertEquals(100, new AdaptiveCompletionPolicy(1000, 10, 100).getChunkSize());
+	}
+
+	@Test
+	void convertsAuto() {
+		ChunkSizeConverter converter = new ChunkSizeConverter();
+		Assertions.assertEquals(StepArgs.AUTO_CHUNK_SIZE, converter.convert("auto").intValue());
+		Assertions.assertEquals(123, converter.convert("123").intValue());
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.redis.riot.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+class ExpressionTests {
+
+	@Test
+	void compiledMapAccess() {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.addPropertyAccessor(new QuietMapAccessor());
+		SpelExpression expression = (SpelExpression) Expression.parser(SpelCompilerMode.OFF).parseExpression("field1");
+		Map<String, Object> map = new HashMap<>();
+		map.put("field1", "value1");
+		Assertions.assertEquals("value1", expression.getValue(context, map));
+		Assertions.assertTrue(expression.compileExpression());
+		Assertions.assertEquals("value1", expression.getValue(context, map));
+		map.remove("field1");
+		Assertions.assertNull(expression.getValue(context, map));
+	}
+
+	@Test
+	void missingField() {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.addPropertyAccessor(new QuietMapAccessor());
+		Expression expression = Expression.parse("field2");
+		Assertions.assertNull(expression.getValue(context, new HashMap<>()));
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.redis.riot.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	@Test
+	void burstThenWait() {
+		AtomicLong time = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(100, 10, time::get);
+		Assertions.assertEquals(0, bucket.reserve(10));
+		Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(10));
+		// Second caller queues behind the first one's reservation
+		Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(200), bucket.reserve(10));
+	}
+
+	@Test
+	void refillUpToCapacity() {
+		AtomicLong time = new AtomicLong();
+		TokenBucket bucket = new TokenBucket(100, 10, time::get);
+		Assertions.assertEquals(0, bucket.reserve(10));
+		time.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		Assertions.assertEquals(0, bucket.reserve(10));
+		Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(10), bucket.reserve(1));
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.redis.riot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.batch.item.file.transform.AbstractLineTokenizer;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+
+import com.redis.riot.file.CsvLineTokenizer;
+
+/**
+ * Tokenizes a 200-column CSV line, keeping either all columns or 6 of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CsvTokenizerBenchmark {
+
+	private static final int COLUMNS = 200;
+	private static final int[] INCLUDED_FIELDS = { 0, 3, 7, 12, 20, 45 };
+
+	@Param({ "false", "true" })
+	private boolean projected;
+
+	private String line;
+	private AbstractLineTokenizer delimited;
+	private AbstractLineTokenizer csv;
+
+	@Setup
+	public void setup() {
+		StringBuilder builder = new StringBuilder();
+		for (int index = 0; index < COLUMNS; index++) {
+			if (index > 0) {
+				builder.append(',');
+			}
+			if (index % 10 == 0) {
+				builder.append("\"quoted, value ").append(index).append('"');
+			} else {
+				builder.append("value").append(index);
+			}
+		}
+		line = builder.toString();
+		DelimitedLineTokenizer delimitedTokenizer = new DelimitedLineTokenizer();
+		CsvLineTokenizer csvTokenizer = new CsvLineTokenizer();
+		if (projected) {
+			delimitedTokenizer.setIncludedFields(INCLUDED_FIELDS);
+			csvTokenizer.setIncludedFields(INCLUDED_FIELDS);
+		}
+		delimited = delimitedTokenizer;
+		csv = csvTokenizer;
+	}
+
+	@Benchmark
+	public FieldSet delimitedLineTokenizer() {
+		return delimited.tokenize(line);
+	}
+
+	@Benchmark
+	public FieldSet csvLineTokenizer() {
+		return csv.tokenize(line);
+	}
+
+}
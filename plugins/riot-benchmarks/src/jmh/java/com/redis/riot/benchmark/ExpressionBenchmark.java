@@ -0,0 +1,70 @@
+package com.redis.riot.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import com.redis.riot.core.Expression;
+import com.redis.riot.core.QuietMapAccessor;
+
+/**
+ * Compares interpreted and compiled evaluation of the kind of SpEL expressions
+ * used by {@code --proc} and {@code --filter} options.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpressionBenchmark {
+
+	@Param({ "OFF", "IMMEDIATE", "MIXED" })
+	private SpelCompilerMode compilerMode;
+
+	private StandardEvaluationContext context;
+	private Map<String, Object> item;
+	private Expression concat;
+	private Expression arithmetic;
+	private Expression filter;
+
+	@Setup
+	public void setup() {
+		context = new StandardEvaluationContext();
+		context.addPropertyAccessor(new QuietMapAccessor());
+		SpelExpressionParser parser = Expression.parser(compilerMode);
+		concat = new Expression(parser.parseExpression("first + ' ' + last"));
+		arithmetic = new Expression(parser.parseExpression("(temp - 32) * 5 / 9"));
+		filter = new Expression(parser.parseExpression("index > 10 and last != null"));
+		item = new HashMap<>();
+		item.put("first", "Julien");
+		item.put("last", "Ruaux");
+		item.put("temp", 72.5);
+		item.put("index", 42);
+	}
+
+	@Benchmark
+	public Object concat() {
+		return concat.getValue(context, item);
+	}
+
+	@Benchmark
+	public Object arithmetic() {
+		return arithmetic.getValue(context, item);
+	}
+
+	@Benchmark
+	public Object filter() {
+		return filter.getValue(context, item);
+	}
+
+}
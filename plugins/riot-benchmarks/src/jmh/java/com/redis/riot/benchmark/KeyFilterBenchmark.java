@@ -0,0 +1,63 @@
+package com.redis.riot.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.redis.riot.KeyFilterArgs;
+import com.redis.spring.batch.item.redis.common.Range;
+
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+
+/**
+ * Key filters applied to every scanned or notified key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyFilterBenchmark {
+
+	private static final String KEY = "beer:unibroue:123";
+
+	private final byte[] binaryKey = KEY.getBytes();
+	private Predicate<String> glob;
+	private Predicate<String> slots;
+	private Predicate<byte[]> binaryGlob;
+
+	@Setup
+	public void setup() {
+		KeyFilterArgs globArgs = new KeyFilterArgs();
+		globArgs.setIncludes(Arrays.asList("beer:*", "brewery:*"));
+		globArgs.setExcludes(Arrays.asList("*:tmp"));
+		glob = globArgs.predicate(StringCodec.UTF8).orElseThrow();
+		binaryGlob = globArgs.predicate(ByteArrayCodec.INSTANCE).orElseThrow();
+		KeyFilterArgs slotArgs = new KeyFilterArgs();
+		slotArgs.setSlots(Arrays.asList(new Range(0, 8000)));
+		slots = slotArgs.predicate(StringCodec.UTF8).orElseThrow();
+	}
+
+	@Benchmark
+	public boolean glob() {
+		return glob.test(KEY);
+	}
+
+	@Benchmark
+	public boolean binaryGlob() {
+		return binaryGlob.test(binaryKey);
+	}
+
+	@Benchmark
+	public boolean slots() {
+		return slots.test(KEY);
+	}
+
+}
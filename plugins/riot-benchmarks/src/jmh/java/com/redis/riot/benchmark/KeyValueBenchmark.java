@@ -0,0 +1,125 @@
+package com.redis.riot.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.redis.riot.KeyValueDeserializer;
+import com.redis.riot.KeyValueSerializer;
+import com.redis.riot.file.JsonLineAggregator;
+import com.redis.riot.file.ObjectMapperLineMapper;
+import com.redis.riot.function.KeyValueMap;
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Per-item key/value conversions used by file import and export.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KeyValueBenchmark {
+
+	private static final String HASH_JSON = "{\"key\":\"beer:123\",\"type\":\"hash\",\"ttl\":-1,\"value\":{\"id\":\"123\",\"name\":\"La fin du monde\",\"brewery\":\"Unibroue\",\"abv\":\"9.0\"}}";
+	private static final String MAP_JSON = "{\"id\":\"123\",\"name\":\"La fin du monde\",\"brewery\":\"Unibroue\",\"abv\":9.0,\"ibu\":19}";
+
+	private KeyValue<String, Object> hash;
+	private KeyValueMap keyValueMap;
+	private ObjectMapper reader;
+	private JsonLineAggregator<KeyValue<String, Object>> aggregator;
+	private ObjectMapperLineMapper<KeyValue<String, Object>> keyValueLineMapper;
+	private ObjectMapperLineMapper<Map<String, Object>> mapLineMapper;
+	private ObjectWriter generatorWriter;
+	private ByteArrayOutputStream generatorOutput;
+	private JsonGenerator generator;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Setup
+	public void setup() throws IOException {
+		Map<String, String> value = new LinkedHashMap<>();
+		value.put("id", "123");
+		value.put("name", "La fin du monde");
+		value.put("brewery", "Unibroue");
+		value.put("abv", "9.0");
+		hash = new KeyValue<>();
+		hash.setKey("beer:123");
+		hash.setType(DataType.HASH.getString());
+		hash.setTtl(-1);
+		hash.setValue(value);
+		keyValueMap = new KeyValueMap();
+		reader = new ObjectMapper();
+		reader.configure(DeserializationFeature.USE_LONG_FOR_INTS, true);
+		SimpleModule module = new SimpleModule();
+		module.addDeserializer(KeyValue.class, new KeyValueDeserializer());
+		reader.registerModule(module);
+		ObjectMapper writer = new ObjectMapper();
+		writer.setSerializationInclusion(Include.NON_NULL);
+		writer.setSerializationInclusion(Include.NON_DEFAULT);
+		aggregator = new JsonLineAggregator<>(writer);
+		ObjectMapper generatorMapper = new ObjectMapper();
+		generatorMapper.setSerializationInclusion(Include.NON_NULL);
+		generatorMapper.setSerializationInclusion(Include.NON_DEFAULT);
+		SimpleModule serializers = new SimpleModule();
+		serializers.addSerializer(new KeyValueSerializer());
+		generatorMapper.registerModule(serializers);
+		generatorWriter = generatorMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		generatorOutput = new ByteArrayOutputStream();
+		generator = generatorWriter.createGenerator(generatorOutput, JsonEncoding.UTF8);
+		generator.setRootValueSeparator(null);
+		keyValueLineMapper = new ObjectMapperLineMapper<>(reader, (Class) KeyValue.class);
+		mapLineMapper = new ObjectMapperLineMapper<>(reader, (Class) Map.class);
+	}
+
+	@Benchmark
+	public Map<String, Object> keyValueMap() {
+		return keyValueMap.apply(hash);
+	}
+
+	@Benchmark
+	public String jsonLineAggregator() {
+		return aggregator.aggregate(hash);
+	}
+
+	/**
+	 * Same output as {@link #jsonLineAggregator()}, streamed into a reused
+	 * generator as done by the JSON file export.
+	 */
+	@Benchmark
+	public int jsonGenerator() throws Exception {
+		generatorWriter.writeValue(generator, hash);
+		generator.writeRaw('\n');
+		generator.flush();
+		int size = generatorOutput.size();
+		generatorOutput.reset();
+		return size;
+	}
+
+	@Benchmark
+	public KeyValue<String, Object> keyValueLineMapper() throws Exception {
+		return keyValueLineMapper.mapLine(HASH_JSON, 0);
+	}
+
+	@Benchmark
+	public Map<String, Object> mapLineMapper() throws Exception {
+		return mapLineMapper.mapLine(MAP_JSON, 0);
+	}
+
+}
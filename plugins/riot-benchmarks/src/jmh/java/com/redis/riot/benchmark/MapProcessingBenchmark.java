@@ -0,0 +1,91 @@
+package com.redis.riot.benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.redis.riot.core.processor.FieldExtractorFactory;
+import com.redis.riot.core.processor.IdFunctionBuilder;
+import com.redis.riot.core.processor.MapFlatteningFunction;
+import com.redis.riot.core.processor.ObjectToStringFunction;
+import com.redis.riot.core.processor.RegexNamedGroupFunction;
+
+/**
+ * Per-item map functions used by import and export processors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapProcessingBenchmark {
+
+	private Map<String, Object> item;
+	private Map<String, Object> nested;
+	private MapFlatteningFunction<String> flattening;
+	private Function<Map<String, Object>, String> id;
+	private Function<Map<String, Object>, String> stringField;
+	private ToLongFunction<Map<String, Object>> longField;
+	private RegexNamedGroupFunction regex;
+
+	@Setup
+	public void setup() {
+		item = new HashMap<>();
+		item.put("id", "123");
+		item.put("name", "La fin du monde");
+		item.put("brewery", "Unibroue");
+		item.put("abv", "9.0");
+		item.put("ibu", 19L);
+		nested = new LinkedHashMap<>();
+		nested.put("id", 123);
+		nested.put("name", "La fin du monde");
+		Map<String, Object> address = new LinkedHashMap<>();
+		address.put("street", "80 Rue des Carrieres");
+		address.put("city", "Chambly");
+		nested.put("address", address);
+		nested.put("styles", Arrays.asList("Tripel", "Belgian", "Blonde"));
+		flattening = new MapFlatteningFunction<>(new ObjectToStringFunction());
+		id = new IdFunctionBuilder().prefix("beer").fields("brewery", "id").build();
+		FieldExtractorFactory extractors = FieldExtractorFactory.builder().build();
+		stringField = extractors.string("name");
+		longField = extractors.longField("ibu");
+		regex = new RegexNamedGroupFunction(Pattern.compile("(?<style>\\w+):(?<id>\\d+)"));
+	}
+
+	@Benchmark
+	public Map<String, String> flatten() {
+		return flattening.apply(nested);
+	}
+
+	@Benchmark
+	public String concatenateId() {
+		return id.apply(item);
+	}
+
+	@Benchmark
+	public String extractString() {
+		return stringField.apply(item);
+	}
+
+	@Benchmark
+	public long extractLong() {
+		return longField.applyAsLong(item);
+	}
+
+	@Benchmark
+	public Map<String, String> regexNamedGroups() {
+		return regex.apply("tripel:123");
+	}
+
+}
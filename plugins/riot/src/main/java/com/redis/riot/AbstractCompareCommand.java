@@ -5,7 +5,7 @@ import java.util.Collection;
 
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.function.FunctionItemProcessor;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.EvaluationContext;
 import org.springframework.util.Assert;
 
 import com.redis.riot.CompareStatusItemWriter.StatusCount;
@@ -55,11 +55,19 @@ public abstract class AbstractCompareCommand extends AbstractReplicateCommand {
 
 	protected abstract boolean isStruct();
 
+	/**
+	 *
+	 * @return true if stream values are data structures when processed
+	 */
+	protected boolean isStreamStruct() {
+		return isStruct();
+	}
+
 	private ItemProcessor<KeyValue<byte[], Object>, KeyValue<byte[], Object>> keyValueProcessor() {
 		if (isIgnoreStreamMessageId()) {
-			Assert.isTrue(isStruct(), "--no-stream-id can only be used with --struct");
+			Assert.isTrue(isStreamStruct(), "--no-stream-id can only be used with --struct or --hybrid");
 		}
-		StandardEvaluationContext evaluationContext = evaluationContext();
+		EvaluationContext evaluationContext = evaluationContext();
 		log.info("Creating processor with {}", processorArgs);
 		ItemProcessor<KeyValue<String, Object>, KeyValue<String, Object>> processor = processorArgs
 				.processor(evaluationContext);
@@ -71,11 +79,9 @@ public abstract class AbstractCompareCommand extends AbstractReplicateCommand {
 		return RiotUtils.processor(new FunctionItemProcessor<>(code), processor, new FunctionItemProcessor<>(decode));
 	}
 
-	private StandardEvaluationContext evaluationContext() {
+	private EvaluationContext evaluationContext() {
 		log.info("Creating SpEL evaluation context with {}", evaluationContextArgs);
-		StandardEvaluationContext evaluationContext = evaluationContextArgs.evaluationContext();
-		configure(evaluationContext);
-		return evaluationContext;
+		return evaluationContextArgs.evaluationContext(this::configure);
 	}
 
 	private String compareMessage(Collection<StatusCount> counts) {
@@ -2,8 +2,12 @@ package com.redis.riot;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
+import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.Assert;
@@ -11,13 +15,17 @@ import org.springframework.util.Assert;
 import com.redis.lettucemod.RedisModulesUtils;
 import com.redis.lettucemod.api.StatefulRedisModulesConnection;
 import com.redis.riot.core.AbstractJobCommand;
+import com.redis.riot.core.PartitionItemReader;
 import com.redis.riot.core.Step;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.RedisItemReader.ReaderMode;
 import com.redis.spring.batch.item.redis.common.KeyValue;
+import com.redis.spring.batch.item.redis.reader.KeyEventStatus;
+import com.redis.spring.batch.item.redis.reader.KeyNotificationItemReader;
 
 import io.lettuce.core.AbstractRedisClient;
 import io.lettuce.core.RedisException;
+import io.lettuce.core.cluster.RedisClusterClient;
 import picocli.CommandLine.ArgGroup;
 
 public abstract class AbstractExportCommand extends AbstractJobCommand {
@@ -58,16 +66,69 @@ public abstract class AbstractExportCommand extends AbstractJobCommand {
 	protected abstract RedisContext sourceRedisContext();
 
 	protected <O> Step<KeyValue<String, Object>, O> step(ItemWriter<O> writer) {
-		RedisItemReader<String, String, Object> reader = RedisItemReader.struct();
-		configureSourceRedisReader(reader);
-		Step<KeyValue<String, Object>, O> step = step(STEP_NAME, reader, writer);
+		Supplier<RedisItemReader<String, String, Object>> readerFactory = () -> sourceReader(RedisItemReader.struct());
+		Step<KeyValue<String, Object>, O> step = step(STEP_NAME, readerFactory.get(), readerFactory, writer);
 		step.taskName(TASK_NAME);
 		return step;
 	}
 
+	protected <O> Step<KeyValue<byte[], byte[]>, O> dumpStep(ItemWriter<O> writer) {
+		Supplier<RedisItemReader<byte[], byte[], byte[]>> readerFactory = () -> sourceReader(RedisItemReader.dump());
+		Step<KeyValue<byte[], byte[]>, O> step = step(STEP_NAME, readerFactory.get(), readerFactory, writer);
+		step.taskName(TASK_NAME);
+		return step;
+	}
+
+	private <K, V, T> RedisItemReader<K, V, T> sourceReader(RedisItemReader<K, V, T> reader) {
+		configureSourceRedisReader(reader);
+		return reader;
+	}
+
+	/**
+	 * 
+	 * @param name          step name
+	 * @param reader        configured source reader
+	 * @param readerFactory creates readers configured like {@code reader}, used
+	 *                      to read each node when scanning cluster nodes
+	 * @param writer        step writer
+	 * @return step reading with {@code reader}, or partitioned by cluster node
+	 *         when enabled
+	 */
+	protected <K, V, T, O> Step<KeyValue<K, T>, O> step(String name, RedisItemReader<K, V, T> reader,
+			Supplier<RedisItemReader<K, V, T>> readerFactory, ItemWriter<O> writer) {
+		ClusterNodePartitioner partitioner = nodePartitioner(reader);
+		if (partitioner == null) {
+			return step(name, reader, writer);
+		}
+		log.info("Configuring step {} with {}", name, partitioner);
+		ItemReader<KeyValue<K, T>> nodeReader = new PartitionItemReader<>(
+				context -> partitioner.reader(context, readerFactory, name));
+		return createStep(name, reader, nodeReader, writer).partitioner(partitioner);
+	}
+
+	private ClusterNodePartitioner nodePartitioner(RedisItemReader<?, ?, ?> reader) {
+		if (!sourceRedisReaderArgs.isScanNodes()) {
+			return null;
+		}
+		if (!(reader.getClient() instanceof RedisClusterClient)) {
+			log.info("Not scanning nodes: source is not a cluster");
+			return null;
+		}
+		if (reader.getMode() != ReaderMode.SCAN) {
+			log.info("Not scanning nodes: only supported in scan mode");
+			return null;
+		}
+		return new ClusterNodePartitioner((RedisClusterClient) reader.getClient(), sourceRedisContext.getUri());
+	}
+
 	protected <K, V, T, O> Step<KeyValue<K, T>, O> step(String name, RedisItemReader<K, V, T> reader,
 			ItemWriter<O> writer) {
-		Step<KeyValue<K, T>, O> step = new Step<>(name, reader, writer);
+		return createStep(name, reader, reader, writer);
+	}
+
+	private <K, V, T, O> Step<KeyValue<K, T>, O> createStep(String name, RedisItemReader<K, V, T> reader,
+			ItemReader<KeyValue<K, T>> stepReader, ItemWriter<O> writer) {
+		Step<KeyValue<K, T>, O> step = new Step<>(name, stepReader, writer);
 		if (reader.getMode() != ReaderMode.LIVEONLY) {
 			log.info("Configuring step with scan size estimator");
 			step.maxItemCountSupplier(reader.scanSizeEstimator());
@@ -79,10 +140,33 @@ public abstract class AbstractExportCommand extends AbstractJobCommand {
 			step.live(true);
 			step.flushInterval(reader.getFlushInterval());
 			step.idleTimeout(reader.getIdleTimeout());
+			step.gauge("notification-queue-size", () -> notificationQueue(reader, BlockingQueue::size));
+			step.gauge("notification-queue-remaining",
+					() -> notificationQueue(reader, BlockingQueue::remainingCapacity));
+			step.gauge("notifications-dropped", () -> notificationCount(reader, KeyEventStatus.DROPPED));
 		}
 		return step;
 	}
 
+	@SuppressWarnings("rawtypes")
+	private long notificationQueue(RedisItemReader<?, ?, ?> reader, ToLongFunction<BlockingQueue> function) {
+		if (reader.getReader() instanceof KeyNotificationItemReader) {
+			BlockingQueue queue = ((KeyNotificationItemReader) reader.getReader()).getQueue();
+			if (queue != null) {
+				return function.applyAsLong(queue);
+			}
+		}
+		return 0;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private long notificationCount(RedisItemReader<?, ?, ?> reader, KeyEventStatus status) {
+		if (reader.getReader() instanceof KeyNotificationItemReader) {
+			return ((KeyNotificationItemReader) reader.getReader()).count(status);
+		}
+		return 0;
+	}
+
 	private void checkNotifyConfig(AbstractRedisClient client) {
 		Map<String, String> valueMap;
 		try (StatefulRedisModulesConnection<String, String> conn = RedisModulesUtils.connection(client)) {
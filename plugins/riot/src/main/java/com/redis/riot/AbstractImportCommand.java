@@ -97,12 +97,15 @@ public abstract class AbstractImportCommand extends AbstractJobCommand {
 
 	protected ItemProcessor<Map<String, Object>, Map<String, Object>> processor() {
 		log.info("Creating SpEL evaluation context with {}", evaluationContextArgs);
-		StandardEvaluationContext evaluationContext = evaluationContextArgs.evaluationContext();
-		evaluationContext.setVariable(VAR_REDIS, targetRedisContext.getConnection().sync());
-		evaluationContext.addPropertyAccessor(new QuietMapAccessor());
+		EvaluationContext evaluationContext = evaluationContextArgs.evaluationContext(this::configure);
 		return processor(evaluationContext, processorArgs);
 	}
 
+	protected void configure(StandardEvaluationContext context) {
+		context.setVariable(VAR_REDIS, targetRedisContext.getConnection().sync());
+		context.addPropertyAccessor(new QuietMapAccessor());
+	}
+
 	protected abstract RedisContext targetRedisContext();
 
 	public static ItemProcessor<Map<String, Object>, Map<String, Object>> processor(EvaluationContext evaluationContext,
@@ -16,8 +16,22 @@ public abstract class AbstractRedisImportCommand extends AbstractImportCommand {
 	@Override
 	protected void configureTargetRedisWriter(RedisItemWriter<?, ?, ?> writer) {
 		super.configureTargetRedisWriter(writer);
-		log.info("Configuring Redis writer with poolSize {}", poolSize);
-		writer.setPoolSize(poolSize);
+		int writerPoolSize = poolSize;
+		int steps = concurrentSteps();
+		if (steps > 1) {
+			// Each step has its own writer and pool, split connections between them
+			writerPoolSize = Math.max(1, poolSize / steps);
+		}
+		log.info("Configuring Redis writer with poolSize {}", writerPoolSize);
+		writer.setPoolSize(writerPoolSize);
+	}
+
+	/**
+	 * 
+	 * @return max number of steps writing to Redis at the same time
+	 */
+	protected int concurrentSteps() {
+		return 1;
 	}
 
 	@Override
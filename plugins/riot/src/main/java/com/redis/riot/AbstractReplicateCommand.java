@@ -72,6 +72,10 @@ public abstract class AbstractReplicateCommand extends AbstractExportCommand {
 		reader.setPoolSize(targetRedisArgs.getPoolSize());
 	}
 
+	protected RedisContext getTargetRedisContext() {
+		return targetRedisContext;
+	}
+
 	protected void configureTargetRedisWriter(RedisItemWriter<?, ?, ?> writer) {
 		targetRedisContext.configure(writer);
 		log.info("Configuring target Redis writer with poolSize {}", targetRedisArgs.getPoolSize());
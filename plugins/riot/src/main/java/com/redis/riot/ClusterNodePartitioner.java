@@ -0,0 +1,131 @@
+package com.redis.riot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import com.redis.spring.batch.item.redis.RedisItemReader;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode.NodeFlag;
+
+/**
+ * Partitions a cluster scan by upstream node, each partition scanning and
+ * reading the keys of one node through its own connections. The topology is
+ * refreshed every time partitions are created so that partitions follow the
+ * nodes owning slots when the step starts.
+ */
+public class ClusterNodePartitioner implements Partitioner {
+
+	public static final String NODE_ID_KEY = "node";
+	public static final String HOST_KEY = "host";
+	public static final String PORT_KEY = "port";
+
+	private final RedisClusterClient client;
+	private final RedisURI uri;
+
+	/**
+	 *
+	 * @param client cluster client of the source
+	 * @param uri    URI of the source, providing credentials and SSL settings
+	 *               for node connections
+	 */
+	public ClusterNodePartitioner(RedisClusterClient client, RedisURI uri) {
+		this.client = client;
+		this.uri = uri;
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		client.refreshPartitions();
+		Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+		for (RedisClusterNode node : client.getPartitions()) {
+			if (node.is(NodeFlag.UPSTREAM) && !node.getSlots().isEmpty()) {
+				ExecutionContext context = new ExecutionContext();
+				context.putString(NODE_ID_KEY, node.getNodeId());
+				context.putString(HOST_KEY, node.getUri().getHost());
+				context.putInt(PORT_KEY, node.getUri().getPort());
+				partitions.put(node.getNodeId(), context);
+			}
+		}
+		return partitions;
+	}
+
+	/**
+	 *
+	 * @param context partition execution context
+	 * @param factory creates readers configured for the source, except for the
+	 *                client
+	 * @param name    name of the step
+	 * @return reader of the partition's node, closing its client when closed
+	 */
+	public <K, V, T> ItemStreamReader<KeyValue<K, T>> reader(ExecutionContext context,
+			Supplier<RedisItemReader<K, V, T>> factory, String name) {
+		String nodeId = context.getString(NODE_ID_KEY);
+		RedisClusterNode node = client.getPartitions().getPartitionByNodeId(nodeId);
+		if (node == null || !node.is(NodeFlag.UPSTREAM)) {
+			throw new ItemStreamException(String.format("Node %s (%s:%s) is no longer an upstream cluster node", nodeId,
+					context.getString(HOST_KEY), context.getInt(PORT_KEY)));
+		}
+		RedisURI nodeUri = RedisURI.builder(uri).withHost(node.getUri().getHost()).withPort(node.getUri().getPort())
+				.build();
+		RedisClient nodeClient = RedisClient.create(client.getResources(), nodeUri);
+		nodeClient.setOptions(ClientOptions.copyOf(client.getOptions()));
+		RedisItemReader<K, V, T> reader = factory.get();
+		reader.setClient(nodeClient);
+		reader.setName(name + "-" + nodeId);
+		return new NodeItemReader<>(reader, nodeClient);
+	}
+
+	@Override
+	public String toString() {
+		return "ClusterNodePartitioner [uri=" + uri + "]";
+	}
+
+	private static class NodeItemReader<T> implements ItemStreamReader<T> {
+
+		private final ItemStreamReader<T> delegate;
+		private final RedisClient client;
+
+		public NodeItemReader(ItemStreamReader<T> delegate, RedisClient client) {
+			this.delegate = delegate;
+			this.client = client;
+		}
+
+		@Override
+		public void open(ExecutionContext executionContext) {
+			delegate.open(executionContext);
+		}
+
+		@Override
+		public T read() throws Exception {
+			return delegate.read();
+		}
+
+		@Override
+		public void update(ExecutionContext executionContext) {
+			delegate.update(executionContext);
+		}
+
+		@Override
+		public void close() {
+			try {
+				delegate.close();
+			} finally {
+				client.shutdown();
+			}
+		}
+
+	}
+
+}
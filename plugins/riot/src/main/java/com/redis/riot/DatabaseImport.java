@@ -31,6 +31,11 @@ public class DatabaseImport extends AbstractRedisImportCommand {
 		return job(step(reader()));
 	}
 
+	@Override
+	protected String jobIdentity() {
+		return super.jobIdentity() + sql;
+	}
+
 	private JdbcCursorItemReader<Map<String, Object>> reader() {
 		Assert.hasLength(sql, "No SQL statement specified");
 		log.info("Creating data source with {}", dataSourceArgs);
@@ -39,7 +44,7 @@ public class DatabaseImport extends AbstractRedisImportCommand {
 		JdbcCursorItemReaderBuilder<Map<String, Object>> reader = new JdbcCursorItemReaderBuilder<>();
 		reader.dataSource(dataSource);
 		reader.sql(sql);
-		reader.saveState(false);
+		reader.saveState(isSaveState());
 		reader.rowMapper(new ColumnMapRowMapper());
 		reader.fetchSize(readerArgs.getFetchSize());
 		reader.maxRows(readerArgs.getMaxRows());
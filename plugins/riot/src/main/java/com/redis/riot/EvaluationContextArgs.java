@@ -4,13 +4,16 @@ import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
+import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.CollectionUtils;
 
 import com.redis.lettucemod.search.GeoLocation;
 import com.redis.riot.core.Expression;
 import com.redis.riot.core.RiotUtils;
+import com.redis.riot.core.ThreadLocalEvaluationContext;
 
 import net.datafaker.Faker;
 import picocli.CommandLine.Option;
@@ -33,18 +36,48 @@ public class EvaluationContextArgs {
 
 	private Map<String, Object> vars = new LinkedHashMap<>();
 
+	/**
+	 *
+	 * @param configurer callback to further configure each context, e.g. with
+	 *                   additional variables
+	 * @return evaluation context that can be shared by multiple threads: each
+	 *         thread gets its own context, with its own date/number formats and
+	 *         Faker (created on first use). Variable expressions are evaluated
+	 *         once and their values are shared by all threads.
+	 */
+	public EvaluationContext evaluationContext(Consumer<StandardEvaluationContext> configurer) {
+		StandardEvaluationContext context = evaluationContext();
+		Map<String, Object> values = new LinkedHashMap<>();
+		varExpressions.keySet().forEach(k -> values.put(k, context.lookupVariable(k)));
+		configurer.accept(context);
+		Thread owner = Thread.currentThread();
+		return new ThreadLocalEvaluationContext(() -> {
+			if (Thread.currentThread() == owner) {
+				return context;
+			}
+			StandardEvaluationContext threadContext = baseContext();
+			values.forEach(threadContext::setVariable);
+			configurer.accept(threadContext);
+			return threadContext;
+		});
+	}
+
 	public StandardEvaluationContext evaluationContext() {
-		StandardEvaluationContext context = new StandardEvaluationContext();
+		StandardEvaluationContext context = baseContext();
+		if (!CollectionUtils.isEmpty(varExpressions)) {
+			varExpressions.forEach((k, v) -> context.setVariable(k, v.getValue(context)));
+		}
+		return context;
+	}
+
+	private StandardEvaluationContext baseContext() {
+		StandardEvaluationContext context = new FakerEvaluationContext();
 		RiotUtils.registerFunction(context, "geo", GeoLocation.class, "toString", String.class, String.class);
 		context.setVariable(VAR_DATE, new SimpleDateFormat(dateFormat));
 		context.setVariable(VAR_NUMBER, new DecimalFormat(numberFormat));
-		context.setVariable(VAR_FAKER, new Faker());
 		if (!CollectionUtils.isEmpty(vars)) {
 			vars.forEach(context::setVariable);
 		}
-		if (!CollectionUtils.isEmpty(varExpressions)) {
-			varExpressions.forEach((k, v) -> context.setVariable(k, v.getValue(context)));
-		}
 		return context;
 	}
 
@@ -80,6 +113,24 @@ public class EvaluationContextArgs {
 		this.numberFormat = numberFormat;
 	}
 
+	/**
+	 * Creates the Faker variable on first lookup since it is expensive to build
+	 * and most expressions do not use it.
+	 */
+	private static class FakerEvaluationContext extends StandardEvaluationContext {
+
+		@Override
+		public Object lookupVariable(String name) {
+			Object value = super.lookupVariable(name);
+			if (value == null && VAR_FAKER.equals(name)) {
+				value = new Faker();
+				setVariable(VAR_FAKER, value);
+			}
+			return value;
+		}
+
+	}
+
 	@Override
 	public String toString() {
 		return "EvaluationContextArgs [varExpressions=" + varExpressions + ", dateFormat=" + dateFormat
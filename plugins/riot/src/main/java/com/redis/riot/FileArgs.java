@@ -7,6 +7,7 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.util.ResourceUtils;
 
+import com.redis.riot.file.Compression;
 import com.redis.riot.file.FileUtils;
 import com.redis.riot.file.FilenameInputStreamResource;
 import com.redis.riot.file.UncustomizedUrlResource;
@@ -18,6 +19,7 @@ public class FileArgs {
 
 	public static final String DEFAULT_ENCODING = StandardCharsets.UTF_8.name();
 	public static final char DEFAULT_QUOTE_CHARACTER = '"';
+	public static final int DEFAULT_COMPRESSION_THREADS = Runtime.getRuntime().availableProcessors();
 
 	@ArgGroup(exclusive = false)
 	private AwsArgs amazonS3Args = new AwsArgs();
@@ -34,12 +36,37 @@ public class FileArgs {
 	@Option(names = { "-z", "--gzip" }, description = "File is gzip compressed.")
 	private boolean gzipped;
 
+	@Option(names = "--compression", description = "File compression: ${COMPLETION-CANDIDATES} (default: from file extension .gz .zst .lz4).", paramLabel = "<name>")
+	private Compression compression;
+
+	@Option(names = "--compression-level", description = "Compression level: 0-9 for gzip, 1-22 for zstd, 0-17 for lz4 (default: codec default).", paramLabel = "<int>")
+	private int compressionLevel = Compression.DEFAULT_LEVEL;
+
+	@Option(names = "--compression-threads", description = "Max number of threads compressing or decompressing gzip and zstd files (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private int compressionThreads = DEFAULT_COMPRESSION_THREADS;
+
 	@Option(names = "--header", description = "Use first line as field names for CSV/fixed-length files")
 	private boolean header;
 
 	@Option(names = "--quote", description = "Escape character for CSV files (default: ${DEFAULT-VALUE}).", paramLabel = "<char>")
 	private char quoteCharacter = DEFAULT_QUOTE_CHARACTER;
 
+	/**
+	 * 
+	 * @param location file location
+	 * @return compression set with options, or matching the file extension, or
+	 *         null if none
+	 */
+	public Compression compression(String location) {
+		if (compression != null) {
+			return compression;
+		}
+		if (gzipped) {
+			return Compression.GZIP;
+		}
+		return Compression.of(location);
+	}
+
 	public Resource resource(String location) throws IOException {
 		if (FileUtils.isStdin(location)) {
 			return new FilenameInputStreamResource(System.in, "stdin", "Standard Input");
@@ -72,6 +99,30 @@ public class FileArgs {
 		this.gzipped = gzipped;
 	}
 
+	public Compression getCompression() {
+		return compression;
+	}
+
+	public void setCompression(Compression compression) {
+		this.compression = compression;
+	}
+
+	public int getCompressionLevel() {
+		return compressionLevel;
+	}
+
+	public void setCompressionLevel(int level) {
+		this.compressionLevel = level;
+	}
+
+	public int getCompressionThreads() {
+		return compressionThreads;
+	}
+
+	public void setCompressionThreads(int threads) {
+		this.compressionThreads = threads;
+	}
+
 	public GoogleStorageArgs getGoogleStorageArgs() {
 		return googleStorageArgs;
 	}
@@ -115,8 +166,9 @@ public class FileArgs {
 	@Override
 	public String toString() {
 		return "amazonS3Args=" + amazonS3Args + ", googleStorageArgs=" + googleStorageArgs + ", delimiter=" + delimiter
-				+ ", encoding=" + encoding + ", gzipped=" + gzipped + ", header=" + header + ", quoteCharacter="
-				+ quoteCharacter;
+				+ ", encoding=" + encoding + ", gzipped=" + gzipped + ", compression=" + compression
+				+ ", compressionLevel=" + compressionLevel + ", compressionThreads=" + compressionThreads + ", header="
+				+ header + ", quoteCharacter=" + quoteCharacter;
 	}
 
 }
@@ -1,12 +1,14 @@
 package com.redis.riot;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.springframework.batch.core.Job;
@@ -16,24 +18,32 @@ import org.springframework.batch.item.ItemStreamException;
 import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.transform.LineAggregator;
 import org.springframework.batch.item.file.transform.PassThroughFieldExtractor;
+import org.springframework.batch.item.function.FunctionItemProcessor;
 import org.springframework.batch.item.json.JacksonJsonObjectMarshaller;
 import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.redis.riot.KeyValueSerializer.SampleSerializer;
+import com.redis.riot.KeyValueSerializer.ScoredValueSerializer;
+import com.redis.riot.KeyValueSerializer.StreamMessageSerializer;
+import com.redis.riot.core.Step;
+import com.redis.riot.file.DumpFileItemWriter;
+import com.redis.riot.file.DumpRecord;
 import com.redis.riot.file.FileType;
 import com.redis.riot.file.FileUtils;
-import com.redis.riot.file.JsonLineAggregator;
-import com.redis.riot.file.xml.XmlResourceItemWriter;
-import com.redis.riot.file.xml.XmlResourceItemWriterBuilder;
-import com.redis.riot.resource.FlatFileItemWriter;
+import com.redis.riot.file.ItemEncoder;
+import com.redis.riot.file.JsonItemEncoder;
+import com.redis.riot.file.ResourceItemWriter;
+import com.redis.riot.file.RollingResourceItemWriter;
+import com.redis.riot.file.StringItemEncoder;
 import com.redis.riot.resource.FlatFileItemWriterBuilder;
 import com.redis.riot.resource.FlatFileItemWriterBuilder.DelimitedBuilder;
 import com.redis.riot.resource.FlatFileItemWriterBuilder.FormattedBuilder;
-import com.redis.riot.resource.JsonFileItemWriter;
-import com.redis.riot.resource.JsonFileItemWriterBuilder;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.common.KeyValue;
 
@@ -56,21 +66,80 @@ public class FileExport extends AbstractRedisExportCommand {
 	@ArgGroup(exclusive = false)
 	private FileWriterArgs fileWriterArgs = new FileWriterArgs();
 
+	@ArgGroup(exclusive = false)
+	private FileShardArgs shardArgs = new FileShardArgs();
+
 	@Option(names = "--content-type", description = "Type of exported content: ${COMPLETION-CANDIDATES}.", paramLabel = "<type>")
 	private ContentType contentType;
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
 	protected Job job() throws IOException {
-		WritableResource resource = fileWriterArgs.resource(file);
-		FileType fileType = fileType(resource);
-		ItemWriter writer = create(resource, fileType, () -> headerRecord(fileType));
+		ItemWriter writer;
+		FileType fileType;
+		if (shardArgs.isEnabled()) {
+			Assert.notNull(file, "Rolling or sharded exports require a file");
+			fileType = fileType(file);
+			Assert.isTrue(fileType != FileType.DUMP, "Rolling or sharded exports do not support dump files");
+			writer = rollingWriter(fileType);
+		} else {
+			WritableResource resource = fileWriterArgs.resource(file);
+			fileType = fileType(resource.getFilename());
+			if (fileType == FileType.DUMP) {
+				return job(dumpFileStep(resource));
+			}
+			writer = create(resource, fileType, () -> headerRecord(fileType));
+		}
 		return job(step(writer).processor(processor(fileType)));
 	}
 
-	private FileType fileType(WritableResource resource) {
+	private Step<KeyValue<byte[], byte[]>, DumpRecord> dumpFileStep(WritableResource resource) {
+		Assert.isTrue(contentType != ContentType.MAP, "Dump files only support key-value content");
+		DumpFileItemWriter writer = new DumpFileItemWriter(resource);
+		writer.setName(resource.getFilename());
+		writer.setCompression(fileWriterArgs.getDumpCompression());
+		writer.setCompressionLevel(fileWriterArgs.getFileArgs().getCompressionLevel());
+		writer.setBlockSize(Math.toIntExact(fileWriterArgs.getDumpBlockSize().toBytes()));
+		Step<KeyValue<byte[], byte[]>, DumpRecord> step = dumpStep(writer);
+		step.processor(new FunctionItemProcessor<>(this::dumpRecord));
+		return step;
+	}
+
+	private DumpRecord dumpRecord(KeyValue<byte[], byte[]> keyValue) {
+		if (keyValue.getValue() == null) {
+			// Key expired or was deleted before it could be dumped
+			return null;
+		}
+		return new DumpRecord(keyValue.getKey(), keyValue.getType(), keyValue.getTtl(), keyValue.getValue());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> RollingResourceItemWriter<T> rollingWriter(FileType fileType) {
+		// Read the header record once rather than for each file
+		Map<String, Object> headerRecord = contentType(fileType) == ContentType.MAP
+				&& fileWriterArgs.getFileArgs().isHeader() ? headerRecord(fileType) : null;
+		RollingResourceItemWriter<T> writer = new RollingResourceItemWriter<>(file, fileWriterArgs::resource,
+				r -> create(r, fileType, () -> headerRecord));
+		writer.setMaxRecords(shardArgs.getMaxRecords());
+		writer.setMaxOpenShards(shardArgs.getMaxOpenShards());
+		// Shard files share the writer and compression threads
+		writer.setThreads(fileWriterArgs.getWriterThreads());
+		writer.setCompressionThreads(fileWriterArgs.getFileArgs().getCompressionThreads());
+		if (shardArgs.getMaxSize() != null) {
+			writer.setMaxBytes(shardArgs.getMaxSize().toBytes());
+		}
+		Function<String, String> shardFunction = shardArgs.shardFunction();
+		if (shardFunction != null) {
+			Assert.isTrue(contentType(fileType) == ContentType.STRUCT, "Sharding requires key-value content");
+			writer.setShardFunction(item -> shardFunction.apply(((KeyValue<String, ?>) item).getKey()));
+		}
+		writer.setManifest(shardArgs.manifest(file));
+		return writer;
+	}
+
+	private FileType fileType(String filename) {
 		if (fileType == null) {
-			return Optional.ofNullable(FileUtils.fileType(resource)).orElse(DEFAULT_FILE_TYPE);
+			return Optional.ofNullable(FileUtils.fileType(filename)).orElse(DEFAULT_FILE_TYPE);
 		}
 		return fileType;
 	}
@@ -122,13 +191,13 @@ public class FileExport extends AbstractRedisExportCommand {
 	}
 
 	@SuppressWarnings("unchecked")
-	public <T> ItemWriter<T> create(WritableResource resource, FileType fileType,
+	public <T> ResourceItemWriter<T> create(WritableResource resource, FileType fileType,
 			Supplier<Map<String, Object>> headerSupplier) {
 		switch (fileType) {
 		case CSV:
-			return (ItemWriter<T>) delimitedWriter(resource, headerSupplier);
+			return (ResourceItemWriter<T>) delimitedWriter(resource, headerSupplier);
 		case FIXED:
-			return (ItemWriter<T>) fixedLengthWriter(resource, headerSupplier);
+			return (ResourceItemWriter<T>) fixedLengthWriter(resource, headerSupplier);
 		case JSON:
 			return jsonWriter(resource);
 		case JSONL:
@@ -140,10 +209,10 @@ public class FileExport extends AbstractRedisExportCommand {
 		}
 	}
 
-	private <T> FlatFileItemWriter<T> jsonlWriter(WritableResource resource) {
-		FlatFileItemWriterBuilder<T> builder = flatFileWriter(resource);
-		builder.lineAggregator(new JsonLineAggregator<>(objectMapper(new ObjectMapper())));
-		return builder.build();
+	private <T> ResourceItemWriter<T> jsonlWriter(WritableResource resource) {
+		ResourceItemWriter<T> writer = writer(resource, jsonEncoder());
+		writer.setTerminator(fileWriterArgs.getLineSeparator());
+		return writer;
 	}
 
 	private <T extends ObjectMapper> T objectMapper(T objectMapper) {
@@ -152,47 +221,55 @@ public class FileExport extends AbstractRedisExportCommand {
 		return objectMapper;
 	}
 
-	private <T> JsonFileItemWriter<T> jsonWriter(WritableResource resource) {
-		JsonFileItemWriterBuilder<T> writer = new JsonFileItemWriterBuilder<>();
-		writer.name(resource.getFilename());
-		writer.append(fileWriterArgs.isAppend());
-		writer.encoding(fileWriterArgs.getFileArgs().getEncoding());
-		writer.lineSeparator(fileWriterArgs.getLineSeparator());
-		writer.resource(resource);
-		writer.saveState(false);
+	private <T> ResourceItemWriter<T> jsonWriter(WritableResource resource) {
+		String lineSeparator = fileWriterArgs.getLineSeparator();
+		ResourceItemWriter<T> writer = writer(resource, jsonEncoder());
+		writer.setHeader("[" + lineSeparator);
+		writer.setSeparator("," + lineSeparator);
+		writer.setFooter(lineSeparator + "]" + lineSeparator);
+		return writer;
+	}
+
+	private <T> Supplier<ItemEncoder<T>> jsonEncoder() {
 		ObjectMapper mapper = objectMapper(new ObjectMapper());
-		writer.jsonObjectMarshaller(new JacksonJsonObjectMarshaller<>(mapper));
-		return writer.build();
+		SimpleModule module = new SimpleModule();
+		module.addSerializer(new KeyValueSerializer());
+		module.addSerializer(new ScoredValueSerializer());
+		module.addSerializer(new StreamMessageSerializer());
+		module.addSerializer(new SampleSerializer());
+		mapper.registerModule(module);
+		return () -> new JsonItemEncoder<>(mapper, charset());
 	}
 
-	private <T> XmlResourceItemWriter<T> xmlWriter(WritableResource resource) {
-		XmlResourceItemWriterBuilder<T> writer = new XmlResourceItemWriterBuilder<>();
-		writer.name(resource.getFilename());
-		writer.append(fileWriterArgs.isAppend());
-		writer.encoding(fileWriterArgs.getFileArgs().getEncoding());
-		writer.lineSeparator(fileWriterArgs.getLineSeparator());
-		writer.rootName(fileWriterArgs.getRootName());
-		writer.resource(resource);
-		writer.saveState(false);
+	private <T> ResourceItemWriter<T> xmlWriter(WritableResource resource) {
 		XmlMapper mapper = objectMapper(new XmlMapper());
 		mapper.setConfig(mapper.getSerializationConfig().withRootName(fileWriterArgs.getElementName()));
-		writer.xmlObjectMarshaller(new JacksonJsonObjectMarshaller<>(mapper));
-		return writer.build();
+		JacksonJsonObjectMarshaller<T> marshaller = new JacksonJsonObjectMarshaller<>(mapper);
+		String lineSeparator = fileWriterArgs.getLineSeparator();
+		String rootName = fileWriterArgs.getRootName();
+		ResourceItemWriter<T> writer = writer(resource,
+				() -> new StringItemEncoder<>(item -> " " + marshaller.marshal(item), charset()));
+		writer.setHeader("<" + rootName + ">" + lineSeparator);
+		writer.setSeparator(lineSeparator);
+		writer.setFooter(lineSeparator + "</" + rootName + ">" + lineSeparator);
+		return writer;
 	}
 
-	private ItemWriter<Map<String, Object>> delimitedWriter(WritableResource resource,
+	private ResourceItemWriter<Map<String, Object>> delimitedWriter(WritableResource resource,
 			Supplier<Map<String, Object>> headerSupplier) {
-		FlatFileItemWriterBuilder<Map<String, Object>> writer = flatFileWriter(resource);
-		DelimitedBuilder<Map<String, Object>> delimitedBuilder = writer.delimited();
+		DelimitedBuilder<Map<String, Object>> delimitedBuilder = new FlatFileItemWriterBuilder<Map<String, Object>>()
+				.delimited();
 		delimitedBuilder.delimiter(fileWriterArgs.getFileArgs().getDelimiter());
 		delimitedBuilder.fieldExtractor(new PassThroughFieldExtractor<>());
 		delimitedBuilder.quoteCharacter(String.valueOf(fileWriterArgs.getFileArgs().getQuoteCharacter()));
-		return writer(writer, delimitedBuilder.build(), headerSupplier);
+		return lineWriter(resource, delimitedBuilder.build(), headerSupplier);
 	}
 
-	private FlatFileItemWriter<Map<String, Object>> writer(FlatFileItemWriterBuilder<Map<String, Object>> writer,
+	private ResourceItemWriter<Map<String, Object>> lineWriter(WritableResource resource,
 			LineAggregator<Map<String, Object>> lineAggregator, Supplier<Map<String, Object>> headerSupplier) {
-		writer.lineAggregator(lineAggregator);
+		ResourceItemWriter<Map<String, Object>> writer = writer(resource,
+				() -> new StringItemEncoder<>(lineAggregator::aggregate, charset()));
+		writer.setTerminator(fileWriterArgs.getLineSeparator());
 		if (fileWriterArgs.getFileArgs().isHeader()) {
 			Map<String, Object> headerRecord = headerSupplier.get();
 			if (CollectionUtils.isEmpty(headerRecord)) {
@@ -204,34 +281,36 @@ public class FileExport extends AbstractRedisExportCommand {
 				fields.forEach(f -> fieldMap.put(f, f));
 				String headerLine = lineAggregator.aggregate(fieldMap);
 				log.info("Found header: {}", headerLine);
-				writer.headerCallback(w -> w.write(headerLine));
+				writer.setHeader(headerLine + fileWriterArgs.getLineSeparator());
 			}
 		}
-		return writer.build();
+		return writer;
 	}
 
-	private ItemWriter<Map<String, Object>> fixedLengthWriter(WritableResource resource,
+	private ResourceItemWriter<Map<String, Object>> fixedLengthWriter(WritableResource resource,
 			Supplier<Map<String, Object>> headerSupplier) {
-		FlatFileItemWriterBuilder<Map<String, Object>> writer = flatFileWriter(resource);
-		FormattedBuilder<Map<String, Object>> formattedBuilder = writer.formatted();
+		FormattedBuilder<Map<String, Object>> formattedBuilder = new FlatFileItemWriterBuilder<Map<String, Object>>()
+				.formatted();
 		formattedBuilder.format(fileWriterArgs.getFormatterString());
 		formattedBuilder.fieldExtractor(new PassThroughFieldExtractor<>());
-		return writer(writer, formattedBuilder.build(), headerSupplier);
+		return lineWriter(resource, formattedBuilder.build(), headerSupplier);
 	}
 
-	private <T> FlatFileItemWriterBuilder<T> flatFileWriter(WritableResource resource) {
-		FlatFileItemWriterBuilder<T> builder = new FlatFileItemWriterBuilder<>();
-		builder.name(resource.getFilename());
-		builder.resource(resource);
-		builder.append(fileWriterArgs.isAppend());
-		builder.encoding(fileWriterArgs.getFileArgs().getEncoding());
-		builder.forceSync(fileWriterArgs.isForceSync());
-		builder.lineSeparator(fileWriterArgs.getLineSeparator());
-		builder.saveState(false);
-		builder.shouldDeleteIfEmpty(fileWriterArgs.isShouldDeleteIfEmpty());
-		builder.shouldDeleteIfExists(fileWriterArgs.isShouldDeleteIfExists());
-		builder.transactional(fileWriterArgs.isTransactional());
-		return builder;
+	private <T> ResourceItemWriter<T> writer(WritableResource resource, Supplier<ItemEncoder<T>> encoder) {
+		ResourceItemWriter<T> writer = new ResourceItemWriter<>(resource, encoder);
+		writer.setName(resource.getFilename());
+		writer.setAppend(fileWriterArgs.isAppend());
+		writer.setEncoding(charset());
+		writer.setForceSync(fileWriterArgs.isForceSync());
+		writer.setShouldDeleteIfEmpty(fileWriterArgs.isShouldDeleteIfEmpty());
+		writer.setShouldDeleteIfExists(fileWriterArgs.isShouldDeleteIfExists());
+		writer.setThreads(fileWriterArgs.getWriterThreads());
+		writer.setOrdered(fileWriterArgs.isOrdered());
+		return writer;
+	}
+
+	private Charset charset() {
+		return Charset.forName(fileWriterArgs.getFileArgs().getEncoding());
 	}
 
 	public String getFile() {
@@ -242,6 +321,14 @@ public class FileExport extends AbstractRedisExportCommand {
 		this.file = file;
 	}
 
+	public FileShardArgs getShardArgs() {
+		return shardArgs;
+	}
+
+	public void setShardArgs(FileShardArgs shardArgs) {
+		this.shardArgs = shardArgs;
+	}
+
 	public FileWriterArgs getFileWriterArgs() {
 		return fileWriterArgs;
 	}
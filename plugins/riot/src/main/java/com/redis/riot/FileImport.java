@@ -1,6 +1,9 @@
 package com.redis.riot;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,8 +16,12 @@ import java.util.regex.Pattern;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.LineCallbackHandler;
+import org.springframework.batch.item.file.LineMapper;
 import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
 import org.springframework.batch.item.file.mapping.JsonLineMapper;
 import org.springframework.batch.item.file.separator.DefaultRecordSeparatorPolicy;
 import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
@@ -36,14 +43,22 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.redis.riot.core.PartitionItemReader;
 import com.redis.riot.core.RiotUtils;
 import com.redis.riot.core.Step;
 import com.redis.riot.core.processor.RegexNamedGroupFunction;
+import com.redis.riot.file.CsvLineTokenizer;
+import com.redis.riot.file.DumpFileItemReader;
+import com.redis.riot.file.DumpRecord;
+import com.redis.riot.file.FileRangeResource;
 import com.redis.riot.file.FileType;
 import com.redis.riot.file.FileUtils;
 import com.redis.riot.file.HeaderCallbackHandler;
+import com.redis.riot.file.LineMapperItemProcessor;
 import com.redis.riot.file.MapFieldSetMapper;
 import com.redis.riot.file.MapToFieldFunction;
+import com.redis.riot.file.MappedLineItemReader;
+import com.redis.riot.file.NumberedLine;
 import com.redis.riot.file.ObjectMapperLineMapper;
 import com.redis.riot.file.ToMapFunction;
 import com.redis.riot.file.xml.XmlItemReader;
@@ -60,6 +75,8 @@ import picocli.CommandLine.Parameters;
 @Command(name = "file-import", description = "Import data from files.")
 public class FileImport extends AbstractRedisImportCommand {
 
+	public static final int DEFAULT_FILE_CONCURRENCY = 1;
+
 	@Parameters(arity = "1..*", description = "Files or URLs to import. Use '-' to read from stdin.", paramLabel = "FILE")
 	private List<String> files;
 
@@ -72,6 +89,11 @@ public class FileImport extends AbstractRedisImportCommand {
 	@Option(arity = "1..*", names = "--regex", description = "Regular expressions used to extract values from fields in the form field1=\"regex\" field2=\"regex\"...", paramLabel = "<f=rex>")
 	private Map<String, Pattern> regexes = new LinkedHashMap<>();
 
+	@Option(names = "--file-concurrency", description = "Max number of files imported concurrently (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private int fileConcurrency = DEFAULT_FILE_CONCURRENCY;
+
+	private int concurrentSteps = 1;
+
 	@Override
 	protected Job job() throws IOException {
 		Assert.notEmpty(files, "No file specified");
@@ -82,6 +104,7 @@ public class FileImport extends AbstractRedisImportCommand {
 				resources.add(fileReaderArgs.resource(expandedFile));
 			}
 		}
+		concurrentSteps = Math.max(1, Math.min(fileConcurrency, resources.size()));
 		for (Resource resource : resources) {
 			Step<?, ?> step = step(resource);
 			step.skip(ParseException.class);
@@ -91,25 +114,177 @@ public class FileImport extends AbstractRedisImportCommand {
 			step.taskName(taskName(resource));
 			steps.add(step);
 		}
-		return job(steps);
+		return job(steps, fileConcurrency, String.format("Importing %d files", steps.size()));
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private Step<?, ?> step(Resource resource) {
+	private Step<?, ?> step(Resource resource) throws IOException {
 		String name = resource.getFilename();
 		FileType type = fileType(resource);
+		if (type == FileType.DUMP) {
+			return dumpStep(name, resource);
+		}
+		FileRangePartitioner partitioner = partitioner(resource, type);
+		if (partitioner == null && isParallelParsing(resource, type)) {
+			return lineStep(name, resource, type);
+		}
 		if (hasOperations()) {
-			ItemReader<Map<String, Object>> reader = (ItemReader) createReader(resource, type, Map.class);
+			ItemReader<Map<String, Object>> reader = (ItemReader) reader(resource, type, Map.class, partitioner);
 			RedisItemWriter<String, String, Map<String, Object>> writer = operationWriter();
 			configureTargetRedisWriter(writer);
-			return new Step<>(name, reader, writer).processor(processor());
+			return new Step<>(name, reader, writer).processor(processor()).partitioner(partitioner);
 		}
 		Assert.isTrue(type != FileType.CSV, "CSV file import requires a Redis command");
 		Assert.isTrue(type != FileType.FIXED, "Fixed-length file import requires a Redis command");
-		ItemReader<KeyValue> reader = createReader(resource, type, KeyValue.class);
+		ItemReader<KeyValue> reader = reader(resource, type, KeyValue.class, partitioner);
 		RedisItemWriter<String, String, KeyValue<String, Object>> writer = RedisItemWriter.struct();
 		configureTargetRedisWriter(writer);
-		return new Step<>(name, reader, writer);
+		return new Step<>(name, reader, writer).partitioner(partitioner);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Step<DumpRecord, KeyValue<byte[], Object>> dumpStep(String name, Resource resource) throws IOException {
+		Assert.isTrue(!hasOperations(), "Dump file import does not support Redis commands");
+		DumpFileItemReader reader = new DumpFileItemReader(resource);
+		reader.setName(name + "-dump-file-reader");
+		reader.setMaxItemCount(fileReaderArgs.getMaxItemCount());
+		reader.setSaveState(isSaveState());
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> writer = (RedisItemWriter) RedisItemWriter.dump();
+		configureTargetRedisWriter(writer);
+		Step<DumpRecord, KeyValue<byte[], Object>> step = new Step<>(name, reader, writer);
+		step.processor(new FunctionItemProcessor<>(this::keyValue));
+		if (resource.isFile()) {
+			Path file = resource.getFile().toPath();
+			step.maxItemCountSupplier(() -> DumpFileItemReader.count(file));
+		}
+		return step;
+	}
+
+	private KeyValue<byte[], Object> keyValue(DumpRecord record) {
+		KeyValue<byte[], Object> keyValue = new KeyValue<>();
+		keyValue.setKey(record.getKey());
+		keyValue.setType(record.getType());
+		keyValue.setTtl(record.getTtl());
+		keyValue.setValue(record.getDump());
+		return keyValue;
+	}
+
+	private boolean isParallelParsing(Resource resource, FileType type) {
+		if (!fileReaderArgs.isParallelParsing() || getJobArgs().getThreads() < 2) {
+			return false;
+		}
+		if (type == FileType.CSV || type == FileType.JSONL || type == FileType.FIXED) {
+			return true;
+		}
+		log.info("Parsing {} in reader: only CSV, JSONL, and fixed-length files can be parsed in parallel",
+				resource.getFilename());
+		return false;
+	}
+
+	/**
+	 * Step whose reader only hands out raw lines, which are then tokenized or
+	 * deserialized concurrently by the processor.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Step<?, ?> lineStep(String name, Resource resource, FileType type) {
+		log.info("Parsing lines of {} in processor", resource.getFilename());
+		AbstractLineTokenizer tokenizer = null;
+		if (type == FileType.CSV) {
+			tokenizer = delimitedLineTokenizer(delimiter(resource));
+		} else if (type == FileType.FIXED) {
+			tokenizer = fixedLengthTokenizer();
+		}
+		ItemStreamReader<NumberedLine> reader = lineReader(resource, tokenizer);
+		if (hasOperations()) {
+			LineMapper<Map<String, Object>> lineMapper = tokenizer == null ? (LineMapper) new JsonLineMapper()
+					: lineMapper(tokenizer);
+			ItemProcessor<NumberedLine, Map<String, Object>> processor = RiotUtils
+					.processor(new LineMapperItemProcessor<>(lineMapper), processor());
+			RedisItemWriter<String, String, Map<String, Object>> writer = operationWriter();
+			configureTargetRedisWriter(writer);
+			return new Step<>(name, reader, writer).processor(processor);
+		}
+		Assert.isTrue(type != FileType.CSV, "CSV file import requires a Redis command");
+		Assert.isTrue(type != FileType.FIXED, "Fixed-length file import requires a Redis command");
+		LineMapper<KeyValue> lineMapper = new ObjectMapperLineMapper<>(objectMapper(new ObjectMapper()),
+				KeyValue.class);
+		RedisItemWriter<String, String, KeyValue<String, Object>> writer = RedisItemWriter.struct();
+		configureTargetRedisWriter(writer);
+		return new Step<>(name, reader, writer).processor((ItemProcessor) new LineMapperItemProcessor<>(lineMapper));
+	}
+
+	private ItemStreamReader<NumberedLine> lineReader(Resource resource, AbstractLineTokenizer tokenizer) {
+		if (tokenizer == null) {
+			return flatFileReader(resource, NumberedLine.lineMapper(), null);
+		}
+		fieldNames(resource, tokenizer);
+		return flatFileReader(resource, NumberedLine.lineMapper(),
+				new HeaderCallbackHandler(tokenizer, headerIndex()));
+	}
+
+	private DefaultLineMapper<Map<String, Object>> lineMapper(AbstractLineTokenizer tokenizer) {
+		DefaultLineMapper<Map<String, Object>> lineMapper = new DefaultLineMapper<>();
+		lineMapper.setLineTokenizer(tokenizer);
+		lineMapper.setFieldSetMapper(new MapFieldSetMapper());
+		return lineMapper;
+	}
+
+	private FileRangePartitioner partitioner(Resource resource, FileType type) throws IOException {
+		if (!fileReaderArgs.isPartitioned()) {
+			return null;
+		}
+		if (getJobArgs().getThreads() < 2) {
+			log.info("Not partitioning {}: more than one thread required", resource.getFilename());
+			return null;
+		}
+		if (!resource.isFile() || !(type == FileType.CSV || type == FileType.JSONL || type == FileType.FIXED)) {
+			log.info("Not partitioning {}: only local uncompressed CSV, JSONL, and fixed-length files are supported",
+					resource.getFilename());
+			return null;
+		}
+		if (fileReaderArgs.getMaxItemCount() != FileReaderArgs.DEFAULT_MAX_ITEM_COUNT) {
+			log.info("Not partitioning {}: max item count is set", resource.getFilename());
+			return null;
+		}
+		Path file = resource.getFile().toPath();
+		long start = FileUtils.skipLines(file, linesToSkip(), charset(), line -> {
+		});
+		return new FileRangePartitioner(file, start);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private <T> ItemReader<T> reader(Resource resource, FileType type, Class<T> itemType,
+			FileRangePartitioner partitioner) throws IOException {
+		if (partitioner == null) {
+			return createReader(resource, type, itemType);
+		}
+		if (type == FileType.JSONL) {
+			return new PartitionItemReader<>(context -> jsonlReader(partitioner.resource(context), itemType));
+		}
+		AbstractLineTokenizer tokenizer = type == FileType.CSV ? delimitedLineTokenizer(delimiter(resource))
+				: fixedLengthTokenizer();
+		// Resolve header names once, all partitions share the tokenizer
+		FileUtils.skipLines(resource.getFile().toPath(), linesToSkip(), charset(),
+				new HeaderCallbackHandler(tokenizer, headerIndex()));
+		return new PartitionItemReader<>(
+				context -> (ItemStreamReader) flatFileReader(partitioner.resource(context), tokenizer));
+	}
+
+	private Charset charset() {
+		if (fileReaderArgs.getFileArgs().getEncoding() == null) {
+			return Charset.defaultCharset();
+		}
+		return Charset.forName(fileReaderArgs.getFileArgs().getEncoding());
+	}
+
+	@Override
+	protected int concurrentSteps() {
+		return concurrentSteps;
+	}
+
+	@Override
+	protected String jobIdentity() {
+		return super.jobIdentity() + files + fileType;
 	}
 
 	@Override
@@ -157,29 +332,24 @@ public class FileImport extends AbstractRedisImportCommand {
 		case JSONL:
 			return jsonlReader(resource, itemType);
 		case CSV:
-			return (FlatFileItemReader) flatFileReader(resource, delimitedLineTokenizer(delimiter(resource)));
+			return (ItemStreamReader) flatFileReader(resource, delimitedLineTokenizer(delimiter(resource)));
 		case FIXED:
-			return (FlatFileItemReader) flatFileReader(resource, fixedLengthTokenizer());
+			return (ItemStreamReader) flatFileReader(resource, fixedLengthTokenizer());
 		default:
 			throw new UnsupportedOperationException("Unsupported file type: " + fileType);
 		}
 	}
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private <T> FlatFileItemReader<T> jsonlReader(Resource resource, Class<T> itemType) {
+	private <T> ItemStreamReader<T> jsonlReader(Resource resource, Class<T> itemType) {
 		if (Map.class.isAssignableFrom(itemType)) {
-			FlatFileItemReaderBuilder<Map<String, Object>> reader = flatFileReader(resource);
-			return (FlatFileItemReader) reader.fieldSetMapper(new MapFieldSetMapper()).lineMapper(new JsonLineMapper())
-					.build();
+			return (ItemStreamReader) flatFileReader(resource, new JsonLineMapper(), null);
 		}
-		FlatFileItemReaderBuilder<T> reader = flatFileReader(resource);
-		reader.lineMapper(new ObjectMapperLineMapper<>(objectMapper(new ObjectMapper()), itemType));
-		return reader.build();
+		return flatFileReader(resource, new ObjectMapperLineMapper<>(objectMapper(new ObjectMapper()), itemType), null);
 	}
 
-	private DelimitedLineTokenizer delimitedLineTokenizer(String delimiter) {
-		DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
-		tokenizer.setDelimiter(delimiter);
+	private CsvLineTokenizer delimitedLineTokenizer(String delimiter) {
+		CsvLineTokenizer tokenizer = new CsvLineTokenizer(delimiter);
 		tokenizer.setQuoteCharacter(fileReaderArgs.getFileArgs().getQuoteCharacter());
 		if (!ObjectUtils.isEmpty(fileReaderArgs.getIncludedFields())) {
 			tokenizer.setIncludedFields(
@@ -188,7 +358,67 @@ public class FileImport extends AbstractRedisImportCommand {
 		return tokenizer;
 	}
 
-	private FlatFileItemReader<Map<String, Object>> flatFileReader(Resource resource, AbstractLineTokenizer tokenizer) {
+	private ItemStreamReader<Map<String, Object>> flatFileReader(Resource resource, AbstractLineTokenizer tokenizer) {
+		fieldNames(resource, tokenizer);
+		return flatFileReader(resource, lineMapper(tokenizer), new HeaderCallbackHandler(tokenizer, headerIndex()));
+	}
+
+	private <T> ItemStreamReader<T> flatFileReader(Resource resource, LineMapper<T> lineMapper,
+			LineCallbackHandler skippedLinesCallback) {
+		if (isMemoryMapped(resource)) {
+			return mappedReader(resource, lineMapper, skippedLinesCallback);
+		}
+		FlatFileItemReaderBuilder<T> builder = flatFileReader(resource);
+		builder.lineMapper(lineMapper);
+		if (skippedLinesCallback != null) {
+			builder.skippedLinesCallback(skippedLinesCallback);
+		}
+		return builder.build();
+	}
+
+	private boolean isMemoryMapped(Resource resource) {
+		if (!fileReaderArgs.isMemoryMapped()) {
+			return false;
+		}
+		if (!resource.isFile()) {
+			log.info("Not memory-mapping {}: only local uncompressed files are supported", resource.getFilename());
+			return false;
+		}
+		if (!MappedLineItemReader.supports(charset())) {
+			log.info("Not memory-mapping {}: unsupported encoding {}", resource.getFilename(), charset());
+			return false;
+		}
+		return true;
+	}
+
+	private <T> MappedLineItemReader<T> mappedReader(Resource resource, LineMapper<T> lineMapper,
+			LineCallbackHandler skippedLinesCallback) {
+		MappedLineItemReader<T> reader;
+		if (resource instanceof FileRangeResource) {
+			FileRangeResource range = (FileRangeResource) resource;
+			// Lines to skip precede the first partition
+			reader = new MappedLineItemReader<>(range.getPath(), range.getStart(), range.getEnd());
+		} else {
+			try {
+				reader = new MappedLineItemReader<>(resource.getFile().toPath());
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not resolve file " + resource.getFilename(), e);
+			}
+			reader.setLinesToSkip(linesToSkip());
+		}
+		reader.setName(resource.getFilename() + "-mapped-file-reader");
+		reader.setMaxItemCount(fileReaderArgs.getMaxItemCount());
+		reader.setSaveState(isSaveState());
+		reader.setLineMapper(lineMapper);
+		reader.setSkippedLinesCallback(skippedLinesCallback);
+		reader.setCharset(charset());
+		reader.setComments(FlatFileItemReader.DEFAULT_COMMENT_PREFIXES);
+		reader.setQuoteCharacter(fileReaderArgs.getFileArgs().getQuoteCharacter());
+		reader.setContinuation(fileReaderArgs.getContinuationString());
+		return reader;
+	}
+
+	private void fieldNames(Resource resource, AbstractLineTokenizer tokenizer) {
 		if (ObjectUtils.isEmpty(fileReaderArgs.getFields())) {
 			Assert.isTrue(fileReaderArgs.getFileArgs().isHeader(),
 					String.format("Could not create reader for file '%s': no header or field names specified",
@@ -196,11 +426,6 @@ public class FileImport extends AbstractRedisImportCommand {
 		} else {
 			tokenizer.setNames(fileReaderArgs.getFields().toArray(new String[0]));
 		}
-		FlatFileItemReaderBuilder<Map<String, Object>> builder = flatFileReader(resource);
-		builder.fieldSetMapper(new MapFieldSetMapper());
-		builder.lineTokenizer(tokenizer);
-		builder.skippedLinesCallback(new HeaderCallbackHandler(tokenizer, headerIndex()));
-		return builder.build();
 	}
 
 	private <T> FlatFileItemReaderBuilder<T> flatFileReader(Resource resource) {
@@ -211,9 +436,15 @@ public class FileImport extends AbstractRedisImportCommand {
 			builder.encoding(fileReaderArgs.getFileArgs().getEncoding());
 		}
 		builder.recordSeparatorPolicy(recordSeparatorPolicy());
-		builder.linesToSkip(linesToSkip());
+		if (resource instanceof FileRangeResource) {
+			// Lines to skip precede the first partition
+			builder.linesToSkip(0);
+		} else {
+			builder.linesToSkip(linesToSkip());
+		}
 		builder.strict(true);
-		builder.saveState(false);
+		builder.name(resource.getFilename() + "-flat-file-reader");
+		builder.saveState(isSaveState());
 		return builder;
 	}
 
@@ -326,6 +557,14 @@ public class FileImport extends AbstractRedisImportCommand {
 		this.regexes = regexes;
 	}
 
+	public int getFileConcurrency() {
+		return fileConcurrency;
+	}
+
+	public void setFileConcurrency(int concurrency) {
+		this.fileConcurrency = concurrency;
+	}
+
 	public FileType getFileType() {
 		return fileType;
 	}
@@ -0,0 +1,72 @@
+package com.redis.riot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import com.redis.riot.file.FileRangeResource;
+import com.redis.riot.file.FileUtils;
+
+/**
+ * Partitions a local file into line-aligned byte ranges.
+ */
+public class FileRangePartitioner implements Partitioner {
+
+	public static final String PARTITION_PREFIX = "partition";
+	public static final String START_KEY = "start";
+	public static final String END_KEY = "end";
+
+	private final Path file;
+	private final long start;
+
+	/**
+	 *
+	 * @param file  file to partition
+	 * @param start byte offset of the first line to partition, e.g. after header
+	 *              lines
+	 */
+	public FileRangePartitioner(Path file, long start) {
+		this.file = file;
+		this.start = start;
+	}
+
+	@Override
+	public Map<String, ExecutionContext> partition(int gridSize) {
+		long[] offsets;
+		try {
+			offsets = FileUtils.splitLines(file, start, gridSize);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not partition file " + file, e);
+		}
+		Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+		if (offsets.length == 1) {
+			partitions.put(PARTITION_PREFIX + 0, context(start, start));
+		}
+		for (int index = 0; index < offsets.length - 1; index++) {
+			partitions.put(PARTITION_PREFIX + index, context(offsets[index], offsets[index + 1]));
+		}
+		return partitions;
+	}
+
+	private ExecutionContext context(long start, long end) {
+		ExecutionContext context = new ExecutionContext();
+		context.putLong(START_KEY, start);
+		context.putLong(END_KEY, end);
+		return context;
+	}
+
+	public FileRangeResource resource(ExecutionContext context) {
+		return new FileRangeResource(file, context.getLong(START_KEY), context.getLong(END_KEY));
+	}
+
+	@Override
+	public String toString() {
+		return "FileRangePartitioner [file=" + file + ", start=" + start + "]";
+	}
+
+}
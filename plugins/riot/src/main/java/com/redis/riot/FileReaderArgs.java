@@ -4,12 +4,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
-import java.util.zip.GZIPInputStream;
 
 import org.springframework.core.io.Resource;
 
-import com.redis.riot.file.FileUtils;
+import com.redis.riot.file.Compression;
 import com.redis.riot.file.FilenameInputStreamResource;
+import com.redis.riot.file.ReadAheadInputStream;
 
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Option;
@@ -40,19 +40,43 @@ public class FileReaderArgs {
 	@Option(names = "--max", description = "Max number of lines to import.", paramLabel = "<count>")
 	private int maxItemCount = DEFAULT_MAX_ITEM_COUNT;
 
+	@Option(names = "--partitioned", description = "Split local uncompressed CSV/JSONL/fixed-length files into line-aligned ranges read in parallel, one per thread. Records must not span multiple lines.")
+	private boolean partitioned;
+
+	@Option(names = "--parallel-parse", description = "Tokenize/deserialize CSV/JSONL/fixed-length lines in worker threads instead of the shared reader.")
+	private boolean parallelParsing;
+
+	@Option(names = "--mmap", description = "Memory-map local uncompressed CSV/JSONL/fixed-length files instead of reading them through a buffered stream. Requires an ASCII-compatible encoding.")
+	private boolean memoryMapped;
+
+	@Option(names = "--read-ahead", description = "Decompress files on a separate thread ahead of the reader.")
+	private boolean readAhead;
+
 	@ArgGroup(exclusive = false)
 	private FileArgs fileArgs = new FileArgs();
 
 	public Resource resource(String location) throws IOException {
 		Resource resource = fileArgs.resource(location);
-		InputStream inputStream = resource.getInputStream();
-		if (fileArgs.isGzipped() || FileUtils.isGzip(location)) {
-			return new FilenameInputStreamResource(new GZIPInputStream(inputStream), resource.getFilename(),
-					resource.getDescription());
+		Compression compression = fileArgs.compression(location);
+		if (compression != null) {
+			InputStream inputStream = compression.inputStream(resource.getInputStream(),
+					fileArgs.getCompressionThreads());
+			if (readAhead) {
+				inputStream = new ReadAheadInputStream(inputStream);
+			}
+			return new FilenameInputStreamResource(inputStream, resource.getFilename(), resource.getDescription());
 		}
 		return resource;
 	}
 
+	public boolean isReadAhead() {
+		return readAhead;
+	}
+
+	public void setReadAhead(boolean readAhead) {
+		this.readAhead = readAhead;
+	}
+
 	public List<String> getColumnRanges() {
 		return columnRanges;
 	}
@@ -109,6 +133,30 @@ public class FileReaderArgs {
 		this.maxItemCount = maxItemCount;
 	}
 
+	public boolean isPartitioned() {
+		return partitioned;
+	}
+
+	public void setPartitioned(boolean partitioned) {
+		this.partitioned = partitioned;
+	}
+
+	public boolean isParallelParsing() {
+		return parallelParsing;
+	}
+
+	public void setParallelParsing(boolean parallelParsing) {
+		this.parallelParsing = parallelParsing;
+	}
+
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
 	public FileArgs getFileArgs() {
 		return fileArgs;
 	}
@@ -121,7 +169,9 @@ public class FileReaderArgs {
 	public String toString() {
 		return "FileReaderArgs [columnRanges=" + columnRanges + ", continuationString=" + continuationString
 				+ ", fields=" + fields + ", headerLine=" + headerLine + ", includedFields=" + includedFields
-				+ ", linesToSkip=" + linesToSkip + ", maxItemCount=" + maxItemCount + ", fileArgs=" + fileArgs + "]";
+				+ ", linesToSkip=" + linesToSkip + ", maxItemCount=" + maxItemCount + ", partitioned=" + partitioned
+				+ ", parallelParsing=" + parallelParsing + ", memoryMapped=" + memoryMapped + ", readAhead=" + readAhead
+				+ ", fileArgs=" + fileArgs + "]";
 	}
 
 }
@@ -0,0 +1,157 @@
+package com.redis.riot;
+
+import java.util.function.Function;
+
+import org.springframework.util.unit.DataSize;
+
+import com.redis.riot.file.RollingResourceItemWriter;
+
+import io.lettuce.core.cluster.SlotHash;
+import picocli.CommandLine.Option;
+
+public class FileShardArgs {
+
+	public static final int DEFAULT_SHARDS = 16;
+	public static final String DEFAULT_SEPARATOR = ":";
+	public static final String DEFAULT_MANIFEST_NAME = "manifest.json";
+	public static final String DEFAULT_PREFIX_SHARD = "_";
+	public static final int DEFAULT_MAX_OPEN_SHARDS = RollingResourceItemWriter.DEFAULT_MAX_OPEN_SHARDS;
+
+	@Option(names = "--max-records", description = "Roll over to a new file after this many records. File name must contain {seq}.", paramLabel = "<int>")
+	private long maxRecords;
+
+	@Option(names = "--max-size", description = "Roll over to a new file after this many uncompressed bytes, for example 100MB 2GB. File name must contain {seq}.", paramLabel = "<size>")
+	private DataSize maxSize;
+
+	@Option(names = "--shard-by", description = "Split keys across files by ${COMPLETION-CANDIDATES}. File name must contain {shard}.", paramLabel = "<name>")
+	private ShardBy shardBy;
+
+	@Option(names = "--shards", description = "Number of key slot ranges when sharding by slot (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private int shards = DEFAULT_SHARDS;
+
+	@Option(names = "--shard-sep", description = "Key prefix separator when sharding by prefix. Keys without separator go to shard '_' (default: ${DEFAULT-VALUE}).", paramLabel = "<str>")
+	private String separator = DEFAULT_SEPARATOR;
+
+	@Option(names = "--max-open-shards", description = "Max number of shards with a file open at the same time. Least recently written shards are closed and continue in their next file (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private int maxOpenShards = DEFAULT_MAX_OPEN_SHARDS;
+
+	@Option(names = "--manifest", description = "Manifest file listing exported files and their record counts (default: manifest.json next to the files).", paramLabel = "<file>")
+	private String manifest;
+
+	public boolean isEnabled() {
+		return maxRecords > 0 || maxSize != null || shardBy != null;
+	}
+
+	/**
+	 * 
+	 * @return function returning the shard name of a key, or null if not
+	 *         sharding
+	 */
+	public Function<String, String> shardFunction() {
+		if (shardBy == null) {
+			return null;
+		}
+		switch (shardBy) {
+		case SLOT:
+			return this::slotShard;
+		case PREFIX:
+			return this::prefixShard;
+		default:
+			throw new UnsupportedOperationException("Unsupported shard: " + shardBy);
+		}
+	}
+
+	private String slotShard(String key) {
+		return String.valueOf(SlotHash.getSlot(key) * shards / SlotHash.SLOT_COUNT);
+	}
+
+	private String prefixShard(String key) {
+		int index = key.indexOf(separator);
+		if (index <= 0) {
+			return DEFAULT_PREFIX_SHARD;
+		}
+		String prefix = key.substring(0, index);
+		StringBuilder builder = new StringBuilder(prefix.length());
+		for (int i = 0; i < prefix.length(); i++) {
+			char c = prefix.charAt(i);
+			builder.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '.' ? c : '_');
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 
+	 * @param template location of the exported files
+	 * @return location of the manifest
+	 */
+	public String manifest(String template) {
+		if (manifest != null) {
+			return manifest;
+		}
+		return template.substring(0, template.lastIndexOf('/') + 1) + DEFAULT_MANIFEST_NAME;
+	}
+
+	public long getMaxRecords() {
+		return maxRecords;
+	}
+
+	public void setMaxRecords(long maxRecords) {
+		this.maxRecords = maxRecords;
+	}
+
+	public DataSize getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(DataSize maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public ShardBy getShardBy() {
+		return shardBy;
+	}
+
+	public void setShardBy(ShardBy shardBy) {
+		this.shardBy = shardBy;
+	}
+
+	public int getShards() {
+		return shards;
+	}
+
+	public void setShards(int shards) {
+		this.shards = shards;
+	}
+
+	public String getSeparator() {
+		return separator;
+	}
+
+	public void setSeparator(String separator) {
+		this.separator = separator;
+	}
+
+	public int getMaxOpenShards() {
+		return maxOpenShards;
+	}
+
+	public void setMaxOpenShards(int max) {
+		this.maxOpenShards = max;
+	}
+
+	public String getManifest() {
+		return manifest;
+	}
+
+	public void setManifest(String manifest) {
+		this.manifest = manifest;
+	}
+
+	@Override
+	public String toString() {
+		return "FileShardArgs [maxRecords=" + maxRecords + ", maxSize=" + maxSize + ", shardBy=" + shardBy
+				+ ", shards=" + shards + ", separator=" + separator + ", maxOpenShards=" + maxOpenShards + ", manifest="
+				+ manifest + "]";
+	}
+
+}
@@ -2,14 +2,18 @@ package com.redis.riot;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ExecutorService;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
 import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
 
 import com.google.cloud.spring.core.GcpScope;
-import com.redis.riot.file.FileUtils;
+import com.redis.riot.file.Compression;
+import com.redis.riot.file.DumpFileItemWriter;
 import com.redis.riot.file.OutputStreamResource;
 import com.redis.riot.file.SystemOutResource;
 
@@ -23,6 +27,10 @@ public class FileWriterArgs {
 	public static final String DEFAULT_ROOT_NAME = "root";
 	public static final boolean DEFAULT_SHOULD_DELETE_IF_EXISTS = true;
 	public static final boolean DEFAULT_TRANSACTIONAL = true;
+	public static final boolean DEFAULT_ORDERED = true;
+	public static final DataSize DEFAULT_DUMP_BLOCK_SIZE = DataSize.ofBytes(DumpFileItemWriter.DEFAULT_BLOCK_SIZE);
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
 
 	@Option(names = "--format", description = "Format string used to aggregate items.", hidden = true)
 	private String formatterString;
@@ -48,9 +56,26 @@ public class FileWriterArgs {
 	@Option(names = "--delete-exists", description = "Delete file if it already exists.", negatable = true, defaultValue = "true", fallbackValue = "true")
 	private boolean shouldDeleteIfExists = DEFAULT_SHOULD_DELETE_IF_EXISTS;
 
-	@Option(names = "--transactional", description = "Delay writing to the buffer if a transaction is active.", negatable = true, defaultValue = "true", fallbackValue = "true")
+	@Option(names = "--writer-threads", description = "Number of threads serializing chunks before they are appended to the file (default: serialize in step threads).", paramLabel = "<int>")
+	private int writerThreads;
+
+	@Option(names = "--ordered", description = "Append chunks to the file in the order they were written when using writer threads.", negatable = true, defaultValue = "true", fallbackValue = "true")
+	private boolean ordered = DEFAULT_ORDERED;
+
+	@Option(names = "--dump-compression", description = "Block compression for dump files: ${COMPLETION-CANDIDATES} (default: none).", paramLabel = "<name>")
+	private Compression dumpCompression;
+
+	@Option(names = "--dump-block-size", description = "Uncompressed size of dump file blocks (default: ${DEFAULT-VALUE}).", paramLabel = "<size>")
+	private DataSize dumpBlockSize = DEFAULT_DUMP_BLOCK_SIZE;
+
 	private boolean transactional = DEFAULT_TRANSACTIONAL;
 
+	@Option(names = "--transactional", description = "Deprecated: has no effect, each chunk is always appended whole once serialized.", negatable = true, fallbackValue = "true", hidden = true)
+	void deprecatedTransactional(boolean transactional) {
+		log.warn("Option --transactional is deprecated and has no effect: chunks are appended whole once serialized");
+		this.transactional = transactional;
+	}
+
 	@ArgGroup(exclusive = false)
 	private FileArgs fileArgs = defaultFileArgs();
 
@@ -61,6 +86,19 @@ public class FileWriterArgs {
 	}
 
 	public WritableResource resource(String location) throws IOException {
+		return resource(location, null);
+	}
+
+	/**
+	 *
+	 * @param location            file location, or null for standard output
+	 * @param compressionExecutor executor shared by the files being written to
+	 *                            compress gzip files, or null to compress on
+	 *                            threads of this file
+	 * @return resource to write the file to
+	 * @throws IOException if the file could not be opened
+	 */
+	public WritableResource resource(String location, ExecutorService compressionExecutor) throws IOException {
 		if (location == null) {
 			return new SystemOutResource();
 		}
@@ -68,10 +106,14 @@ public class FileWriterArgs {
 		Assert.notNull(resource, "Could not resolve file " + location);
 		Assert.isInstanceOf(WritableResource.class, resource);
 		WritableResource writableResource = (WritableResource) resource;
-		if (fileArgs.isGzipped() || FileUtils.isGzip(location)) {
-			OutputStream outputStream = writableResource.getOutputStream();
-			return new OutputStreamResource(new GZIPOutputStream(outputStream), resource.getFilename(),
-					resource.getDescription());
+		Compression compression = fileArgs.compression(location);
+		if (compression != null) {
+			OutputStream outputStream = compressionExecutor == null
+					? compression.outputStream(writableResource.getOutputStream(), fileArgs.getCompressionLevel(),
+							fileArgs.getCompressionThreads())
+					: compression.outputStream(writableResource.getOutputStream(), fileArgs.getCompressionLevel(),
+							compressionExecutor);
+			return new OutputStreamResource(outputStream, resource.getFilename(), resource.getDescription());
 		}
 		return writableResource;
 	}
@@ -148,6 +190,38 @@ public class FileWriterArgs {
 		this.transactional = transactional;
 	}
 
+	public int getWriterThreads() {
+		return writerThreads;
+	}
+
+	public void setWriterThreads(int threads) {
+		this.writerThreads = threads;
+	}
+
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	public void setOrdered(boolean ordered) {
+		this.ordered = ordered;
+	}
+
+	public Compression getDumpCompression() {
+		return dumpCompression;
+	}
+
+	public void setDumpCompression(Compression compression) {
+		this.dumpCompression = compression;
+	}
+
+	public DataSize getDumpBlockSize() {
+		return dumpBlockSize;
+	}
+
+	public void setDumpBlockSize(DataSize size) {
+		this.dumpBlockSize = size;
+	}
+
 	public FileArgs getFileArgs() {
 		return fileArgs;
 	}
@@ -161,7 +235,9 @@ public class FileWriterArgs {
 		return "FileWriterArgs [formatterString=" + formatterString + ", append=" + append + ", forceSync=" + forceSync
 				+ ", rootName=" + rootName + ", elementName=" + elementName + ", lineSeparator=" + lineSeparator
 				+ ", shouldDeleteIfEmpty=" + shouldDeleteIfEmpty + ", shouldDeleteIfExists=" + shouldDeleteIfExists
-				+ ", transactional=" + transactional + ", fileArgs=" + fileArgs + "]";
+				+ ", transactional=" + transactional + ", writerThreads=" + writerThreads + ", ordered=" + ordered
+				+ ", dumpCompression=" + dumpCompression + ", dumpBlockSize=" + dumpBlockSize + ", fileArgs=" + fileArgs
+				+ "]";
 	}
 
 }
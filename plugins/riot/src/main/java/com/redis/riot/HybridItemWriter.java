@@ -0,0 +1,70 @@
+package com.redis.riot;
+
+import java.util.function.Predicate;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Splits each chunk between a struct writer, for keys selected by the
+ * classifier, and a dump writer for all other keys, so that hybrid replication
+ * copies both kinds of keys in the same step.
+ */
+public class HybridItemWriter implements ItemStreamWriter<KeyValue<byte[], Object>> {
+
+	private final ItemStreamWriter<KeyValue<byte[], Object>> dumpWriter;
+	private final ItemStreamWriter<KeyValue<byte[], Object>> structWriter;
+	private final Predicate<KeyValue<byte[], Object>> classifier;
+
+	public HybridItemWriter(ItemStreamWriter<KeyValue<byte[], Object>> dumpWriter,
+			ItemStreamWriter<KeyValue<byte[], Object>> structWriter, Predicate<KeyValue<byte[], Object>> classifier) {
+		this.dumpWriter = dumpWriter;
+		this.structWriter = structWriter;
+		this.classifier = classifier;
+	}
+
+	@Override
+	public void open(ExecutionContext executionContext) throws ItemStreamException {
+		dumpWriter.open(executionContext);
+		structWriter.open(executionContext);
+	}
+
+	@Override
+	public void update(ExecutionContext executionContext) throws ItemStreamException {
+		dumpWriter.update(executionContext);
+		structWriter.update(executionContext);
+	}
+
+	@Override
+	public void close() throws ItemStreamException {
+		try {
+			dumpWriter.close();
+		} finally {
+			structWriter.close();
+		}
+	}
+
+	@Override
+	public void write(Chunk<? extends KeyValue<byte[], Object>> chunk) throws Exception {
+		Chunk<KeyValue<byte[], Object>> dumps = new Chunk<>();
+		Chunk<KeyValue<byte[], Object>> structs = new Chunk<>();
+		for (KeyValue<byte[], Object> item : chunk) {
+			if (KeyValue.hasValue(item) && classifier.test(item)) {
+				structs.add(item);
+			} else {
+				dumps.add(item);
+			}
+		}
+		if (!dumps.isEmpty()) {
+			dumpWriter.write(dumps);
+		}
+		if (!structs.isEmpty()) {
+			structWriter.write(structs);
+		}
+	}
+
+}
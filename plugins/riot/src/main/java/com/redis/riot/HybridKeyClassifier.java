@@ -0,0 +1,82 @@
+package com.redis.riot;
+
+import java.util.function.Predicate;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+/**
+ * Decides per key whether hybrid replication copies it with DUMP/RESTORE or
+ * with data structure-specific commands. Keys go through struct replication
+ * when their memory usage is over the threshold or when a processor changes
+ * their value (only streams for now), everything else is dumped. Keys over
+ * the memory usage limit are left to be skipped or migrated as large keys. The
+ * classification only depends on the key type and memory usage so it gives
+ * the same answer before and after processing, whether or not the key was read
+ * with a value.
+ */
+public class HybridKeyClassifier implements Predicate<KeyValue<byte[], Object>> {
+
+	private final long threshold;
+	private final long memUsageLimit;
+	private final boolean streamProcessing;
+
+	/**
+	 *
+	 * @param threshold        memory usage in bytes over which keys are copied
+	 *                         with struct commands
+	 * @param memUsageLimit    memory usage in bytes over which keys are not
+	 *                         replicated, or 0 for no limit
+	 * @param streamProcessing whether processors change stream values
+	 */
+	public HybridKeyClassifier(long threshold, long memUsageLimit, boolean streamProcessing) {
+		this.threshold = threshold;
+		this.memUsageLimit = memUsageLimit;
+		this.streamProcessing = streamProcessing;
+	}
+
+	/**
+	 *
+	 * @return true if the key should be replicated with struct commands
+	 */
+	@Override
+	public boolean test(KeyValue<byte[], Object> item) {
+		DataType type = KeyValue.type(item);
+		if (type == null || !isSupported(type)) {
+			return false;
+		}
+		if (memUsageLimit > 0 && item.getMemoryUsage() > memUsageLimit) {
+			return false;
+		}
+		if (streamProcessing && type == DataType.STREAM) {
+			return true;
+		}
+		return item.getMemoryUsage() > threshold;
+	}
+
+	/**
+	 *
+	 * @return true if values of the given type can be read and written as data
+	 *         structures by hybrid replication
+	 */
+	public static boolean isSupported(DataType type) {
+		switch (type) {
+		case HASH:
+		case SET:
+		case ZSET:
+		case LIST:
+		case STREAM:
+		case STRING:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HybridKeyClassifier [threshold=" + threshold + ", memUsageLimit=" + memUsageLimit
+				+ ", streamProcessing=" + streamProcessing + "]";
+	}
+
+}
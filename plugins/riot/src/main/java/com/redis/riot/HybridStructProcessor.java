@@ -0,0 +1,147 @@
+package com.redis.riot;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.util.Assert;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.sync.RedisModulesCommands;
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.Range;
+import io.lettuce.core.codec.ByteArrayCodec;
+
+/**
+ * Sets the value of keys selected for struct replication to their data
+ * structure, read from the source with type-specific commands, so that
+ * processors and the struct writer see the same values as with
+ * {@code --struct}. Keys over the hybrid threshold are read without a DUMP
+ * payload, smaller keys selected by the classifier have theirs replaced. Keys
+ * of types without struct support (e.g. JSON or timeseries) that were read
+ * without a value get their DUMP payload instead, unless they are over the
+ * memory usage limit. Keys that were deleted in the meantime are filtered out,
+ * other items are passed through untouched.
+ * <p>
+ * The source connection is opened before the step (or its first partition)
+ * starts and closed once the step (or its last partition) is done.
+ */
+public class HybridStructProcessor
+		implements ItemProcessor<KeyValue<byte[], Object>, KeyValue<byte[], Object>>, StepExecutionListener {
+
+	private final AbstractRedisClient client;
+	private final Predicate<KeyValue<byte[], Object>> classifier;
+	private final long memUsageLimit;
+	private StatefulRedisModulesConnection<byte[], byte[]> connection;
+	private int steps;
+
+	/**
+	 *
+	 * @param client        source Redis client
+	 * @param classifier    selects keys replicated with struct commands
+	 * @param memUsageLimit memory usage in bytes over which keys are not
+	 *                      replicated, or 0 for no limit
+	 */
+	public HybridStructProcessor(AbstractRedisClient client, Predicate<KeyValue<byte[], Object>> classifier,
+			long memUsageLimit) {
+		this.client = client;
+		this.classifier = classifier;
+		this.memUsageLimit = memUsageLimit;
+	}
+
+	@Override
+	public synchronized void beforeStep(StepExecution stepExecution) {
+		if (steps++ == 0) {
+			connection = RedisModulesUtils.connection(client, ByteArrayCodec.INSTANCE);
+		}
+	}
+
+	@Override
+	public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+		if (--steps == 0 && connection != null) {
+			connection.close();
+			connection = null;
+		}
+		return null;
+	}
+
+	@Override
+	public KeyValue<byte[], Object> process(KeyValue<byte[], Object> item) throws Exception {
+		if (!KeyValue.exists(item)) {
+			return item;
+		}
+		if (isDump(item)) {
+			Assert.state(connection != null, "Processor must be opened before it can be used");
+			byte[] dump = connection.sync().dump(item.getKey());
+			if (dump == null) {
+				return null;
+			}
+			item.setValue(dump);
+			return item;
+		}
+		if (!classifier.test(item)) {
+			return item;
+		}
+		Assert.state(connection != null, "Processor must be opened before it can be used");
+		Object value = value(item, connection.sync());
+		// Empty streams can exist, other empty values mean the key is gone
+		if (value == null || (KeyValue.type(item) != DataType.STREAM && isEmpty(value))) {
+			return null;
+		}
+		item.setValue(value);
+		return item;
+	}
+
+	/**
+	 *
+	 * @return true if the key was read without a value only because it is over
+	 *         the hybrid threshold and cannot be replicated as a data structure
+	 */
+	private boolean isDump(KeyValue<byte[], Object> item) {
+		if (KeyValue.hasValue(item) || item.getMemoryUsage() <= 0) {
+			return false;
+		}
+		if (memUsageLimit > 0 && item.getMemoryUsage() > memUsageLimit) {
+			return false;
+		}
+		DataType type = KeyValue.type(item);
+		return type == null || !HybridKeyClassifier.isSupported(type);
+	}
+
+	private Object value(KeyValue<byte[], Object> item, RedisModulesCommands<byte[], byte[]> commands) {
+		byte[] key = item.getKey();
+		switch (KeyValue.type(item)) {
+		case HASH:
+			return commands.hgetall(key);
+		case SET:
+			return commands.smembers(key);
+		case ZSET:
+			return commands.zrangeWithScores(key, 0, -1);
+		case LIST:
+			return commands.lrange(key, 0, -1);
+		case STREAM:
+			return commands.xrange(key, Range.create("-", "+"));
+		default:
+			return commands.get(key);
+		}
+	}
+
+	private boolean isEmpty(Object value) {
+		if (value instanceof Map) {
+			return ((Map<?, ?>) value).isEmpty();
+		}
+		if (value instanceof Collection) {
+			return ((Collection<?>) value).isEmpty();
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.redis.riot;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemProcessor;
+
+import com.redis.spring.batch.item.redis.common.KeyEvent;
+
+/**
+ * Collapses repeated key events into a single value read. A key is pending
+ * from the time its first event is processed until the values of its batch
+ * are about to be read: further events for a pending key are filtered out
+ * since the upcoming read returns the latest value anyway. Keys are released
+ * before the read, so events arriving during or after it trigger a new read
+ * and no change is lost.
+ * <p>
+ * At most {@code capacity} keys are tracked at a time, events for other keys
+ * are passed through when the set is full.
+ */
+public class KeyEventCoalescer<K> implements ItemProcessor<KeyEvent<K>, KeyEvent<K>>, ItemWriteListener<KeyEvent<K>> {
+
+	public static final int DEFAULT_CAPACITY = 100000;
+
+	private final Set<Object> pending = ConcurrentHashMap.newKeySet();
+	private final AtomicLong count = new AtomicLong();
+	private final int capacity;
+
+	public KeyEventCoalescer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public KeyEventCoalescer(int capacity) {
+		this.capacity = capacity;
+	}
+
+	@Override
+	public KeyEvent<K> process(KeyEvent<K> item) {
+		Object key = key(item.getKey());
+		if (pending.contains(key)) {
+			count.incrementAndGet();
+			return null;
+		}
+		if (pending.size() < capacity && !pending.add(key)) {
+			// Another reader thread made the key pending in the meantime
+			count.incrementAndGet();
+			return null;
+		}
+		return item;
+	}
+
+	@Override
+	public void beforeWrite(Chunk<? extends KeyEvent<K>> items) {
+		for (KeyEvent<K> item : items) {
+			pending.remove(key(item.getKey()));
+		}
+	}
+
+	private Object key(K key) {
+		if (key instanceof byte[]) {
+			return ByteBuffer.wrap((byte[]) key);
+		}
+		return key;
+	}
+
+	/**
+	 *
+	 * @return number of events filtered out because their key was pending
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+}
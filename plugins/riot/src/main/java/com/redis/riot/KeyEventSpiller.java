@@ -0,0 +1,250 @@
+package com.redis.riot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.util.Assert;
+
+import com.redis.spring.batch.item.redis.common.KeyEvent;
+
+/**
+ * Keeps the keyspace notification queue from overflowing by moving events to
+ * a {@link SpillLog} on disk when the queue is more than three quarters full,
+ * and replaying them once it is less than half full. The queue is shared with
+ * the notification listener and the reader, so it is never drained: only the
+ * events at its head past the high-water mark are polled and spilled, down to
+ * half its capacity, and replayed events are offered at its tail. Spilled
+ * events are therefore read after events received later, which is harmless
+ * since reading a key returns its latest value, but events are not processed
+ * in the order they were received. Spilled events are deduplicated by key: a
+ * key is only spilled once until it is replayed, for up to {@code maxKeys}
+ * keys.
+ * <p>
+ * The queue is watched by a background thread from the start to the end of
+ * the step. If an event cannot be spilled it is put back in the queue and the
+ * step is stopped and marked as failed.
+ */
+public class KeyEventSpiller implements StepExecutionListener {
+
+	public static final int DEFAULT_MAX_KEYS = 100000;
+	public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofMillis(1);
+
+	private final Logger log = LoggerFactory.getLogger(KeyEventSpiller.class);
+
+	private final Supplier<BlockingQueue<KeyEvent<byte[]>>> queue;
+	private final Path directory;
+	private final Set<ByteBuffer> spilledKeys = ConcurrentHashMap.newKeySet();
+	private int segmentSize = SpillLog.DEFAULT_SEGMENT_SIZE;
+	private int maxKeys = DEFAULT_MAX_KEYS;
+	private Duration pollInterval = DEFAULT_POLL_INTERVAL;
+
+	private final Set<StepExecution> stepExecutions = ConcurrentHashMap.newKeySet();
+	private SpillLog spillLog;
+	private Thread thread;
+	private volatile boolean running;
+	private volatile long size;
+	private volatile IOException failure;
+
+	/**
+	 *
+	 * @param queue     supplies the notification queue, or null until the reader
+	 *                  is open
+	 * @param directory directory to write spill files to
+	 */
+	public KeyEventSpiller(Supplier<BlockingQueue<KeyEvent<byte[]>>> queue, Path directory) {
+		Assert.notNull(queue, "Queue supplier must not be null");
+		Assert.notNull(directory, "Directory must not be null");
+		this.queue = queue;
+		this.directory = directory;
+	}
+
+	public void setSegmentSize(int size) {
+		this.segmentSize = size;
+	}
+
+	public void setMaxKeys(int max) {
+		this.maxKeys = max;
+	}
+
+	public void setPollInterval(Duration interval) {
+		this.pollInterval = interval;
+	}
+
+	@Override
+	public synchronized void beforeStep(StepExecution stepExecution) {
+		stepExecutions.add(stepExecution);
+		if (thread != null) {
+			return;
+		}
+		spillLog = new SpillLog(directory, segmentSize);
+		failure = null;
+		running = true;
+		thread = new Thread(this::run, "key-event-spiller");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@Override
+	public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+		stepExecutions.remove(stepExecution);
+		if (thread != null) {
+			stop();
+		}
+		if (failure != null) {
+			stepExecution.setStatus(BatchStatus.FAILED);
+			stepExecution.addFailureException(failure);
+			return ExitStatus.FAILED.addExitDescription(failure);
+		}
+		return null;
+	}
+
+	private void stop() {
+		running = false;
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		thread = null;
+		if (size > 0) {
+			log.warn("Discarding {} spilled keyspace notifications", size);
+		}
+		try {
+			spillLog.close();
+		} catch (IOException e) {
+			log.warn("Could not delete spill files in {}", directory, e);
+		}
+		spilledKeys.clear();
+		size = 0;
+	}
+
+	private void run() {
+		while (running) {
+			try {
+				BlockingQueue<KeyEvent<byte[]>> events = queue.get();
+				if (events == null || !transfer(events)) {
+					Thread.sleep(pollInterval.toMillis());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (IOException e) {
+				log.error("Could not spill keyspace notifications to {}, stopping step", directory, e);
+				failure = e;
+				running = false;
+				stepExecutions.forEach(StepExecution::setTerminateOnly);
+			}
+		}
+	}
+
+	/**
+	 * Spills the oldest events of the given queue down to half its capacity when
+	 * it is over three quarters full, or replays spilled events up to half its
+	 * capacity when it is less than half full.
+	 *
+	 * @return true if events were spilled or replayed
+	 */
+	boolean transfer(BlockingQueue<KeyEvent<byte[]>> events) throws IOException {
+		int capacity = events.size() + events.remainingCapacity();
+		if (events.remainingCapacity() < capacity / 4) {
+			return spill(events, events.size() - capacity / 2);
+		}
+		if (events.size() < capacity / 2 && !spillLog.isEmpty()) {
+			return replay(events, capacity / 2 - events.size());
+		}
+		return false;
+	}
+
+	private boolean spill(BlockingQueue<KeyEvent<byte[]>> events, int count) throws IOException {
+		int spilled = 0;
+		KeyEvent<byte[]> event;
+		while (spilled < count && (event = events.poll()) != null) {
+			try {
+				spill(event);
+			} catch (IOException e) {
+				requeue(event, events);
+				throw e;
+			}
+			spilled++;
+		}
+		return spilled > 0;
+	}
+
+	private boolean replay(BlockingQueue<KeyEvent<byte[]>> events, int count) throws IOException {
+		int replayed = 0;
+		while (replayed < count && !spillLog.isEmpty()) {
+			KeyEvent<byte[]> event = event(spillLog.poll());
+			spilledKeys.remove(ByteBuffer.wrap(event.getKey()));
+			size = spillLog.size();
+			if (!events.offer(event)) {
+				// Queue filled up in the meantime
+				spill(event);
+				break;
+			}
+			replayed++;
+		}
+		return replayed > 0;
+	}
+
+	private void requeue(KeyEvent<byte[]> event, BlockingQueue<KeyEvent<byte[]>> events) {
+		if (!events.offer(event)) {
+			log.error("Dropped keyspace notification that could not be spilled");
+		}
+	}
+
+	private void spill(KeyEvent<byte[]> event) throws IOException {
+		ByteBuffer key = ByteBuffer.wrap(event.getKey());
+		if (spilledKeys.contains(key)) {
+			return;
+		}
+		spillLog.append(record(event));
+		size = spillLog.size();
+		if (spilledKeys.size() < maxKeys) {
+			spilledKeys.add(key);
+		}
+	}
+
+	private byte[] record(KeyEvent<byte[]> event) {
+		byte[] key = event.getKey();
+		byte[] name = event.getEvent() == null ? new byte[0] : event.getEvent().getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + key.length + name.length);
+		record.putInt(key.length);
+		record.put(key);
+		record.put(name);
+		return record.array();
+	}
+
+	private KeyEvent<byte[]> event(byte[] record) {
+		ByteBuffer buffer = ByteBuffer.wrap(record);
+		byte[] key = new byte[buffer.getInt()];
+		buffer.get(key);
+		byte[] name = new byte[buffer.remaining()];
+		buffer.get(name);
+		KeyEvent<byte[]> event = new KeyEvent<>();
+		event.setKey(key);
+		event.setEvent(name.length == 0 ? null : new String(name, StandardCharsets.UTF_8));
+		return event;
+	}
+
+	/**
+	 *
+	 * @return number of events currently spilled to disk
+	 */
+	public long size() {
+		return size;
+	}
+
+}
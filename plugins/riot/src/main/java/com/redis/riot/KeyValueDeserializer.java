@@ -8,13 +8,11 @@ import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.DoubleNode;
-import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.redis.lettucemod.timeseries.Sample;
 import com.redis.spring.batch.item.redis.common.DataType;
 import com.redis.spring.batch.item.redis.common.KeyValue;
@@ -22,6 +20,11 @@ import com.redis.spring.batch.item.redis.common.KeyValue;
 import io.lettuce.core.ScoredValue;
 import io.lettuce.core.StreamMessage;
 
+/**
+ * Reads key values directly from the parser's token stream, without first
+ * materializing each record as a tree. The value is only buffered when it
+ * precedes the type field.
+ */
 @SuppressWarnings("rawtypes")
 public class KeyValueDeserializer extends StdDeserializer<KeyValue> {
 
@@ -48,115 +51,208 @@ public class KeyValueDeserializer extends StdDeserializer<KeyValue> {
 
 	@Override
 	public KeyValue<String, Object> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-		JsonNode node = p.getCodec().readTree(p);
-		if (!node.has(KEY)) {
-			throw new InvalidFormatException(p, "No key field found", node, _valueClass);
+		JsonToken token = p.currentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = p.nextToken();
 		}
 		KeyValue<String, Object> keyValue = new KeyValue<>();
-		keyValue.setKey(node.get(KEY).asText());
-		JsonNode typeNode = node.get(TYPE);
-		if (typeNode != null) {
-			keyValue.setType(typeNode.asText());
-		}
-		LongNode ttlNode = (LongNode) node.get(TTL);
-		if (ttlNode != null) {
-			keyValue.setTtl(ttlNode.asLong());
+		boolean hasKey = false;
+		TokenBuffer valueBuffer = null;
+		for (; token == JsonToken.FIELD_NAME; token = p.nextToken()) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+			case KEY:
+				keyValue.setKey(text(p));
+				hasKey = true;
+				break;
+			case TYPE:
+				keyValue.setType(text(p));
+				break;
+			case TTL:
+				if (p.currentToken() != JsonToken.VALUE_NULL) {
+					keyValue.setTtl(p.getValueAsLong());
+				}
+				break;
+			case MEMORY_USAGE:
+				if (p.currentToken() != JsonToken.VALUE_NULL) {
+					keyValue.setMemoryUsage(p.getValueAsLong());
+				}
+				break;
+			case VALUE:
+				DataType type = KeyValue.type(keyValue);
+				if (type == null) {
+					// Type not known yet
+					valueBuffer = ctxt.bufferAsCopyOfValue(p);
+				} else {
+					keyValue.setValue(value(type, p, ctxt));
+				}
+				break;
+			default:
+				p.skipChildren();
+				break;
+			}
 		}
-		LongNode memUsageNode = (LongNode) node.get(MEMORY_USAGE);
-		if (memUsageNode != null) {
-			keyValue.setMemoryUsage(memUsageNode.asLong());
+		if (!hasKey) {
+			throw new InvalidFormatException(p, "No key field found", null, _valueClass);
 		}
-		JsonNode valueNode = node.get(VALUE);
-		if (valueNode != null) {
+		if (valueBuffer != null) {
 			DataType type = KeyValue.type(keyValue);
 			if (type != null) {
-				keyValue.setValue(value(type, valueNode, ctxt));
+				try (JsonParser valueParser = valueBuffer.asParserOnFirstToken()) {
+					keyValue.setValue(value(type, valueParser, ctxt));
+				}
 			}
 		}
 		return keyValue;
 	}
 
-	private Object value(DataType type, JsonNode node, DeserializationContext ctxt) throws IOException {
+	private String text(JsonParser p) throws IOException {
+		if (p.currentToken().isStructStart()) {
+			p.skipChildren();
+			return null;
+		}
+		return p.getText();
+	}
+
+	private Object value(DataType type, JsonParser p, DeserializationContext ctxt) throws IOException {
+		if (p.currentToken() == JsonToken.VALUE_NULL) {
+			return null;
+		}
 		switch (type) {
 		case STREAM:
-			return streamMessages((ArrayNode) node, ctxt);
+			return streamMessages(p, ctxt);
 		case ZSET:
-			return scoredValues((ArrayNode) node);
+			return scoredValues(p, ctxt);
 		case TIMESERIES:
-			return samples((ArrayNode) node);
+			return samples(p, ctxt);
 		case HASH:
-			return ctxt.readTreeAsValue(node, Map.class);
+			return ctxt.readValue(p, Map.class);
 		case STRING:
 		case JSON:
-			return node.asText();
+			if (p.currentToken().isStructStart()) {
+				return ctxt.readTree(p).toString();
+			}
+			return p.getText();
 		case LIST:
-			return ctxt.readTreeAsValue(node, Collection.class);
+			return ctxt.readValue(p, Collection.class);
 		case SET:
-			return ctxt.readTreeAsValue(node, Set.class);
+			return ctxt.readValue(p, Set.class);
 		default:
+			p.skipChildren();
 			return null;
 		}
 	}
 
-	private Collection<Sample> samples(ArrayNode node) {
-		Collection<Sample> samples = new ArrayList<>(node.size());
-		for (int index = 0; index < node.size(); index++) {
-			JsonNode sampleNode = node.get(index);
-			if (sampleNode != null) {
-				samples.add(sample(sampleNode));
+	private void startArray(JsonParser p, DeserializationContext ctxt, DataType type) throws IOException {
+		if (p.currentToken() != JsonToken.START_ARRAY) {
+			throw ctxt.wrongTokenException(p, _valueClass, JsonToken.START_ARRAY,
+					"Expected array value for type " + type.getString());
+		}
+	}
+
+	/**
+	 * Advances to the next array element.
+	 *
+	 * @return true if the element is an object, false at the end of the array
+	 */
+	private boolean nextObject(JsonParser p) throws IOException {
+		JsonToken token;
+		while ((token = p.nextToken()) != null && token != JsonToken.END_ARRAY) {
+			if (token == JsonToken.START_OBJECT) {
+				return true;
 			}
+			p.skipChildren();
+		}
+		return false;
+	}
+
+	private Collection<Sample> samples(JsonParser p, DeserializationContext ctxt) throws IOException {
+		startArray(p, ctxt, DataType.TIMESERIES);
+		Collection<Sample> samples = new ArrayList<>();
+		while (nextObject(p)) {
+			samples.add(sample(p));
 		}
 		return samples;
 	}
 
-	private Sample sample(JsonNode node) {
-		LongNode timestampNode = (LongNode) node.get(TIMESTAMP);
-		long timestamp = timestampNode == null || timestampNode.isNull() ? 0 : timestampNode.asLong();
-		DoubleNode valueNode = (DoubleNode) node.get(VALUE);
-		double value = valueNode == null || valueNode.isNull() ? 0 : valueNode.asDouble();
+	private Sample sample(JsonParser p) throws IOException {
+		long timestamp = 0;
+		double value = 0;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			p.nextToken();
+			if (TIMESTAMP.equals(field)) {
+				timestamp = p.getValueAsLong();
+			} else if (VALUE.equals(field)) {
+				value = p.getValueAsDouble();
+			} else {
+				p.skipChildren();
+			}
+		}
 		return Sample.of(timestamp, value);
 	}
 
-	private Set<ScoredValue<String>> scoredValues(ArrayNode node) {
-		Set<ScoredValue<String>> scoredValues = new HashSet<>(node.size());
-		for (int index = 0; index < node.size(); index++) {
-			JsonNode scoredValueNode = node.get(index);
-			if (scoredValueNode != null) {
-				scoredValues.add(scoredValue(scoredValueNode));
-			}
+	private Set<ScoredValue<String>> scoredValues(JsonParser p, DeserializationContext ctxt) throws IOException {
+		startArray(p, ctxt, DataType.ZSET);
+		Set<ScoredValue<String>> scoredValues = new HashSet<>();
+		while (nextObject(p)) {
+			scoredValues.add(scoredValue(p));
 		}
 		return scoredValues;
 	}
 
-	private ScoredValue<String> scoredValue(JsonNode scoredValueNode) {
-		JsonNode valueNode = scoredValueNode.get(VALUE);
-		String value = valueNode == null || valueNode.isNull() ? null : valueNode.asText();
-		DoubleNode scoreNode = (DoubleNode) scoredValueNode.get(SCORE);
-		double score = scoreNode == null || scoreNode.isNull() ? 0 : scoreNode.asDouble();
+	private ScoredValue<String> scoredValue(JsonParser p) throws IOException {
+		String value = null;
+		double score = 0;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			JsonToken token = p.nextToken();
+			if (VALUE.equals(field)) {
+				value = token == JsonToken.VALUE_NULL ? null : text(p);
+			} else if (SCORE.equals(field)) {
+				score = p.getValueAsDouble();
+			} else {
+				p.skipChildren();
+			}
+		}
 		return ScoredValue.just(score, value);
 	}
 
-	private Collection<StreamMessage<String, String>> streamMessages(ArrayNode node, DeserializationContext ctxt)
+	private Collection<StreamMessage<String, String>> streamMessages(JsonParser p, DeserializationContext ctxt)
 			throws IOException {
-		Collection<StreamMessage<String, String>> messages = new ArrayList<>(node.size());
-		for (int index = 0; index < node.size(); index++) {
-			JsonNode messageNode = node.get(index);
-			if (messageNode != null) {
-				messages.add(streamMessage(messageNode, ctxt));
-			}
+		startArray(p, ctxt, DataType.STREAM);
+		Collection<StreamMessage<String, String>> messages = new ArrayList<>();
+		while (nextObject(p)) {
+			messages.add(streamMessage(p, ctxt));
 		}
 		return messages;
 	}
 
 	@SuppressWarnings("unchecked")
-	private StreamMessage<String, String> streamMessage(JsonNode messageNode, DeserializationContext ctxt)
+	private StreamMessage<String, String> streamMessage(JsonParser p, DeserializationContext ctxt)
 			throws IOException {
-		JsonNode streamNode = messageNode.get(STREAM);
-		String stream = streamNode == null || streamNode.isNull() ? null : streamNode.asText();
-		JsonNode bodyNode = messageNode.get(BODY);
-		Map<String, String> body = ctxt.readTreeAsValue(bodyNode, Map.class);
-		JsonNode idNode = messageNode.get(ID);
-		String id = idNode == null || idNode.isNull() ? null : idNode.asText();
+		String stream = null;
+		String id = null;
+		Map<String, String> body = null;
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			JsonToken token = p.nextToken();
+			switch (field) {
+			case STREAM:
+				stream = token == JsonToken.VALUE_NULL ? null : text(p);
+				break;
+			case ID:
+				id = token == JsonToken.VALUE_NULL ? null : text(p);
+				break;
+			case BODY:
+				body = token == JsonToken.VALUE_NULL ? null : ctxt.readValue(p, Map.class);
+				break;
+			default:
+				p.skipChildren();
+				break;
+			}
+		}
 		return new StreamMessage<>(stream, id, body);
 	}
 
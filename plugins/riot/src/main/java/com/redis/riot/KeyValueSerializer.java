@@ -0,0 +1,165 @@
+package com.redis.riot;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.redis.lettucemod.timeseries.Sample;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+
+/**
+ * Writes the fields read by {@link KeyValueDeserializer} straight to the
+ * generator. Zero TTL and memory usage, and null or empty values are omitted.
+ */
+@SuppressWarnings("rawtypes")
+public class KeyValueSerializer extends StdSerializer<KeyValue> {
+
+	private static final long serialVersionUID = 1L;
+
+	public KeyValueSerializer() {
+		super(KeyValue.class);
+	}
+
+	@Override
+	public void serialize(KeyValue keyValue, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeStartObject();
+		Object key = keyValue.getKey();
+		if (key instanceof String) {
+			gen.writeStringField(KeyValueDeserializer.KEY, (String) key);
+		} else if (key != null) {
+			provider.defaultSerializeField(KeyValueDeserializer.KEY, key, gen);
+		}
+		if (keyValue.getType() != null) {
+			gen.writeStringField(KeyValueDeserializer.TYPE, keyValue.getType());
+		}
+		writeNumber(gen, KeyValueDeserializer.TTL, keyValue.getTtl());
+		writeNumber(gen, KeyValueDeserializer.MEMORY_USAGE, keyValue.getMemoryUsage());
+		Object value = keyValue.getValue();
+		if (value instanceof String) {
+			if (!((String) value).isEmpty()) {
+				gen.writeStringField(KeyValueDeserializer.VALUE, (String) value);
+			}
+		} else if (value instanceof Map) {
+			if (!((Map) value).isEmpty()) {
+				gen.writeFieldName(KeyValueDeserializer.VALUE);
+				writeMap(gen, provider, (Map) value);
+			}
+		} else if (value instanceof Collection) {
+			if (!((Collection) value).isEmpty()) {
+				gen.writeFieldName(KeyValueDeserializer.VALUE);
+				writeCollection(gen, provider, (Collection) value);
+			}
+		} else if (value != null) {
+			provider.defaultSerializeField(KeyValueDeserializer.VALUE, value, gen);
+		}
+		gen.writeEndObject();
+	}
+
+	private static void writeNumber(JsonGenerator gen, String field, Number value) throws IOException {
+		if (value != null && value.longValue() != 0) {
+			gen.writeNumberField(field, value.longValue());
+		}
+	}
+
+	private static void writeCollection(JsonGenerator gen, SerializerProvider provider, Collection<?> collection)
+			throws IOException {
+		gen.writeStartArray();
+		for (Object element : collection) {
+			writeValue(gen, provider, element);
+		}
+		gen.writeEndArray();
+	}
+
+	private static void writeMap(JsonGenerator gen, SerializerProvider provider, Map<?, ?> map) throws IOException {
+		gen.writeStartObject();
+		for (Entry<?, ?> entry : map.entrySet()) {
+			gen.writeFieldName(String.valueOf(entry.getKey()));
+			writeValue(gen, provider, entry.getValue());
+		}
+		gen.writeEndObject();
+	}
+
+	private static void writeValue(JsonGenerator gen, SerializerProvider provider, Object value) throws IOException {
+		if (value instanceof String) {
+			gen.writeString((String) value);
+		} else {
+			provider.defaultSerializeValue(value, gen);
+		}
+	}
+
+	public static class ScoredValueSerializer extends StdSerializer<ScoredValue> {
+
+		private static final long serialVersionUID = 1L;
+
+		public ScoredValueSerializer() {
+			super(ScoredValue.class);
+		}
+
+		@Override
+		public void serialize(ScoredValue scoredValue, JsonGenerator gen, SerializerProvider provider)
+				throws IOException {
+			gen.writeStartObject();
+			if (scoredValue.hasValue()) {
+				gen.writeFieldName(KeyValueDeserializer.VALUE);
+				writeValue(gen, provider, scoredValue.getValue());
+			}
+			gen.writeNumberField(KeyValueDeserializer.SCORE, scoredValue.getScore());
+			gen.writeEndObject();
+		}
+
+	}
+
+	public static class StreamMessageSerializer extends StdSerializer<StreamMessage> {
+
+		private static final long serialVersionUID = 1L;
+
+		public StreamMessageSerializer() {
+			super(StreamMessage.class);
+		}
+
+		@Override
+		public void serialize(StreamMessage message, JsonGenerator gen, SerializerProvider provider)
+				throws IOException {
+			gen.writeStartObject();
+			if (message.getStream() != null) {
+				gen.writeFieldName(KeyValueDeserializer.STREAM);
+				writeValue(gen, provider, message.getStream());
+			}
+			if (message.getId() != null) {
+				gen.writeStringField(KeyValueDeserializer.ID, message.getId());
+			}
+			if (message.getBody() != null) {
+				gen.writeFieldName(KeyValueDeserializer.BODY);
+				writeMap(gen, provider, message.getBody());
+			}
+			gen.writeEndObject();
+		}
+
+	}
+
+	public static class SampleSerializer extends StdSerializer<Sample> {
+
+		private static final long serialVersionUID = 1L;
+
+		public SampleSerializer() {
+			super(Sample.class);
+		}
+
+		@Override
+		public void serialize(Sample sample, JsonGenerator gen, SerializerProvider provider) throws IOException {
+			gen.writeStartObject();
+			gen.writeNumberField(KeyValueDeserializer.TIMESTAMP, sample.getTimestamp());
+			gen.writeNumberField(KeyValueDeserializer.VALUE, sample.getValue());
+			gen.writeEndObject();
+		}
+
+	}
+
+}
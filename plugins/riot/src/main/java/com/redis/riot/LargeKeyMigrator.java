@@ -0,0 +1,428 @@
+package com.redis.riot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.slf4j.Logger;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
+
+import com.redis.lettucemod.RedisModulesUtils;
+import com.redis.lettucemod.api.StatefulRedisModulesConnection;
+import com.redis.lettucemod.api.async.RedisModulesAsyncCommands;
+import com.redis.lettucemod.api.sync.RedisModulesCommands;
+import com.redis.spring.batch.item.redis.RedisItemReader;
+import com.redis.spring.batch.item.redis.common.BatchUtils;
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.Limit;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScoredValueScanCursor;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.ValueScanCursor;
+import io.lettuce.core.XAddArgs;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.support.ConnectionPoolSupport;
+
+/**
+ * Copies keys that were read without their value because they are over the
+ * memory usage limit. Each key is read in batches of at most
+ * {@code batchSize} elements (HSCAN, SSCAN, ZSCAN, LRANGE windows, XRANGE
+ * pages or GETRANGE windows for strings), written into a temporary key on the
+ * target and atomically renamed into place, so at most one batch per key is
+ * held in memory per pending write. Up to {@code maxPending} batch writes are
+ * sent before the next batch is read and the oldest one is awaited. Migrated
+ * keys are filtered out of the step, other items are passed through.
+ * <p>
+ * Source and target connections are borrowed from pools of
+ * {@code sourcePoolSize} and {@code targetPoolSize} connections, created before
+ * the step (or its first partition) starts and closed once the step (or its
+ * last partition) is done.
+ * <p>
+ * Temporary keys share the hash tag of their key, so that they can be renamed
+ * within a cluster slot, followed by a token unique to this migrator and a
+ * counter, e.g. {@code {user:1}:riot-tmp:<uuid>:42}. Keys for which no such
+ * temporary key exists are skipped.
+ * <p>
+ * Stream consumer groups are not copied, and types that cannot be read
+ * incrementally (e.g. JSON or timeseries) are skipped as before.
+ */
+public class LargeKeyMigrator
+		implements ItemProcessor<KeyValue<byte[], Object>, KeyValue<byte[], Object>>, StepExecutionListener {
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	public static final int DEFAULT_MAX_PENDING = 8;
+	public static final int DEFAULT_POOL_SIZE = RedisItemReader.DEFAULT_POOL_SIZE;
+
+	private static final String TEMP_PREFIX = ":riot-tmp:";
+	private static final long TIMEOUT_SECONDS = 60;
+
+	private final AbstractRedisClient source;
+	private final AbstractRedisClient target;
+	private final Logger log;
+	private final Function<byte[], String> keyToString = BatchUtils.toStringKeyFunction(ByteArrayCodec.INSTANCE);
+	private final String token = UUID.randomUUID().toString();
+	private final AtomicLong tempKeys = new AtomicLong();
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int maxPending = DEFAULT_MAX_PENDING;
+	private int sourcePoolSize = DEFAULT_POOL_SIZE;
+	private int targetPoolSize = DEFAULT_POOL_SIZE;
+	private GenericObjectPool<StatefulRedisModulesConnection<byte[], byte[]>> sourcePool;
+	private GenericObjectPool<StatefulRedisModulesConnection<byte[], byte[]>> targetPool;
+	private int steps;
+
+	public LargeKeyMigrator(AbstractRedisClient source, AbstractRedisClient target, Logger log) {
+		this.source = source;
+		this.target = target;
+		this.log = log;
+	}
+
+	public void setBatchSize(int size) {
+		this.batchSize = size;
+	}
+
+	public void setMaxPending(int max) {
+		this.maxPending = max;
+	}
+
+	public void setSourcePoolSize(int size) {
+		this.sourcePoolSize = size;
+	}
+
+	public void setTargetPoolSize(int size) {
+		this.targetPoolSize = size;
+	}
+
+	@Override
+	public synchronized void beforeStep(StepExecution stepExecution) {
+		if (steps++ == 0) {
+			sourcePool = pool(source, sourcePoolSize);
+			targetPool = pool(target, targetPoolSize);
+		}
+	}
+
+	@Override
+	public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+		if (--steps == 0 && sourcePool != null) {
+			sourcePool.close();
+			targetPool.close();
+			sourcePool = null;
+			targetPool = null;
+		}
+		return null;
+	}
+
+	private GenericObjectPool<StatefulRedisModulesConnection<byte[], byte[]>> pool(AbstractRedisClient client,
+			int size) {
+		GenericObjectPoolConfig<StatefulRedisModulesConnection<byte[], byte[]>> config;
+		config = new GenericObjectPoolConfig<>();
+		config.setMaxTotal(size);
+		return ConnectionPoolSupport
+				.createGenericObjectPool(() -> RedisModulesUtils.connection(client, ByteArrayCodec.INSTANCE), config);
+	}
+
+	@Override
+	public KeyValue<byte[], Object> process(KeyValue<byte[], Object> item) throws Exception {
+		if (!KeyValue.exists(item) || KeyValue.hasValue(item) || item.getMemoryUsage() <= 0) {
+			return item;
+		}
+		DataType type = KeyValue.type(item);
+		if (type == null || !isSupported(type)) {
+			// Left for the filter to skip
+			return item;
+		}
+		byte[] tempKey = tempKey(item.getKey());
+		if (tempKey == null) {
+			log.warn("Skipping large key {}: no temporary key in the same slot", keyToString.apply(item.getKey()));
+			return item;
+		}
+		Assert.state(sourcePool != null, "Migrator must be opened before it can be used");
+		// Closing a pooled connection returns it to its pool
+		try (StatefulRedisModulesConnection<byte[], byte[]> sourceConnection = sourcePool.borrowObject();
+				StatefulRedisModulesConnection<byte[], byte[]> targetConnection = targetPool.borrowObject()) {
+			migrate(item, type, tempKey, sourceConnection.sync(), targetConnection.async());
+		}
+		return null;
+	}
+
+	private boolean isSupported(DataType type) {
+		switch (type) {
+		case HASH:
+		case SET:
+		case ZSET:
+		case LIST:
+		case STREAM:
+		case STRING:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private void migrate(KeyValue<byte[], Object> item, DataType type, byte[] tempKey,
+			RedisModulesCommands<byte[], byte[]> source, RedisModulesAsyncCommands<byte[], byte[]> target)
+			throws Exception {
+		byte[] key = item.getKey();
+		long count;
+		try {
+			count = copy(key, type, tempKey, source, target);
+		} catch (Exception e) {
+			await(target.del(tempKey));
+			throw e;
+		}
+		if (count == 0 || source.exists(key) == 0) {
+			// Key was deleted in the meantime
+			await(target.del(tempKey, key));
+			return;
+		}
+		// Expire the temporary key first: RENAME keeps its TTL so the key is never
+		// visible without it
+		if (item.getTtl() > 0) {
+			await(target.pexpireat(tempKey, item.getTtl()));
+		}
+		await(target.rename(tempKey, key));
+		if (log.isInfoEnabled()) {
+			log.info("Migrated {} {} ({}) in batches of {}: {} elements", item.getType(),
+					keyToString.apply(key), DataSize.ofBytes(item.getMemoryUsage()), batchSize, count);
+		}
+	}
+
+	private long copy(byte[] key, DataType type, byte[] tempKey, RedisModulesCommands<byte[], byte[]> source,
+			RedisModulesAsyncCommands<byte[], byte[]> target) throws Exception {
+		switch (type) {
+		case HASH:
+			return hash(key, tempKey, source, target);
+		case SET:
+			return set(key, tempKey, source, target);
+		case ZSET:
+			return zset(key, tempKey, source, target);
+		case LIST:
+			return list(key, tempKey, source, target);
+		case STREAM:
+			return stream(key, tempKey, source, target);
+		default:
+			return string(key, tempKey, source, target);
+		}
+	}
+
+	/**
+	 *
+	 * @return temporary key hashing to the same cluster slot as the given key, or
+	 *         null if none could be found
+	 */
+	byte[] tempKey(byte[] key) {
+		byte[] suffix = (TEMP_PREFIX + token + ":" + tempKeys.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+		byte[] tempKey = concat(new byte[] { '{' }, hashTag(key), new byte[] { '}' }, suffix);
+		if (SlotHash.getSlot(tempKey) == SlotHash.getSlot(key)) {
+			return tempKey;
+		}
+		return null;
+	}
+
+	/**
+	 *
+	 * @return part of the key that is hashed to find its cluster slot
+	 */
+	private static byte[] hashTag(byte[] key) {
+		int start = indexOf(key, (byte) '{', 0);
+		if (start >= 0) {
+			int end = indexOf(key, (byte) '}', start + 1);
+			if (end > start + 1) {
+				return Arrays.copyOfRange(key, start + 1, end);
+			}
+		}
+		return key;
+	}
+
+	private static int indexOf(byte[] array, byte value, int from) {
+		for (int index = from; index < array.length; index++) {
+			if (array[index] == value) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	private static byte[] concat(byte[]... arrays) {
+		byte[] result = new byte[Arrays.stream(arrays).mapToInt(a -> a.length).sum()];
+		int offset = 0;
+		for (byte[] array : arrays) {
+			System.arraycopy(array, 0, result, offset, array.length);
+			offset += array.length;
+		}
+		return result;
+	}
+
+	private long hash(byte[] key, byte[] tempKey, RedisModulesCommands<byte[], byte[]> source,
+			RedisModulesAsyncCommands<byte[], byte[]> target) throws Exception {
+		PendingWrites writes = new PendingWrites();
+		long count = 0;
+		ScanCursor cursor = ScanCursor.INITIAL;
+		do {
+			MapScanCursor<byte[], byte[]> result = source.hscan(key, cursor, scanArgs());
+			if (!result.getMap().isEmpty()) {
+				writes.add(target.hset(tempKey, result.getMap()));
+				count += result.getMap().size();
+			}
+			cursor = result;
+		} while (!cursor.isFinished());
+		writes.await();
+		return count;
+	}
+
+	private long set(byte[] key, byte[] tempKey, RedisModulesCommands<byte[], byte[]> source,
+			RedisModulesAsyncCommands<byte[], byte[]> target) throws Exception {
+		PendingWrites writes = new PendingWrites();
+		long count = 0;
+		ScanCursor cursor = ScanCursor.INITIAL;
+		do {
+			ValueScanCursor<byte[]> result = source.sscan(key, cursor, scanArgs());
+			if (!result.getValues().isEmpty()) {
+				writes.add(target.sadd(tempKey, result.getValues().toArray(new byte[0][])));
+				count += result.getValues().size();
+			}
+			cursor = result;
+		} while (!cursor.isFinished());
+		writes.await();
+		return count;
+	}
+
+	@SuppressWarnings("unchecked")
+	private long zset(byte[] key, byte[] tempKey, RedisModulesCommands<byte[], byte[]> source,
+			RedisModulesAsyncCommands<byte[], byte[]> target) throws Exception {
+		PendingWrites writes = new PendingWrites();
+		long count = 0;
+		ScanCursor cursor = ScanCursor.INITIAL;
+		do {
+			ScoredValueScanCursor<byte[]> result = source.zscan(key, cursor, scanArgs());
+			if (!result.getValues().isEmpty()) {
+				writes.add(target.zadd(tempKey, result.getValues().toArray(new ScoredValue[0])));
+				count += result.getValues().size();
+			}
+			cursor = result;
+		} while (!cursor.isFinished());
+		writes.await();
+		return count;
+	}
+
+	private long list(byte[] key, byte[] tempKey, RedisModulesCommands<byte[], byte[]> source,
+			RedisModulesAsyncCommands<byte[], byte[]> target) throws Exception {
+		PendingWrites writes = new PendingWrites();
+		long count = 0;
+		List<byte[]> values;
+		do {
+			values = source.lrange(key, count, count + batchSize - 1);
+			if (!values.isEmpty()) {
+				writes.add(target.rpush(tempKey, values.toArray(new byte[0][])));
+				count += values.size();
+			}
+		} while (values.size() == batchSize);
+		writes.await();
+		return count;
+	}
+
+	private long stream(byte[] key, byte[] tempKey, RedisModulesCommands<byte[], byte[]> source,
+			RedisModulesAsyncCommands<byte[], byte[]> target) throws Exception {
+		PendingWrites writes = new PendingWrites();
+		long count = 0;
+		Range.Boundary<String> start = Range.Boundary.unbounded();
+		List<StreamMessage<byte[], byte[]>> messages;
+		do {
+			messages = source.xrange(key, Range.from(start, Range.Boundary.unbounded()), Limit.from(batchSize));
+			List<RedisFuture<?>> futures = new ArrayList<>();
+			for (StreamMessage<byte[], byte[]> message : messages) {
+				futures.add(target.xadd(tempKey, new XAddArgs().id(message.getId()), message.getBody()));
+			}
+			writes.add(futures);
+			count += messages.size();
+			if (!messages.isEmpty()) {
+				start = Range.Boundary.excluding(messages.get(messages.size() - 1).getId());
+			}
+		} while (messages.size() == batchSize);
+		writes.await();
+		return count;
+	}
+
+	private long string(byte[] key, byte[] tempKey, RedisModulesCommands<byte[], byte[]> source,
+			RedisModulesAsyncCommands<byte[], byte[]> target) throws Exception {
+		PendingWrites writes = new PendingWrites();
+		long length = source.strlen(key);
+		// Strings are copied in windows of batch size kilobytes
+		long window = batchSize * 1024L;
+		for (long offset = 0; offset < length; offset += window) {
+			byte[] value = source.getrange(key, offset, Math.min(offset + window, length) - 1);
+			writes.add(target.append(tempKey, value));
+		}
+		writes.await();
+		return length;
+	}
+
+	private ScanArgs scanArgs() {
+		return ScanArgs.Builder.limit(batchSize);
+	}
+
+	/**
+	 * Batch writes sent to the target, awaited oldest first once more than
+	 * {@code maxPending} are in flight. Writes to a key share one connection so
+	 * they are applied in the order they were sent.
+	 */
+	private class PendingWrites {
+
+		private final Deque<List<RedisFuture<?>>> writes = new ArrayDeque<>();
+
+		public void add(RedisFuture<?> future) throws Exception {
+			add(Arrays.asList(future));
+		}
+
+		public void add(List<RedisFuture<?>> futures) throws Exception {
+			writes.add(futures);
+			if (writes.size() > maxPending) {
+				LargeKeyMigrator.this.await(writes.poll());
+			}
+		}
+
+		public void await() throws Exception {
+			while (!writes.isEmpty()) {
+				LargeKeyMigrator.this.await(writes.poll());
+			}
+		}
+
+	}
+
+	private void await(RedisFuture<?> future) throws Exception {
+		await(Arrays.asList(future));
+	}
+
+	private void await(List<RedisFuture<?>> futures) throws Exception {
+		if (!LettuceFutures.awaitAll(TIMEOUT_SECONDS, TimeUnit.SECONDS, futures.toArray(new RedisFuture[0]))) {
+			throw new IllegalStateException("Timed out writing large key batch");
+		}
+		for (RedisFuture<?> future : futures) {
+			future.get();
+		}
+	}
+
+}
@@ -54,6 +54,9 @@ public class RedisReaderArgs {
 	@Option(names = "--read-from", description = "Which Redis cluster nodes to read from: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).", paramLabel = "<name>")
 	private ReadFrom readFrom = ReadFrom.UPSTREAM;
 
+	@Option(names = "--scan-nodes", description = "Scan each upstream node of a cluster in its own partition, up to --threads nodes at a time (scan mode only).")
+	private boolean scanNodes;
+
 	@Option(names = "--mem-limit", description = "Max mem usage for a key to be read, for example 12KB 5MB. Use 0 for no limit but still read mem usage.", paramLabel = "<size>")
 	private DataSize memUsageLimit;
 
@@ -92,7 +95,7 @@ public class RedisReaderArgs {
 		reader.setMode(mode);
 		reader.setNotificationQueueCapacity(notificationQueueCapacity);
 		reader.setPollTimeout(Duration.ofMillis(pollTimeout));
-		reader.setProcessor(keyProcessor(reader.getCodec(), keyFilterArgs));
+		reader.setProcessor(keyProcessor(reader.getCodec()));
 		reader.setQueueCapacity(queueCapacity);
 		reader.setReadFrom(readFrom.getReadFrom());
 		reader.setRetryLimit(retryLimit);
@@ -107,6 +110,15 @@ public class RedisReaderArgs {
 		}
 	}
 
+	/**
+	 *
+	 * @return processor filtering key events with the key filter options, or null
+	 *         if no filter is configured
+	 */
+	public <K> ItemProcessor<KeyEvent<K>, KeyEvent<K>> keyProcessor(RedisCodec<K, ?> codec) {
+		return keyProcessor(codec, keyFilterArgs);
+	}
+
 	private <K> ItemProcessor<KeyEvent<K>, KeyEvent<K>> keyProcessor(RedisCodec<K, ?> codec, KeyFilterArgs args) {
 		return args.predicate(codec).map(p -> new FunctionPredicate<KeyEvent<K>, K>(KeyEvent::getKey, p))
 				.map(PredicateOperator::new).map(FunctionItemProcessor::new).orElse(null);
@@ -240,6 +252,14 @@ public class RedisReaderArgs {
 		this.retryLimit = retryLimit;
 	}
 
+	public boolean isScanNodes() {
+		return scanNodes;
+	}
+
+	public void setScanNodes(boolean scanNodes) {
+		this.scanNodes = scanNodes;
+	}
+
 	public int getSkipLimit() {
 		return skipLimit;
 	}
@@ -252,10 +272,11 @@ public class RedisReaderArgs {
 	public String toString() {
 		return "RedisReaderArgs [mode=" + mode + ", keyPattern=" + keyPattern + ", keyType=" + keyType + ", scanCount="
 				+ scanCount + ", queueCapacity=" + queueCapacity + ", threads=" + threads + ", chunkSize=" + chunkSize
-				+ ", readFrom=" + readFrom + ", memUsageLimit=" + memUsageLimit + ", memUsageSamples=" + memUsageSamples
-				+ ", flushInterval=" + flushInterval + ", idleTimeout=" + idleTimeout + ", notificationQueueCapacity="
-				+ notificationQueueCapacity + ", retryLimit=" + retryLimit + ", skipLimit=" + skipLimit
-				+ ", keyFilterArgs=" + keyFilterArgs + ", pollTimeout=" + pollTimeout + "]";
+				+ ", readFrom=" + readFrom + ", scanNodes=" + scanNodes + ", memUsageLimit=" + memUsageLimit
+				+ ", memUsageSamples=" + memUsageSamples + ", flushInterval=" + flushInterval + ", idleTimeout="
+				+ idleTimeout + ", notificationQueueCapacity=" + notificationQueueCapacity + ", retryLimit="
+				+ retryLimit + ", skipLimit=" + skipLimit + ", keyFilterArgs=" + keyFilterArgs + ", pollTimeout="
+				+ pollTimeout + "]";
 	}
 
 }
@@ -1,18 +1,28 @@
 package com.redis.riot;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
 
 import org.springframework.batch.core.Job;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
 
+import com.redis.riot.core.ByteSizeEstimator;
+import com.redis.riot.core.RiotUtils;
 import com.redis.riot.core.Step;
 import com.redis.spring.batch.item.redis.RedisItemReader;
 import com.redis.spring.batch.item.redis.RedisItemReader.ReaderMode;
 import com.redis.spring.batch.item.redis.RedisItemWriter;
+import com.redis.spring.batch.item.redis.common.KeyEvent;
 import com.redis.spring.batch.item.redis.common.KeyValue;
 import com.redis.spring.batch.item.redis.reader.KeyComparisonItemReader;
 import com.redis.spring.batch.item.redis.reader.KeyEventStatus;
 import com.redis.spring.batch.item.redis.reader.KeyNotificationItemReader;
+import com.redis.spring.batch.item.redis.reader.KeyValueRead;
 import com.redis.spring.batch.item.redis.reader.RedisScanSizeEstimator;
 
 import io.lettuce.core.codec.ByteArrayCodec;
@@ -27,10 +37,17 @@ public class Replicate extends AbstractCompareCommand {
 		FULL, QUICK, NONE
 	}
 
+	public enum EventOverflow {
+		DROP, SPILL
+	}
+
 	public static final String STEP_NAME = "replicate";
 	public static final CompareMode DEFAULT_COMPARE_MODE = CompareMode.QUICK;
+	public static final DataSize DEFAULT_HYBRID_THRESHOLD = DataSize.ofMegabytes(1);
 
 	private static final String QUEUE_MESSAGE = " | capacity: %,d | dropped: %,d";
+	private static final String COALESCED_MESSAGE = " | coalesced: %,d";
+	private static final String SPILLED_MESSAGE = " | spilled: %,d";
 	private static final String SCAN_TASK_NAME = "Scanning";
 	private static final String LIVEONLY_TASK_NAME = "Listening";
 	private static final String LIVE_TASK_NAME = "Scanning/Listening";
@@ -38,9 +55,30 @@ public class Replicate extends AbstractCompareCommand {
 	@Option(names = "--struct", description = "Enable data structure-specific replication")
 	private boolean struct;
 
+	@Option(names = "--hybrid", description = "Choose between dump and data structure-specific replication for each key.")
+	private boolean hybrid;
+
+	@Option(names = "--hybrid-threshold", description = "Memory usage over which keys are replicated with data structure-specific commands in hybrid mode (default: ${DEFAULT-VALUE}).", paramLabel = "<size>")
+	private DataSize hybridThreshold = DEFAULT_HYBRID_THRESHOLD;
+
 	@ArgGroup(exclusive = false)
 	private RedisWriterArgs targetRedisWriterArgs = new RedisWriterArgs();
 
+	@Option(names = "--large-keys", description = "Migrate keys over --mem-limit incrementally instead of skipping them.")
+	private boolean largeKeys;
+
+	@Option(names = "--large-key-batch", description = "Number of elements copied at a time when migrating large keys (default: ${DEFAULT-VALUE}).", paramLabel = "<int>")
+	private int largeKeyBatchSize = LargeKeyMigrator.DEFAULT_BATCH_SIZE;
+
+	@Option(names = "--coalesce", description = "Collapse repeated keyspace notifications for a key into a single read in live mode. True by default.", negatable = true, defaultValue = "true", fallbackValue = "true")
+	private boolean coalesce = true;
+
+	@Option(names = "--event-overflow", description = "What to do with keyspace notifications that do not fit in the event queue: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).", paramLabel = "<mode>")
+	private EventOverflow eventOverflow = EventOverflow.DROP;
+
+	@Option(names = "--spill-dir", description = "Directory for keyspace notifications spilled to disk (default: system temp directory).", paramLabel = "<dir>")
+	private File spillDirectory;
+
 	@Option(names = "--log-keys", description = "Log keys being read and written.")
 	private boolean logKeys;
 
@@ -71,35 +109,126 @@ public class Replicate extends AbstractCompareCommand {
 	}
 
 	private Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> step() {
-		RedisItemReader<byte[], byte[], Object> reader = reader();
-		configureSourceRedisReader(reader);
-		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> writer = writer();
-		configureTargetRedisWriter(writer);
-		Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> step = step(STEP_NAME, reader, writer);
-		step.processor(processor());
+		ReplicateReadLogger<byte[]> readLogger = logKeys ? new ReplicateReadLogger<>(log, ByteArrayCodec.INSTANCE)
+				: null;
+		KeyEventCoalescer<byte[]> coalescer = coalesce ? new KeyEventCoalescer<>() : null;
+		Supplier<RedisItemReader<byte[], byte[], Object>> readerFactory = () -> {
+			RedisItemReader<byte[], byte[], Object> reader = reader();
+			configureSourceRedisReader(reader);
+			if (isHybridReplication()) {
+				configureHybridReader(reader);
+			}
+			if (coalescer != null && reader.getMode() != ReaderMode.SCAN) {
+				reader.setProcessor(RiotUtils.processor(getSourceRedisReaderArgs().keyProcessor(reader.getCodec()),
+						coalescer));
+				reader.addItemWriteListener(coalescer);
+			}
+			if (readLogger != null) {
+				reader.addItemReadListener(readLogger);
+				reader.addItemWriteListener(readLogger);
+			}
+			return reader;
+		};
+		RedisItemReader<byte[], byte[], Object> reader = readerFactory.get();
+		HybridKeyClassifier classifier = isHybridReplication() ? hybridKeyClassifier() : null;
+		ItemWriter<KeyValue<byte[], Object>> writer = writer(classifier);
+		Step<KeyValue<byte[], Object>, KeyValue<byte[], Object>> step = step(STEP_NAME, reader, readerFactory, writer);
+		HybridStructProcessor structProcessor = null;
+		if (classifier != null) {
+			structProcessor = new HybridStructProcessor(reader.getClient(), classifier, maxMemUsage());
+			step.executionListener(structProcessor);
+		}
+		LargeKeyMigrator largeKeyMigrator = largeKeyMigrator(reader);
+		if (largeKeyMigrator != null) {
+			step.executionListener(largeKeyMigrator);
+		}
+		// Struct processor first: keys it leaves without a value are over --mem-limit
+		step.processor(RiotUtils.processor(structProcessor, largeKeyMigrator, processor()));
 		step.taskName(taskName(reader));
 		if (reader.getMode() != ReaderMode.SCAN) {
-			step.statusMessageSupplier(() -> liveExtraMessage(reader));
+			KeyEventSpiller spiller = spiller(reader);
+			step.statusMessageSupplier(() -> liveExtraMessage(reader, coalescer, spiller));
+			if (coalescer != null) {
+				step.gauge("notifications-coalesced", coalescer::getCount);
+			}
+			if (spiller != null) {
+				step.executionListener(spiller);
+				step.gauge("notifications-spilled", spiller::size);
+			}
 		}
 		step.maxItemCountSupplier(RedisScanSizeEstimator.from(reader));
+		ByteSizeEstimator sizeEstimator = new ByteSizeEstimator();
+		step.byteSizeFunction(t -> sizeEstimator.applyAsLong(t.getKey()) + sizeEstimator.applyAsLong(t.getValue()));
 		if (logKeys) {
 			log.info("Adding key logger");
 			ReplicateWriteLogger<byte[], Object> writeLogger = new ReplicateWriteLogger<>(log, reader.getCodec());
 			step.writeListener(writeLogger);
-			ReplicateReadLogger<byte[]> readLogger = new ReplicateReadLogger<>(log, reader.getCodec());
-			reader.addItemReadListener(readLogger);
-			reader.addItemWriteListener(readLogger);
 		}
 		return step;
 	}
 
+	private KeyEventSpiller spiller(RedisItemReader<byte[], byte[], Object> reader) {
+		if (eventOverflow != EventOverflow.SPILL) {
+			return null;
+		}
+		File directory = spillDirectory == null ? new File(System.getProperty("java.io.tmpdir"), "riot-spill")
+				: spillDirectory;
+		log.info("Creating keyspace notification spiller in {}", directory);
+		return new KeyEventSpiller(() -> notificationQueue(reader), directory.toPath());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private BlockingQueue<KeyEvent<byte[]>> notificationQueue(RedisItemReader<?, ?, ?> reader) {
+		if (reader.getReader() instanceof KeyNotificationItemReader) {
+			return ((KeyNotificationItemReader) reader.getReader()).getQueue();
+		}
+		return null;
+	}
+
+	private LargeKeyMigrator largeKeyMigrator(RedisItemReader<byte[], byte[], Object> reader) {
+		if (!largeKeys || getJobArgs().isDryRun()) {
+			return null;
+		}
+		Assert.notNull(getSourceRedisReaderArgs().getMemUsageLimit(), "--large-keys requires --mem-limit");
+		log.info("Creating large key migrator with batch size {}", largeKeyBatchSize);
+		LargeKeyMigrator migrator = new LargeKeyMigrator(reader.getClient(), getTargetRedisContext().getClient(), log);
+		migrator.setBatchSize(largeKeyBatchSize);
+		migrator.setSourcePoolSize(getSourceRedisArgs().getPoolSize());
+		migrator.setTargetPoolSize(getTargetRedisArgs().getPoolSize());
+		return migrator;
+	}
+
+	/**
+	 *
+	 * @return true if keys are replicated with dump or struct commands depending
+	 *         on their type and size. Type processing rewrites every value so it
+	 *         falls back to struct replication.
+	 */
+	private boolean isHybridReplication() {
+		return hybrid && !isStructValues();
+	}
+
+	private boolean isStructValues() {
+		return struct || (hybrid && getProcessorArgs().getTypeExpression() != null);
+	}
+
+	private HybridKeyClassifier hybridKeyClassifier() {
+		KeyValueProcessorArgs args = getProcessorArgs();
+		boolean streamProcessing = !args.isPropagateIds() || args.isPrune();
+		HybridKeyClassifier classifier = new HybridKeyClassifier(hybridThreshold.toBytes(), maxMemUsage(),
+				streamProcessing);
+		log.info("Creating {}", classifier);
+		return classifier;
+	}
+
 	private boolean shouldCompare() {
 		return compareMode != CompareMode.NONE && !getJobArgs().isDryRun();
 	}
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	private RedisItemReader<byte[], byte[], Object> reader() {
-		if (struct) {
+		Assert.isTrue(!(struct && hybrid), "--hybrid cannot be used with --struct");
+		if (isStructValues()) {
 			log.info("Creating Redis data-structure reader");
 			return RedisItemReader.struct(ByteArrayCodec.INSTANCE);
 		}
@@ -107,12 +236,56 @@ public class Replicate extends AbstractCompareCommand {
 		return (RedisItemReader) RedisItemReader.dump();
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
-	private RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> writer() {
-		if (struct) {
-			log.info("Creating Redis data-structure writer");
-			return RedisItemWriter.struct(ByteArrayCodec.INSTANCE);
+	/**
+	 * Keys over the hybrid threshold are read without their DUMP payload, the
+	 * struct processor then reads their data structure instead, or their DUMP
+	 * payload for types without struct support.
+	 */
+	private void configureHybridReader(RedisItemReader<byte[], byte[], Object> reader) {
+		if (reader.getOperation() instanceof KeyValueRead) {
+			@SuppressWarnings("rawtypes")
+			KeyValueRead operation = (KeyValueRead) reader.getOperation();
+			long memUsageLimit = hybridThreshold.toBytes();
+			long maxMemUsage = maxMemUsage();
+			if (maxMemUsage > 0) {
+				memUsageLimit = Math.min(memUsageLimit, maxMemUsage);
+			}
+			operation.setMemUsageLimit(memUsageLimit);
+			operation.setMemUsageSamples(getSourceRedisReaderArgs().getMemUsageSamples());
 		}
+	}
+
+	/**
+	 *
+	 * @return memory usage over which keys are skipped (or migrated with
+	 *         --large-keys), or 0 for no limit
+	 */
+	private long maxMemUsage() {
+		DataSize memUsageLimit = getSourceRedisReaderArgs().getMemUsageLimit();
+		return memUsageLimit == null ? 0 : memUsageLimit.toBytes();
+	}
+
+	private ItemWriter<KeyValue<byte[], Object>> writer(HybridKeyClassifier classifier) {
+		if (classifier == null) {
+			RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> writer = isStructValues() ? structWriter()
+					: dumpWriter();
+			configureTargetRedisWriter(writer);
+			return writer;
+		}
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> dumpWriter = dumpWriter();
+		configureTargetRedisWriter(dumpWriter);
+		RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> structWriter = structWriter();
+		configureTargetRedisWriter(structWriter);
+		return new HybridItemWriter(dumpWriter, structWriter, classifier);
+	}
+
+	private RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> structWriter() {
+		log.info("Creating Redis data-structure writer");
+		return RedisItemWriter.struct(ByteArrayCodec.INSTANCE);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private RedisItemWriter<byte[], byte[], KeyValue<byte[], Object>> dumpWriter() {
 		log.info("Creating Redis dump writer");
 		return (RedisItemWriter) RedisItemWriter.dump();
 	}
@@ -129,13 +302,21 @@ public class Replicate extends AbstractCompareCommand {
 	}
 
 	@SuppressWarnings("rawtypes")
-	private String liveExtraMessage(RedisItemReader<?, ?, ?> reader) {
+	private String liveExtraMessage(RedisItemReader<?, ?, ?> reader, KeyEventCoalescer<?> coalescer,
+			KeyEventSpiller spiller) {
 		KeyNotificationItemReader keyReader = (KeyNotificationItemReader) reader.getReader();
 		if (keyReader == null || keyReader.getQueue() == null) {
 			return "";
 		}
-		return String.format(QUEUE_MESSAGE, keyReader.getQueue().remainingCapacity(),
+		String message = String.format(QUEUE_MESSAGE, keyReader.getQueue().remainingCapacity(),
 				keyReader.count(KeyEventStatus.DROPPED));
+		if (coalescer != null) {
+			message += String.format(COALESCED_MESSAGE, coalescer.getCount());
+		}
+		if (spiller != null) {
+			message += String.format(SPILLED_MESSAGE, spiller.size());
+		}
+		return message;
 	}
 
 	@Override
@@ -158,10 +339,71 @@ public class Replicate extends AbstractCompareCommand {
 		return struct;
 	}
 
+	@Override
+	protected boolean isStreamStruct() {
+		return struct || hybrid;
+	}
+
 	public void setStruct(boolean type) {
 		this.struct = type;
 	}
 
+	public boolean isHybrid() {
+		return hybrid;
+	}
+
+	public void setHybrid(boolean enable) {
+		this.hybrid = enable;
+	}
+
+	public DataSize getHybridThreshold() {
+		return hybridThreshold;
+	}
+
+	public void setHybridThreshold(DataSize threshold) {
+		this.hybridThreshold = threshold;
+	}
+
+	public boolean isLargeKeys() {
+		return largeKeys;
+	}
+
+	public void setLargeKeys(boolean enable) {
+		this.largeKeys = enable;
+	}
+
+	public int getLargeKeyBatchSize() {
+		return largeKeyBatchSize;
+	}
+
+	public void setLargeKeyBatchSize(int size) {
+		this.largeKeyBatchSize = size;
+	}
+
+	public boolean isCoalesce() {
+		return coalesce;
+	}
+
+	public void setCoalesce(boolean enable) {
+		this.coalesce = enable;
+	}
+
+	public EventOverflow getEventOverflow() {
+		return eventOverflow;
+	}
+
+	public void setEventOverflow(EventOverflow overflow) {
+		this.eventOverflow = overflow;
+	}
+
+	public File getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	public void setSpillDirectory(File directory) {
+		this.spillDirectory = directory;
+	}
+
 	public boolean isLogKeys() {
 		return logKeys;
 	}
@@ -0,0 +1,5 @@
+package com.redis.riot;
+
+public enum ShardBy {
+	SLOT, PREFIX
+}
@@ -0,0 +1,143 @@
+package com.redis.riot;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.springframework.util.Assert;
+
+/**
+ * First-in first-out log of byte records backed by memory-mapped segment files,
+ * so that records can be set aside without growing the heap. Records are
+ * appended to the last segment and read from the first one. A segment file is
+ * deleted as soon as all of its records have been read.
+ * <p>
+ * Segments are laid out as a sequence of {@code length(4) bytes} records,
+ * terminated by a length of -1 when the next record does not fit. This class
+ * is not thread-safe.
+ */
+public class SpillLog implements AutoCloseable {
+
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private static final int END_OF_SEGMENT = -1;
+
+	private final Path directory;
+	private final int segmentSize;
+	private final Deque<Segment> segments = new ArrayDeque<>();
+	private int segmentIndex;
+	private long size;
+
+	/**
+	 *
+	 * @param directory   directory to create segment files in
+	 * @param segmentSize size in bytes of each segment file
+	 */
+	public SpillLog(Path directory, int segmentSize) {
+		Assert.notNull(directory, "Directory must not be null");
+		Assert.isTrue(segmentSize > Integer.BYTES, "Segment size must be greater than " + Integer.BYTES);
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+	}
+
+	public void append(byte[] record) throws IOException {
+		Segment segment = segments.peekLast();
+		int length = Integer.BYTES + record.length;
+		if (segment == null || segment.buffer.position() + length > segment.buffer.capacity()) {
+			if (segment != null && segment.buffer.remaining() >= Integer.BYTES) {
+				segment.buffer.putInt(END_OF_SEGMENT);
+			}
+			segment = createSegment(Math.max(segmentSize, length));
+			segments.addLast(segment);
+		}
+		segment.buffer.putInt(record.length);
+		segment.buffer.put(record);
+		size++;
+	}
+
+	/**
+	 *
+	 * @return oldest record in the log, or null if the log is empty
+	 */
+	public byte[] poll() throws IOException {
+		while (size > 0) {
+			Segment segment = segments.peekFirst();
+			int length = segment.readPosition + Integer.BYTES <= segment.buffer.position()
+					? segment.buffer.getInt(segment.readPosition)
+					: END_OF_SEGMENT;
+			if (length == END_OF_SEGMENT) {
+				segments.removeFirst();
+				segment.delete();
+				continue;
+			}
+			byte[] record = new byte[length];
+			int offset = segment.readPosition + Integer.BYTES;
+			segment.buffer.get(offset, record);
+			segment.readPosition = offset + length;
+			size--;
+			if (size == 0) {
+				// Start over from a fresh segment once everything has been read
+				clear();
+			}
+			return record;
+		}
+		return null;
+	}
+
+	private Segment createSegment(int capacity) throws IOException {
+		Files.createDirectories(directory);
+		Path file = directory.resolve(String.format("spill-%d-%d.log", ProcessHandle.current().pid(), segmentIndex++));
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return new Segment(file, channel.map(MapMode.READ_WRITE, 0, capacity));
+		}
+	}
+
+	/**
+	 *
+	 * @return number of records in the log
+	 */
+	public long size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	private void clear() throws IOException {
+		while (!segments.isEmpty()) {
+			segments.removeFirst().delete();
+		}
+		size = 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		clear();
+	}
+
+	private static class Segment {
+
+		private final Path file;
+		private final MappedByteBuffer buffer;
+		private int readPosition;
+
+		public Segment(Path file, MappedByteBuffer buffer) {
+			this.file = file;
+			this.buffer = buffer;
+		}
+
+		public void delete() throws IOException {
+			Files.deleteIfExists(file);
+		}
+
+	}
+
+}
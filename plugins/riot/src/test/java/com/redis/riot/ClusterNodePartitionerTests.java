@@ -0,0 +1,109 @@
+package com.redis.riot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.models.partitions.Partitions;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode.NodeFlag;
+
+class ClusterNodePartitionerTests {
+
+	private TopologyClient client;
+	private ClusterNodePartitioner partitioner;
+
+	@BeforeEach
+	void setup() {
+		client = new TopologyClient();
+		partitioner = new ClusterNodePartitioner(client, RedisURI.create("localhost", 7000));
+	}
+
+	@AfterEach
+	void teardown() {
+		client.shutdown();
+	}
+
+	private RedisClusterNode node(String id, int port, NodeFlag flag, Integer... slots) {
+		RedisClusterNode node = new RedisClusterNode();
+		node.setNodeId(id);
+		node.setUri(RedisURI.create("localhost", port));
+		node.setFlags(EnumSet.of(flag));
+		node.setSlots(Arrays.asList(slots));
+		return node;
+	}
+
+	@Test
+	void partition() {
+		client.topology(node("a", 7000, NodeFlag.UPSTREAM, 0, 1, 2), node("b", 7001, NodeFlag.UPSTREAM),
+				node("c", 7002, NodeFlag.REPLICA), node("d", 7003, NodeFlag.UPSTREAM, 3, 4));
+		Map<String, ExecutionContext> partitions = partitioner.partition(16);
+		Assertions.assertEquals(Arrays.asList("a", "d"), new ArrayList<>(partitions.keySet()));
+		ExecutionContext context = partitions.get("d");
+		Assertions.assertEquals("d", context.getString(ClusterNodePartitioner.NODE_ID_KEY));
+		Assertions.assertEquals("localhost", context.getString(ClusterNodePartitioner.HOST_KEY));
+		Assertions.assertEquals(7003, context.getInt(ClusterNodePartitioner.PORT_KEY));
+	}
+
+	@Test
+	void partitionAfterResharding() {
+		client.topology(node("a", 7000, NodeFlag.UPSTREAM, 0, 1), node("b", 7001, NodeFlag.UPSTREAM));
+		Assertions.assertEquals(Arrays.asList("a"), new ArrayList<>(partitioner.partition(16).keySet()));
+		client.topology(node("a", 7000, NodeFlag.UPSTREAM, 0), node("b", 7001, NodeFlag.UPSTREAM, 1));
+		Assertions.assertEquals(Arrays.asList("a", "b"), new ArrayList<>(partitioner.partition(16).keySet()));
+	}
+
+	@Test
+	void readerOfFormerUpstream() {
+		client.topology(node("a", 7000, NodeFlag.UPSTREAM, 0, 1), node("b", 7001, NodeFlag.UPSTREAM, 2));
+		Map<String, ExecutionContext> partitions = partitioner.partition(16);
+		// Failover before the partition starts
+		client.topology(node("a", 7000, NodeFlag.REPLICA), node("b", 7001, NodeFlag.UPSTREAM, 0, 1, 2));
+		client.refreshPartitions();
+		ItemStreamException exception = Assertions.assertThrows(ItemStreamException.class,
+				() -> partitioner.reader(partitions.get("a"), () -> null, "scan"));
+		Assertions.assertEquals("Node a (localhost:7000) is no longer an upstream cluster node",
+				exception.getMessage());
+		// Node removed from the cluster
+		client.topology(node("b", 7001, NodeFlag.UPSTREAM, 0, 1, 2));
+		client.refreshPartitions();
+		Assertions.assertThrows(ItemStreamException.class,
+				() -> partitioner.reader(partitions.get("a"), () -> null, "scan"));
+	}
+
+	/**
+	 * Cluster client returning a given topology instead of querying nodes.
+	 */
+	private static class TopologyClient extends RedisClusterClient {
+
+		private final Partitions partitions = new Partitions();
+		private List<RedisClusterNode> topology = new ArrayList<>();
+
+		public void topology(RedisClusterNode... nodes) {
+			this.topology = Arrays.asList(nodes);
+		}
+
+		@Override
+		public void refreshPartitions() {
+			partitions.reload(topology);
+		}
+
+		@Override
+		public Partitions getPartitions() {
+			return partitions;
+		}
+
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.redis.riot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+
+import com.redis.riot.core.Expression;
+
+import net.datafaker.Faker;
+
+class EvaluationContextArgsTests {
+
+	private static final int THREADS = 8;
+
+	@Test
+	void varsConsistentAcrossThreads() throws Exception {
+		EvaluationContextArgs args = new EvaluationContextArgs();
+		args.getVarExpressions().put("now", Expression.parse("T(java.lang.System).nanoTime()"));
+		args.getVarExpressions().put("random", Expression.parse("T(java.util.UUID).randomUUID().toString()"));
+		EvaluationContext context = args.evaluationContext(c -> c.setVariable("configured", true));
+		Object now = context.lookupVariable("now");
+		Object random = context.lookupVariable("random");
+		Assertions.assertNotNull(now);
+		Assertions.assertNotNull(random);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Object[]>> futures = new ArrayList<>();
+			for (int index = 0; index < THREADS; index++) {
+				futures.add(executor.submit(() -> new Object[] { context.lookupVariable("now"),
+						context.lookupVariable("random"), context.lookupVariable("configured"),
+						context.lookupVariable(EvaluationContextArgs.VAR_DATE) }));
+			}
+			for (Future<Object[]> future : futures) {
+				Object[] values = future.get();
+				Assertions.assertEquals(now, values[0]);
+				Assertions.assertEquals(random, values[1]);
+				Assertions.assertEquals(true, values[2]);
+				// Date formats are not thread-safe and stay per thread
+				Assertions.assertNotSame(context.lookupVariable(EvaluationContextArgs.VAR_DATE), values[3]);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void lazyFaker() {
+		EvaluationContext context = new EvaluationContextArgs().evaluationContext(c -> {
+		});
+		Object faker = context.lookupVariable(EvaluationContextArgs.VAR_FAKER);
+		Assertions.assertInstanceOf(Faker.class, faker);
+		Assertions.assertSame(faker, context.lookupVariable(EvaluationContextArgs.VAR_FAKER));
+	}
+
+}
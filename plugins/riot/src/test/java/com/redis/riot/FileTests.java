@@ -6,6 +6,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -18,10 +19,13 @@ import org.junit.jupiter.api.TestInfo;
 import com.redis.riot.core.AbstractJobCommand;
 import com.redis.riot.core.ProgressStyle;
 import com.redis.riot.operation.HsetCommand;
+import com.redis.riot.operation.XaddCommand;
 import com.redis.spring.batch.test.AbstractTargetTestBase;
 import com.redis.spring.batch.test.KeyspaceComparison;
 
+import io.lettuce.core.Range;
 import io.lettuce.core.RedisURI;
+import io.lettuce.core.StreamMessage;
 
 abstract class FileTests extends AbstractTargetTestBase {
 
@@ -123,6 +127,35 @@ abstract class FileTests extends AbstractTargetTestBase {
 		}
 	}
 
+	@Test
+	void fileImportConcurrent(TestInfo info) throws Exception {
+		Path temp = Files.createTempDirectory("fileConcurrent");
+		for (int index = 1; index <= 2; index++) {
+			File file = temp.resolve("beers" + index + ".csv").toFile();
+			IOUtils.copy(getClass().getClassLoader().getResourceAsStream("files/beers" + index + ".csv"),
+					new FileOutputStream(file));
+		}
+		FileImport executable = new FileImport();
+		configure(info, executable);
+		executable.setFiles(temp.resolve("*.csv").toFile().getPath());
+		executable.getFileReaderArgs().getFileArgs().setHeader(true);
+		executable.setFileConcurrency(2);
+		executable.setPoolSize(4);
+		executable.getJobArgs().setThreads(2);
+		executable.getJobArgs().setRate(100000);
+		HsetCommand hset = new HsetCommand();
+		hset.setKeyspace(KEYSPACE);
+		hset.setKeyFields(ID);
+		executable.setImportOperationCommands(hset);
+		executable.call();
+		List<String> keys = redisCommands.keys("*");
+		assertEquals(2410, keys.size());
+		for (String key : keys) {
+			Map<String, String> map = redisCommands.hgetall(key);
+			assertEquals(key, KEYSPACE + ":" + map.get(ID));
+		}
+	}
+
 	@Test
 	void fileImportCSVMultiThreaded(TestInfo info) throws Exception {
 		FileImport executable = new FileImport();
@@ -145,6 +178,91 @@ abstract class FileTests extends AbstractTargetTestBase {
 		}
 	}
 
+	@Test
+	void fileImportCSVParallelParsing(TestInfo info) throws Exception {
+		FileImport executable = new FileImport();
+		configure(info, executable);
+		executable.setFiles("https://storage.googleapis.com/jrx/beers.csv");
+		executable.getFileReaderArgs().getFileArgs().setHeader(true);
+		executable.getFileReaderArgs().setParallelParsing(true);
+		executable.getJobArgs().setThreads(3);
+		HsetCommand operationBuilder = new HsetCommand();
+		operationBuilder.setKeyspace(KEYSPACE);
+		operationBuilder.setKeyFields(ID);
+		executable.setImportOperationCommands(operationBuilder);
+		executable.call();
+		List<String> keys = redisCommands.keys("*");
+		assertEquals(2410, keys.size());
+		for (String key : keys) {
+			Map<String, String> map = redisCommands.hgetall(key);
+			String id = map.get(ID);
+			assertEquals(key, KEYSPACE + ":" + id);
+		}
+	}
+
+	@Test
+	void fileImportResume(TestInfo info) throws Exception {
+		Path temp = Files.createTempDirectory("fileResume");
+		Path file = temp.resolve("ids.csv");
+		List<String> lines = new ArrayList<>();
+		lines.add("id,name");
+		for (int index = 1; index <= 100; index++) {
+			lines.add(index + ",name" + index);
+		}
+		// Malformed line makes the first run fail in the middle of the file
+		lines.set(55, "55");
+		Files.write(file, lines);
+		Assertions.assertThrows(Exception.class, () -> resumableImport(info, file, temp.resolve("repo"), false).call());
+		Assertions.assertEquals(50, redisCommands.xlen("ids"));
+		lines.set(55, "55,name55");
+		Files.write(file, lines);
+		resumableImport(info, file, temp.resolve("repo"), true).call();
+		List<StreamMessage<String, String>> messages = redisCommands.xrange("ids", Range.unbounded());
+		Assertions.assertEquals(100, messages.size());
+		for (int index = 0; index < messages.size(); index++) {
+			Assertions.assertEquals(String.valueOf(index + 1), messages.get(index).getBody().get(ID));
+		}
+	}
+
+	private FileImport resumableImport(TestInfo info, Path file, Path repository, boolean resume) {
+		FileImport executable = new FileImport();
+		configure(info, executable);
+		executable.setFiles(file.toString());
+		executable.getFileReaderArgs().getFileArgs().setHeader(true);
+		executable.getJobArgs().setChunkSize(10);
+		executable.getJobArgs().getJobRepositoryArgs().setDirectory(repository);
+		executable.getJobArgs().getJobRepositoryArgs().setResume(resume);
+		XaddCommand xadd = new XaddCommand();
+		xadd.setKeyspace("ids");
+		executable.setImportOperationCommands(xadd);
+		return executable;
+	}
+
+	@Test
+	void fileImportCSVPartitioned(TestInfo info) throws Exception {
+		Path temp = Files.createTempDirectory("filePartitioned");
+		File file = temp.resolve("beers1.csv").toFile();
+		IOUtils.copy(getClass().getClassLoader().getResourceAsStream("files/beers1.csv"), new FileOutputStream(file));
+		FileImport executable = new FileImport();
+		configure(info, executable);
+		executable.setFiles(file.getPath());
+		executable.getFileReaderArgs().getFileArgs().setHeader(true);
+		executable.getFileReaderArgs().setPartitioned(true);
+		executable.getJobArgs().setThreads(3);
+		HsetCommand operationBuilder = new HsetCommand();
+		operationBuilder.setKeyspace(KEYSPACE);
+		operationBuilder.setKeyFields(ID);
+		executable.setImportOperationCommands(operationBuilder);
+		executable.call();
+		List<String> keys = redisCommands.keys("*");
+		assertEquals(2000, keys.size());
+		for (String key : keys) {
+			Map<String, String> map = redisCommands.hgetall(key);
+			String id = map.get(ID);
+			assertEquals(key, KEYSPACE + ":" + id);
+		}
+	}
+
 	@Test
 	void fileImportJSONL(TestInfo info) throws Exception {
 		FileImport executable = new FileImport();
@@ -0,0 +1,102 @@
+package com.redis.riot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+class HybridItemWriterTests {
+
+	private static final long THRESHOLD = 1000;
+
+	private final RecordingWriter dumpWriter = new RecordingWriter();
+	private final RecordingWriter structWriter = new RecordingWriter();
+	private final HybridItemWriter writer = new HybridItemWriter(dumpWriter, structWriter,
+			new HybridKeyClassifier(THRESHOLD, 0, false));
+
+	private KeyValue<byte[], Object> item(DataType type, long memUsage, Object value) {
+		return HybridKeyClassifierTests.item(type, memUsage, value);
+	}
+
+	@Test
+	void routing() throws Exception {
+		KeyValue<byte[], Object> small = item(DataType.HASH, 1, "dump");
+		KeyValue<byte[], Object> large = item(DataType.HASH, THRESHOLD + 1, "struct");
+		// Read without its value, as keys over the threshold are
+		KeyValue<byte[], Object> json = item(DataType.JSON, THRESHOLD + 1, null);
+		KeyValue<byte[], Object> string = item(DataType.STRING, 1, "dump");
+		KeyValue<byte[], Object> list = item(DataType.LIST, THRESHOLD + 1, "struct");
+		writer.write(new Chunk<>(Arrays.asList(small, large, json, string, list)));
+		Assertions.assertEquals(Arrays.asList(Arrays.asList(small, json, string)), dumpWriter.chunks);
+		Assertions.assertEquals(Arrays.asList(Arrays.asList(large, list)), structWriter.chunks);
+	}
+
+	@Test
+	void singleWriter() throws Exception {
+		KeyValue<byte[], Object> small = item(DataType.SET, 1, "dump");
+		writer.write(new Chunk<>(Arrays.asList(small)));
+		KeyValue<byte[], Object> large = item(DataType.SET, THRESHOLD + 1, "struct");
+		writer.write(new Chunk<>(Arrays.asList(large)));
+		// Empty chunks are not written
+		Assertions.assertEquals(Arrays.asList(Arrays.asList(small)), dumpWriter.chunks);
+		Assertions.assertEquals(Arrays.asList(Arrays.asList(large)), structWriter.chunks);
+	}
+
+	@Test
+	void keyWithoutValue() throws Exception {
+		// Never written as a struct without its value
+		KeyValue<byte[], Object> large = item(DataType.ZSET, THRESHOLD + 1, null);
+		writer.write(new Chunk<>(Arrays.asList(large)));
+		Assertions.assertEquals(Arrays.asList(Arrays.asList(large)), dumpWriter.chunks);
+		Assertions.assertTrue(structWriter.chunks.isEmpty());
+	}
+
+	@Test
+	void stream() {
+		ExecutionContext executionContext = new ExecutionContext();
+		writer.open(executionContext);
+		Assertions.assertTrue(dumpWriter.open && structWriter.open);
+		writer.update(executionContext);
+		Assertions.assertEquals(1, dumpWriter.updates);
+		Assertions.assertEquals(1, structWriter.updates);
+		writer.close();
+		Assertions.assertFalse(dumpWriter.open || structWriter.open);
+	}
+
+	private static class RecordingWriter implements ItemStreamWriter<KeyValue<byte[], Object>> {
+
+		private final List<List<KeyValue<byte[], Object>>> chunks = new ArrayList<>();
+		private boolean open;
+		private int updates;
+
+		@Override
+		public void open(ExecutionContext executionContext) {
+			open = true;
+		}
+
+		@Override
+		public void update(ExecutionContext executionContext) {
+			updates++;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+
+		@Override
+		public void write(Chunk<? extends KeyValue<byte[], Object>> chunk) {
+			chunks.add(new ArrayList<>(chunk.getItems()));
+		}
+
+	}
+
+}
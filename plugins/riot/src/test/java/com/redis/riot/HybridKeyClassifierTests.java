@@ -0,0 +1,68 @@
+package com.redis.riot;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+
+class HybridKeyClassifierTests {
+
+	private static final long THRESHOLD = 1000;
+
+	static KeyValue<byte[], Object> item(DataType type, long memUsage, Object value) {
+		KeyValue<byte[], Object> item = new KeyValue<>();
+		item.setKey(type.getString().getBytes(StandardCharsets.UTF_8));
+		item.setType(type.getString());
+		item.setMemoryUsage(memUsage);
+		item.setValue(value);
+		return item;
+	}
+
+	@Test
+	void threshold() {
+		HybridKeyClassifier classifier = new HybridKeyClassifier(THRESHOLD, 0, false);
+		for (DataType type : new DataType[] { DataType.HASH, DataType.SET, DataType.ZSET, DataType.LIST,
+				DataType.STREAM, DataType.STRING }) {
+			Assertions.assertFalse(classifier.test(item(type, THRESHOLD, "dump")), type.getString());
+			Assertions.assertTrue(classifier.test(item(type, THRESHOLD + 1, "dump")), type.getString());
+		}
+	}
+
+	@Test
+	void unsupportedTypes() {
+		HybridKeyClassifier classifier = new HybridKeyClassifier(THRESHOLD, 0, true);
+		Assertions.assertFalse(classifier.test(item(DataType.JSON, THRESHOLD + 1, null)));
+		Assertions.assertFalse(classifier.test(item(DataType.TIMESERIES, THRESHOLD + 1, null)));
+		Assertions.assertFalse(classifier.test(item(DataType.NONE, THRESHOLD + 1, null)));
+	}
+
+	@Test
+	void streamProcessing() {
+		Assertions.assertFalse(new HybridKeyClassifier(THRESHOLD, 0, false).test(item(DataType.STREAM, 1, "dump")));
+		HybridKeyClassifier classifier = new HybridKeyClassifier(THRESHOLD, 0, true);
+		Assertions.assertTrue(classifier.test(item(DataType.STREAM, 1, "dump")));
+		Assertions.assertFalse(classifier.test(item(DataType.HASH, 1, "dump")));
+	}
+
+	@Test
+	void keyWithoutValue() {
+		// Keys over the threshold are read without a DUMP payload
+		HybridKeyClassifier classifier = new HybridKeyClassifier(THRESHOLD, 0, false);
+		KeyValue<byte[], Object> item = item(DataType.HASH, THRESHOLD + 1, null);
+		Assertions.assertTrue(classifier.test(item));
+		item.setValue("struct");
+		Assertions.assertTrue(classifier.test(item));
+	}
+
+	@Test
+	void memUsageLimit() {
+		HybridKeyClassifier classifier = new HybridKeyClassifier(THRESHOLD, 10 * THRESHOLD, true);
+		Assertions.assertTrue(classifier.test(item(DataType.HASH, 10 * THRESHOLD, null)));
+		Assertions.assertFalse(classifier.test(item(DataType.HASH, 10 * THRESHOLD + 1, null)));
+		Assertions.assertFalse(classifier.test(item(DataType.STREAM, 10 * THRESHOLD + 1, null)));
+	}
+
+}
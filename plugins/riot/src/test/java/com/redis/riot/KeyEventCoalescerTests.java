@@ -0,0 +1,84 @@
+package com.redis.riot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+
+import com.redis.spring.batch.item.redis.common.KeyEvent;
+
+class KeyEventCoalescerTests {
+
+	private static <K> KeyEvent<K> event(K key, String name) {
+		KeyEvent<K> event = new KeyEvent<>();
+		event.setKey(key);
+		event.setEvent(name);
+		return event;
+	}
+
+	private static KeyEvent<byte[]> event(String key) {
+		return event(key.getBytes(StandardCharsets.UTF_8), "set");
+	}
+
+	@Test
+	void suppressWhilePending() {
+		KeyEventCoalescer<String> coalescer = new KeyEventCoalescer<>();
+		KeyEvent<String> first = event("key", "hset");
+		Assertions.assertSame(first, coalescer.process(first));
+		Assertions.assertNull(coalescer.process(event("key", "hset")));
+		Assertions.assertNull(coalescer.process(event("key", "hdel")));
+		KeyEvent<String> other = event("other", "set");
+		Assertions.assertSame(other, coalescer.process(other));
+		Assertions.assertEquals(2, coalescer.getCount());
+	}
+
+	@Test
+	void releaseBeforeWrite() {
+		KeyEventCoalescer<String> coalescer = new KeyEventCoalescer<>();
+		KeyEvent<String> first = event("key", "set");
+		coalescer.process(first);
+		coalescer.process(event("other", "set"));
+		coalescer.beforeWrite(new Chunk<>(Arrays.asList(first)));
+		// Events arriving once the value is about to be read trigger a new read
+		KeyEvent<String> second = event("key", "set");
+		Assertions.assertSame(second, coalescer.process(second));
+		Assertions.assertNull(coalescer.process(event("key", "set")));
+		Assertions.assertNull(coalescer.process(event("other", "set")));
+		Assertions.assertEquals(2, coalescer.getCount());
+	}
+
+	@Test
+	void passThroughAtCapacity() {
+		KeyEventCoalescer<String> coalescer = new KeyEventCoalescer<>(2);
+		coalescer.process(event("a", "set"));
+		coalescer.process(event("b", "set"));
+		for (int index = 0; index < 3; index++) {
+			KeyEvent<String> event = event("c", "set");
+			Assertions.assertSame(event, coalescer.process(event));
+		}
+		// Tracked keys are still coalesced
+		Assertions.assertNull(coalescer.process(event("a", "set")));
+		Assertions.assertEquals(1, coalescer.getCount());
+		coalescer.beforeWrite(new Chunk<>(Arrays.asList(event("a", "set"))));
+		coalescer.process(event("c", "set"));
+		Assertions.assertNull(coalescer.process(event("c", "set")));
+	}
+
+	@Test
+	void byteArrayKeys() {
+		KeyEventCoalescer<byte[]> coalescer = new KeyEventCoalescer<>();
+		KeyEvent<byte[]> first = event("key");
+		Assertions.assertSame(first, coalescer.process(first));
+		// Equal contents in distinct arrays are the same key
+		Assertions.assertNull(coalescer.process(event("key")));
+		KeyEvent<byte[]> other = event("key2");
+		Assertions.assertSame(other, coalescer.process(other));
+		coalescer.beforeWrite(new Chunk<>(Arrays.asList(event("key"))));
+		KeyEvent<byte[]> second = event("key");
+		Assertions.assertSame(second, coalescer.process(second));
+		Assertions.assertEquals(1, coalescer.getCount());
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.redis.riot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import com.redis.spring.batch.item.redis.common.KeyEvent;
+
+class KeyEventSpillerTests {
+
+	private static final int CAPACITY = 8;
+
+	private final BlockingQueue<KeyEvent<byte[]>> queue = new ArrayBlockingQueue<>(CAPACITY);
+	private final StepExecution stepExecution = new StepExecution("step", new JobExecution(1L));
+	private KeyEventSpiller spiller;
+
+	/**
+	 * Spiller whose background thread never sees the queue, so that tests can
+	 * call transfer themselves.
+	 */
+	private KeyEventSpiller spiller(Path directory) {
+		spiller = new KeyEventSpiller(() -> null, directory);
+		spiller.beforeStep(stepExecution);
+		return spiller;
+	}
+
+	private KeyEventSpiller spiller() throws IOException {
+		return spiller(Files.createTempDirectory(getClass().getSimpleName()));
+	}
+
+	@AfterEach
+	void teardown() {
+		if (spiller != null) {
+			spiller.afterStep(stepExecution);
+		}
+	}
+
+	private KeyEvent<byte[]> event(String key) {
+		KeyEvent<byte[]> event = new KeyEvent<>();
+		event.setKey(key.getBytes(StandardCharsets.UTF_8));
+		event.setEvent("set");
+		return event;
+	}
+
+	private void add(int from, int to) {
+		for (int index = from; index < to; index++) {
+			queue.add(event(String.valueOf(index)));
+		}
+	}
+
+	private List<String> keys(BlockingQueue<KeyEvent<byte[]>> events) {
+		List<String> keys = new ArrayList<>();
+		events.forEach(e -> keys.add(new String(e.getKey(), StandardCharsets.UTF_8)));
+		return keys;
+	}
+
+	private List<String> keys(int from, int to) {
+		List<String> keys = new ArrayList<>();
+		for (int index = from; index < to; index++) {
+			keys.add(String.valueOf(index));
+		}
+		return keys;
+	}
+
+	private void consume(List<String> consumed) {
+		KeyEvent<byte[]> event;
+		while ((event = queue.poll()) != null) {
+			consumed.add(new String(event.getKey(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	void belowThreshold() throws Exception {
+		KeyEventSpiller spiller = spiller();
+		add(0, 6);
+		Assertions.assertFalse(spiller.transfer(queue));
+		Assertions.assertEquals(keys(0, 6), keys(queue));
+		Assertions.assertEquals(0, spiller.size());
+	}
+
+	@Test
+	void spillOldest() throws Exception {
+		KeyEventSpiller spiller = spiller();
+		add(0, 7);
+		Assertions.assertTrue(spiller.transfer(queue));
+		Assertions.assertEquals(keys(3, 7), keys(queue));
+		Assertions.assertEquals(3, spiller.size());
+	}
+
+	@Test
+	void replayBehindQueue() throws Exception {
+		KeyEventSpiller spiller = spiller();
+		add(0, 7);
+		spiller.transfer(queue);
+		List<String> consumed = new ArrayList<>();
+		consumed.add(new String(queue.poll().getKey(), StandardCharsets.UTF_8));
+		consumed.add(new String(queue.poll().getKey(), StandardCharsets.UTF_8));
+		add(7, 9);
+		// Half full: neither spilled nor replayed
+		Assertions.assertFalse(spiller.transfer(queue));
+		Assertions.assertEquals(keys(5, 9), keys(queue));
+		consume(consumed);
+		Assertions.assertTrue(spiller.transfer(queue));
+		Assertions.assertEquals(0, spiller.size());
+		consume(consumed);
+		Assertions.assertFalse(spiller.transfer(queue));
+		// Spilled events are read after events received later
+		List<String> expected = keys(3, 9);
+		expected.addAll(keys(0, 3));
+		Assertions.assertEquals(expected, consumed);
+	}
+
+	@Test
+	void concurrentProducer() throws Exception {
+		int count = 5000;
+		spiller = new KeyEventSpiller(() -> queue, Files.createTempDirectory(getClass().getSimpleName()));
+		spiller.beforeStep(stepExecution);
+		CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+			for (int index = 0; index < count; index++) {
+				try {
+					queue.put(event(String.valueOf(index)));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		});
+		Set<String> consumed = new HashSet<>();
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+		while (consumed.size() < count && System.currentTimeMillis() < deadline) {
+			KeyEvent<byte[]> event = queue.poll(10, TimeUnit.MILLISECONDS);
+			if (event != null) {
+				// Every key is notified once so none can be deduplicated
+				Assertions.assertTrue(consumed.add(new String(event.getKey(), StandardCharsets.UTF_8)));
+				if (consumed.size() % 10 == 0) {
+					// Slower than the producer so that events get spilled
+					Thread.sleep(1);
+				}
+			}
+		}
+		producer.get();
+		Assertions.assertEquals(new HashSet<>(keys(0, count)), consumed);
+		Assertions.assertEquals(0, spiller.size());
+		Assertions.assertFalse(stepExecution.isTerminateOnly());
+	}
+
+	@Test
+	void dedupe() throws Exception {
+		KeyEventSpiller spiller = spiller();
+		queue.addAll(Arrays.asList(event("key"), event("key"), event("key")));
+		add(0, 4);
+		spiller.transfer(queue);
+		Assertions.assertEquals(1, spiller.size());
+		queue.clear();
+		Assertions.assertTrue(spiller.transfer(queue));
+		Assertions.assertEquals(Arrays.asList("key"), keys(queue));
+	}
+
+	@Test
+	void spillFailure() throws Exception {
+		// Spill directory cannot be created
+		KeyEventSpiller spiller = spiller(Files.createTempFile(getClass().getSimpleName(), ".txt"));
+		add(0, 7);
+		Assertions.assertThrows(IOException.class, () -> spiller.transfer(queue));
+		// The event that could not be spilled is put back behind the others
+		List<String> expected = keys(1, 7);
+		expected.add("0");
+		Assertions.assertEquals(expected, keys(queue));
+		Assertions.assertEquals(0, spiller.size());
+	}
+
+	@Test
+	void stepFailure() throws Exception {
+		Path file = Files.createTempFile(getClass().getSimpleName(), ".txt");
+		KeyEventSpiller spiller = new KeyEventSpiller(() -> queue, file);
+		spiller.beforeStep(stepExecution);
+		add(0, 7);
+		Awaitility.await().atMost(10, TimeUnit.SECONDS).until(stepExecution::isTerminateOnly);
+		ExitStatus exitStatus = spiller.afterStep(stepExecution);
+		Assertions.assertEquals(ExitStatus.FAILED.getExitCode(), exitStatus.getExitCode());
+		Assertions.assertEquals(BatchStatus.FAILED, stepExecution.getStatus());
+		Assertions.assertInstanceOf(IOException.class, stepExecution.getFailureExceptions().get(0));
+		List<String> expected = keys(1, 7);
+		expected.add("0");
+		Assertions.assertEquals(expected, keys(queue));
+	}
+
+}
@@ -1,9 +1,11 @@
 package com.redis.riot;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +31,8 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.DoubleNode;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.redis.lettucemod.timeseries.Sample;
+import com.redis.riot.file.JsonItemEncoder;
+import com.redis.riot.file.ResourceItemWriter;
 import com.redis.riot.file.xml.XmlResourceItemWriter;
 import com.redis.riot.file.xml.XmlResourceItemWriterBuilder;
 import com.redis.spring.batch.item.redis.common.DataType;
@@ -36,6 +40,8 @@ import com.redis.spring.batch.item.redis.common.KeyValue;
 import com.redis.spring.batch.item.redis.gen.GeneratorItemReader;
 import com.redis.spring.batch.test.AbstractTestBase;
 
+import io.lettuce.core.ScoredValue;
+
 @TestInstance(Lifecycle.PER_CLASS)
 class KeyValueSerdeTests {
 
@@ -93,6 +99,95 @@ class KeyValueSerdeTests {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	void deserializeValueBeforeType() throws JsonProcessingException {
+		String json = "{\"value\":[{\"value\":\"a\",\"score\":1.5},{\"score\":2,\"value\":\"b\"}],\"key\":\"zset:1\",\"ttl\":123,\"type\":\"zset\",\"other\":{\"x\":[1,2]}}";
+		KeyValue<String, Object> expected = new KeyValue<>();
+		expected.setKey("zset:1");
+		expected.setType(DataType.ZSET.getString());
+		expected.setTtl(123L);
+		expected.setValue(new HashSet<>(Arrays.asList(ScoredValue.just(1.5, "a"), ScoredValue.just(2, "b"))));
+		assertEquals(expected, mapper.readValue(json, KeyValue.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void deserializeNullValue() throws JsonProcessingException {
+		String json = "{\"key\":\"stream:1\",\"type\":\"stream\",\"value\":null}";
+		KeyValue<String, Object> keyValue = mapper.readValue(json, KeyValue.class);
+		Assertions.assertEquals("stream:1", keyValue.getKey());
+		Assertions.assertNull(keyValue.getValue());
+	}
+
+	@Test
+	void jsonResourceWriter() throws Exception {
+		List<KeyValue<String, Object>> items = generate(17);
+		Path file = Files.createTempDirectory(getClass().getName()).resolve("redis.jsonl");
+		ResourceItemWriter<KeyValue<String, Object>> writer = jsonWriter(file);
+		writer.setTerminator("\n");
+		write(writer, items, 10);
+		assertLines(items, Files.readAllLines(file));
+	}
+
+	@Test
+	void jsonResourceWriterThreads() throws Exception {
+		List<KeyValue<String, Object>> items = generate(100);
+		Path file = Files.createTempDirectory(getClass().getName()).resolve("redis.json");
+		ResourceItemWriter<KeyValue<String, Object>> writer = jsonWriter(file);
+		writer.setHeader("[\n");
+		writer.setSeparator(",\n");
+		writer.setFooter("\n]\n");
+		writer.setThreads(4);
+		write(writer, items, 7);
+		List<String> lines = Files.readAllLines(file);
+		Assertions.assertEquals("[", lines.get(0));
+		Assertions.assertEquals("]", lines.get(lines.size() - 1));
+		Assertions.assertEquals(items.size(), mapper.readTree(file.toFile()).size());
+		List<String> records = lines.subList(1, lines.size() - 1);
+		for (int index = 0; index < records.size() - 1; index++) {
+			String record = records.get(index);
+			records.set(index, record.substring(0, record.length() - 1));
+		}
+		assertLines(items, records);
+	}
+
+	private List<KeyValue<String, Object>> generate(int count) throws Exception {
+		GeneratorItemReader reader = new GeneratorItemReader();
+		reader.setMaxItemCount(count);
+		reader.open(new ExecutionContext());
+		return AbstractTestBase.readAll(reader);
+	}
+
+	private ResourceItemWriter<KeyValue<String, Object>> jsonWriter(Path file) {
+		ObjectMapper writerMapper = new ObjectMapper();
+		SimpleModule module = new SimpleModule();
+		module.addSerializer(new KeyValueSerializer());
+		module.addSerializer(new KeyValueSerializer.ScoredValueSerializer());
+		module.addSerializer(new KeyValueSerializer.StreamMessageSerializer());
+		module.addSerializer(new KeyValueSerializer.SampleSerializer());
+		writerMapper.registerModule(module);
+		return new ResourceItemWriter<>(new FileSystemResource(file),
+				() -> new JsonItemEncoder<>(writerMapper, StandardCharsets.UTF_8));
+	}
+
+	private void write(ResourceItemWriter<KeyValue<String, Object>> writer, List<KeyValue<String, Object>> items,
+			int chunkSize) throws Exception {
+		writer.open(new ExecutionContext());
+		for (int index = 0; index < items.size(); index += chunkSize) {
+			writer.write(new Chunk<>(items.subList(index, Math.min(index + chunkSize, items.size()))));
+		}
+		writer.close();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void assertLines(List<KeyValue<String, Object>> items, List<String> lines) throws Exception {
+		Assertions.assertEquals(items.size(), lines.size());
+		for (int index = 0; index < items.size(); index++) {
+			assertEquals(items.get(index), mapper.readValue(lines.get(index), KeyValue.class));
+		}
+	}
+
 	private <K, T> void assertEquals(KeyValue<K, T> source, KeyValue<K, T> target) {
 		Assertions.assertEquals(source.getMemoryUsage(), target.getMemoryUsage());
 		Assertions.assertEquals(source.getTtl(), target.getTtl());
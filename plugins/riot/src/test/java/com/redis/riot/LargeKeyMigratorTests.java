@@ -0,0 +1,229 @@
+package com.redis.riot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+
+import com.redis.spring.batch.item.redis.common.DataType;
+import com.redis.spring.batch.item.redis.common.KeyValue;
+import com.redis.spring.batch.test.AbstractTargetTestBase;
+import com.redis.testcontainers.RedisServer;
+import com.redis.testcontainers.RedisStackContainer;
+
+import io.lettuce.core.Range;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.cluster.SlotHash;
+
+class LargeKeyMigratorTests extends AbstractTargetTestBase {
+
+	private static final RedisStackContainer source = new RedisStackContainer(
+			RedisStackContainer.DEFAULT_IMAGE_NAME.withTag(RedisStackContainer.DEFAULT_TAG));
+
+	private static final RedisStackContainer target = new RedisStackContainer(
+			RedisStackContainer.DEFAULT_IMAGE_NAME.withTag(RedisStackContainer.DEFAULT_TAG));
+
+	private static final int BATCH_SIZE = 10;
+
+	@Override
+	protected RedisStackContainer getRedisServer() {
+		return source;
+	}
+
+	@Override
+	protected RedisServer getTargetRedisServer() {
+		return target;
+	}
+
+	private LargeKeyMigrator migrator(int batchSize) {
+		LargeKeyMigrator migrator = new LargeKeyMigrator(redisClient, targetRedisClient,
+				LoggerFactory.getLogger(LargeKeyMigratorTests.class));
+		migrator.setBatchSize(batchSize);
+		return migrator;
+	}
+
+	private KeyValue<byte[], Object> item(String key, DataType type, long ttl) {
+		KeyValue<byte[], Object> item = new KeyValue<>();
+		item.setKey(key.getBytes(StandardCharsets.UTF_8));
+		item.setType(type.getString());
+		item.setTtl(ttl);
+		item.setMemoryUsage(Long.MAX_VALUE);
+		return item;
+	}
+
+	private void migrate(String key, DataType type) throws Exception {
+		migrate(migrator(BATCH_SIZE), item(key, type, -1));
+	}
+
+	private void migrate(LargeKeyMigrator migrator, KeyValue<byte[], Object> item) throws Exception {
+		StepExecution stepExecution = new StepExecution("step", new JobExecution(1L));
+		migrator.beforeStep(stepExecution);
+		try {
+			Assertions.assertNull(migrator.process(item));
+		} finally {
+			migrator.afterStep(stepExecution);
+		}
+		assertNoTempKeys();
+	}
+
+	private void assertNoTempKeys() {
+		Assertions.assertEquals(Arrays.asList(), targetRedisCommands.keys("*riot-tmp*"));
+	}
+
+	@Test
+	void hash() throws Exception {
+		Map<String, String> hash = new HashMap<>();
+		for (int index = 0; index < 105; index++) {
+			hash.put("field" + index, "value" + index);
+		}
+		redisCommands.hset("hash", hash);
+		targetRedisCommands.hset("hash", "stale", "value");
+		migrate("hash", DataType.HASH);
+		Assertions.assertEquals(hash, targetRedisCommands.hgetall("hash"));
+	}
+
+	@Test
+	void set() throws Exception {
+		Set<String> set = new HashSet<>();
+		for (int index = 0; index < 105; index++) {
+			set.add("member" + index);
+		}
+		redisCommands.sadd("set", set.toArray(new String[0]));
+		migrate("set", DataType.SET);
+		Assertions.assertEquals(set, targetRedisCommands.smembers("set"));
+	}
+
+	@Test
+	void zset() throws Exception {
+		for (int index = 0; index < 105; index++) {
+			redisCommands.zadd("zset", index / 2.0, "member" + index);
+		}
+		migrate("zset", DataType.ZSET);
+		List<ScoredValue<String>> expected = redisCommands.zrangeWithScores("zset", 0, -1);
+		Assertions.assertEquals(expected, targetRedisCommands.zrangeWithScores("zset", 0, -1));
+	}
+
+	@Test
+	void list() throws Exception {
+		for (int index = 0; index < 105; index++) {
+			redisCommands.rpush("list", "element" + index);
+		}
+		targetRedisCommands.rpush("list", "stale");
+		migrate("list", DataType.LIST);
+		Assertions.assertEquals(redisCommands.lrange("list", 0, -1), targetRedisCommands.lrange("list", 0, -1));
+	}
+
+	@Test
+	void stream() throws Exception {
+		for (int index = 0; index < 105; index++) {
+			Map<String, String> body = new HashMap<>();
+			body.put("field", "value" + index);
+			redisCommands.xadd("stream", body);
+		}
+		migrate("stream", DataType.STREAM);
+		List<StreamMessage<String, String>> expected = redisCommands.xrange("stream", Range.unbounded());
+		List<StreamMessage<String, String>> actual = targetRedisCommands.xrange("stream", Range.unbounded());
+		Assertions.assertEquals(expected.size(), actual.size());
+		for (int index = 0; index < expected.size(); index++) {
+			Assertions.assertEquals(expected.get(index).getId(), actual.get(index).getId());
+			Assertions.assertEquals(expected.get(index).getBody(), actual.get(index).getBody());
+		}
+	}
+
+	@Test
+	void string() throws Exception {
+		StringBuilder value = new StringBuilder();
+		for (int index = 0; index < 5000; index++) {
+			value.append(index % 10);
+		}
+		redisCommands.set("string", value.toString());
+		targetRedisCommands.set("string", "stale");
+		// Windows of 1KB
+		migrate(migrator(1), item("string", DataType.STRING, -1));
+		Assertions.assertEquals(value.toString(), targetRedisCommands.get("string"));
+	}
+
+	@Test
+	void pendingWrites() throws Exception {
+		String[] elements = new String[1000];
+		for (int index = 0; index < elements.length; index++) {
+			elements[index] = "element" + index;
+		}
+		redisCommands.rpush("list", elements);
+		LargeKeyMigrator migrator = migrator(3);
+		migrator.setMaxPending(2);
+		migrator.setSourcePoolSize(1);
+		migrator.setTargetPoolSize(1);
+		migrate(migrator, item("list", DataType.LIST, -1));
+		Assertions.assertEquals(Arrays.asList(elements), targetRedisCommands.lrange("list", 0, -1));
+	}
+
+	@Test
+	void notOpened() {
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> migrator(BATCH_SIZE).process(item("hash", DataType.HASH, -1)));
+	}
+
+	@Test
+	void ttl() throws Exception {
+		redisCommands.sadd("set", "a", "b", "c");
+		long ttl = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+		redisCommands.pexpireat("set", ttl);
+		migrate(migrator(BATCH_SIZE), item("set", DataType.SET, ttl));
+		long pttl = targetRedisCommands.pttl("set");
+		Assertions.assertTrue(pttl > TimeUnit.MINUTES.toMillis(59) && pttl <= TimeUnit.HOURS.toMillis(1));
+	}
+
+	@Test
+	void deletedBeforeMigration() throws Exception {
+		targetRedisCommands.hset("hash", "stale", "value");
+		migrate("hash", DataType.HASH);
+		Assertions.assertEquals(0, targetRedisCommands.exists("hash"));
+	}
+
+	@Test
+	void deletedDuringMigration() throws Exception {
+		String[] elements = new String[10000];
+		for (int index = 0; index < elements.length; index++) {
+			elements[index] = "element" + index;
+		}
+		redisCommands.rpush("list", elements);
+		targetRedisCommands.rpush("list", "stale");
+		CompletableFuture<Void> delete = CompletableFuture.runAsync(() -> {
+			Awaitility.await().pollInterval(1, TimeUnit.MILLISECONDS).atMost(10, TimeUnit.SECONDS)
+					.until(() -> !targetRedisCommands.keys("*riot-tmp*").isEmpty());
+			redisCommands.del("list");
+		});
+		migrate(migrator(1), item("list", DataType.LIST, -1));
+		delete.get();
+		Assertions.assertEquals(0, targetRedisCommands.exists("list"));
+	}
+
+	@Test
+	void tempKeySlot() {
+		LargeKeyMigrator migrator = migrator(BATCH_SIZE);
+		for (String key : Arrays.asList("hash", "{user:1}:hash", "a{}b", "a{b", "}{c}")) {
+			byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+			byte[] tempKey = migrator.tempKey(bytes);
+			Assertions.assertNotNull(tempKey, key);
+			Assertions.assertEquals(SlotHash.getSlot(bytes), SlotHash.getSlot(tempKey), key);
+		}
+		byte[] key = "{user:1}:hash".getBytes(StandardCharsets.UTF_8);
+		Assertions.assertNotEquals(new String(migrator.tempKey(key), StandardCharsets.UTF_8),
+				new String(migrator.tempKey(key), StandardCharsets.UTF_8));
+	}
+
+}
@@ -2,6 +2,7 @@ package com.redis.riot;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executors;
@@ -22,6 +23,7 @@ import com.redis.spring.batch.item.redis.RedisItemReader.ReaderMode;
 import com.redis.spring.batch.item.redis.common.DataType;
 import com.redis.spring.batch.item.redis.common.Range;
 import com.redis.spring.batch.item.redis.gen.GeneratorItemReader;
+import com.redis.spring.batch.test.KeyspaceComparison;
 
 import io.lettuce.core.cluster.SlotHash;
 import io.lettuce.core.codec.ByteArrayCodec;
@@ -139,6 +141,19 @@ abstract class RiotTests extends AbstractRiotApplicationTestBase {
 		Assertions.assertTrue(targetRedisCommands.keys("*").stream().map(SlotHash::getSlot).allMatch(between(0, 8000)));
 	}
 
+	@Test
+	void replicateScanNodes(TestInfo info) throws Exception {
+		generate(info, generator(1000));
+		Replicate replication = new Replicate();
+		replication.setCompareMode(CompareMode.NONE);
+		replication.getSourceRedisReaderArgs().setScanNodes(true);
+		replication.getJobArgs().setThreads(4);
+		execute(replication, info);
+		KeyspaceComparison<String> comparison = compare(info);
+		Assertions.assertFalse(comparison.getAll().isEmpty());
+		Assertions.assertEquals(Collections.emptyList(), comparison.mismatches());
+	}
+
 	private Predicate<Integer> between(int start, int end) {
 		return i -> i >= 0 && i <= end;
 	}
@@ -0,0 +1,77 @@
+package com.redis.riot;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SpillLogTests {
+
+	private byte[] record(int index) {
+		return ("record:" + index).repeat(index % 5 + 1).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private long files(Path directory) throws Exception {
+		try (Stream<Path> stream = Files.list(directory)) {
+			return stream.count();
+		}
+	}
+
+	@Test
+	void fifo() throws Exception {
+		Path directory = Files.createTempDirectory(getClass().getSimpleName());
+		try (SpillLog log = new SpillLog(directory, 1000)) {
+			for (int index = 0; index < 500; index++) {
+				log.append(record(index));
+			}
+			Assertions.assertEquals(500, log.size());
+			Assertions.assertTrue(files(directory) > 1);
+			for (int index = 0; index < 500; index++) {
+				Assertions.assertArrayEquals(record(index), log.poll());
+			}
+			Assertions.assertNull(log.poll());
+			Assertions.assertTrue(log.isEmpty());
+			Assertions.assertEquals(0, files(directory));
+		}
+	}
+
+	@Test
+	void interleaved() throws Exception {
+		Path directory = Files.createTempDirectory(getClass().getSimpleName());
+		try (SpillLog log = new SpillLog(directory, 100)) {
+			int written = 0;
+			int read = 0;
+			for (int round = 0; round < 50; round++) {
+				for (int index = 0; index < 7; index++) {
+					log.append(record(written++));
+				}
+				for (int index = 0; index < 5; index++) {
+					Assertions.assertArrayEquals(record(read++), log.poll());
+				}
+			}
+			while (read < written) {
+				Assertions.assertArrayEquals(record(read++), log.poll());
+			}
+			Assertions.assertNull(log.poll());
+		}
+	}
+
+	@Test
+	void largeRecord() throws Exception {
+		Path directory = Files.createTempDirectory(getClass().getSimpleName());
+		try (SpillLog log = new SpillLog(directory, 16)) {
+			byte[] large = new byte[1000];
+			large[999] = 1;
+			log.append(record(1));
+			log.append(large);
+			log.append(record(2));
+			Assertions.assertArrayEquals(record(1), log.poll());
+			Assertions.assertArrayEquals(large, log.poll());
+			Assertions.assertArrayEquals(record(2), log.poll());
+		}
+	}
+
+}
@@ -43,6 +43,7 @@ import com.redis.lettucemod.search.Suggestion;
 import com.redis.lettucemod.search.SuggetOptions;
 import com.redis.lettucemod.timeseries.MRangeOptions;
 import com.redis.lettucemod.timeseries.RangeResult;
+import com.redis.lettucemod.timeseries.Sample;
 import com.redis.lettucemod.timeseries.TimeRange;
 import com.redis.riot.Replicate.CompareMode;
 import com.redis.riot.core.Expression;
@@ -628,6 +629,33 @@ class StackRiotTests extends RiotTests {
 		assertCompare(info);
 	}
 
+	@Test
+	void replicateHybrid(TestInfo info) throws Throwable {
+		String filename = "replicate-hybrid";
+		// JSON and TimeSeries keys over the threshold are read without their value
+		StringBuilder json = new StringBuilder("{\"values\":[0");
+		for (int index = 1; index < 1000; index++) {
+			json.append(",").append(index);
+		}
+		redisCommands.jsonSet("json:large", "$", json.append("]}").toString());
+		redisCommands.jsonSet("json:small", "$", "{\"name\":\"small\"}");
+		for (int index = 1; index <= 1000; index++) {
+			redisCommands.tsAdd("ts:large", Sample.of(index, index));
+		}
+		Map<String, String> hash = new HashMap<>();
+		for (int index = 0; index < 100; index++) {
+			hash.put("field" + index, "value" + index);
+		}
+		redisCommands.hset("hash:large", hash);
+		redisCommands.set("string:small", "value");
+		execute(info, filename);
+		Assertions.assertEquals(redisCommands.jsonGet("json:large"), targetRedisCommands.jsonGet("json:large"));
+		Assertions.assertEquals(redisCommands.jsonGet("json:small"), targetRedisCommands.jsonGet("json:small"));
+		Assertions.assertEquals(1, targetRedisCommands.exists("ts:large"));
+		Assertions.assertEquals(hash, targetRedisCommands.hgetall("hash:large"));
+		assertCompare(info);
+	}
+
 	@Test
 	void replicateNoStreamId(TestInfo info) throws Throwable {
 		String filename = "replicate-no-stream-id";